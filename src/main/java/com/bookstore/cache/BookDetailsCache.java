@@ -0,0 +1,156 @@
+package com.bookstore.cache;
+
+import com.bookstore.dto.BookDTO;
+import com.bookstore.entity.Book;
+import com.bookstore.exception.ResourceNotFoundException;
+import com.bookstore.mapper.BookMapper;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookStockLevels;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Read-through cache of {@link BookDTO} snapshots for {@code GET /api/books/{id}}, each with its entity tag.
+ * Size and TTL limits come from {@code spring.cache.caffeine.spec}. Evictions issued inside a
+ * transaction are applied after commit. A read that loaded the row before that commit can still finish after the
+ * eviction, so every eviction first bumps a stamp for the book's id, and a read that loaded the book and sees its
+ * stamp move meanwhile drops what it cached: the old row may be served to that one request, but is not kept. Stamps
+ * are striped over {@value #STAMP_STRIPES} counters, so evicting one book only rarely costs another a reload, and
+ * cache hits are never dropped. Every eviction also marks the {@link CatalogVersion} changed, since listings show the
+ * same books.
+ */
+@Component
+public class BookDetailsCache {
+
+    public static final String CACHE_NAME = "books";
+
+    private static final int STAMP_STRIPES = 1024;
+
+    private final Cache cache;
+    private final BookRepository bookRepository;
+    private final BookStockLevels bookStockLevels;
+    private final BookMapper bookMapper;
+    private final CatalogVersion catalogVersion;
+    private final AtomicLongArray evictionStamps = new AtomicLongArray(STAMP_STRIPES);
+    private final AtomicLong clears = new AtomicLong();
+
+    public BookDetailsCache(CacheManager cacheManager, BookRepository bookRepository, BookStockLevels bookStockLevels,
+            BookMapper bookMapper, CatalogVersion catalogVersion) {
+        this.cache = Objects.requireNonNull(cacheManager.getCache(CACHE_NAME), "Missing cache: " + CACHE_NAME);
+        this.bookRepository = bookRepository;
+        this.bookStockLevels = bookStockLevels;
+        this.bookMapper = bookMapper;
+        this.catalogVersion = catalogVersion;
+    }
+
+    public BookDTO get(Long id) {
+        return snapshot(id).book();
+    }
+
+    public Snapshot snapshot(Long id) {
+        AtomicLong loadedAt = new AtomicLong(-1);
+        Snapshot snapshot;
+        try {
+            snapshot = cache.get(id, () -> {
+                loadedAt.set(stamp(id));
+                return bookRepository.findByIdWithCategory(id)
+                        .map(this::snapshotOf)
+                        .orElseThrow(() -> new ResourceNotFoundException("Book", "id", id));
+            });
+        } catch (Cache.ValueRetrievalException ex) {
+            if (ex.getCause() instanceof ResourceNotFoundException notFound) {
+                throw notFound;
+            }
+            throw ex;
+        }
+        if (loadedAt.get() >= 0 && stamp(id) != loadedAt.get()) {
+            cache.evict(id);
+        }
+        return snapshot;
+    }
+
+    public void evict(Long id) {
+        afterCommit(() -> evictNow(id));
+        catalogVersion.changed();
+    }
+
+    public void evictAll(Collection<Long> ids) {
+        afterCommit(() -> ids.forEach(this::evictNow));
+        catalogVersion.changed();
+    }
+
+    public void clear() {
+        afterCommit(() -> {
+            clears.incrementAndGet();
+            cache.clear();
+        });
+        catalogVersion.changed();
+    }
+
+    /**
+     * Bumps the stamp before evicting, so a load of the same book racing with the eviction sees it once it has cached.
+     */
+    private void evictNow(Long id) {
+        evictionStamps.incrementAndGet(stripe(id));
+        cache.evict(id);
+    }
+
+    /** Both counters only grow, so their sum moves whenever either does. */
+    private long stamp(Long id) {
+        return clears.get() + evictionStamps.get(stripe(id));
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id) & (STAMP_STRIPES - 1);
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+
+    /**
+     * The tag is derived from the book's id and {@code updatedAt} plus a hash of the snapshot, since stock and
+     * category names change without touching {@code updatedAt}.
+     */
+    private Snapshot snapshotOf(Book book) {
+        bookStockLevels.load(List.of(book));
+        BookDTO dto = bookMapper.toDTO(book);
+        long updatedAt = book.getUpdatedAt() != null
+                ? book.getUpdatedAt().toInstant(ZoneOffset.UTC).toEpochMilli() : 0;
+        return new Snapshot(dto, "\"" + book.getId() + "-" + Long.toString(updatedAt, 36) + "-"
+                + Integer.toHexString(dto.hashCode()) + "\"");
+    }
+
+    /**
+     * A cached book with its strong entity tag.
+     */
+    public record Snapshot(BookDTO book, String etag) {
+
+        /**
+         * Returns a copy so callers cannot mutate the shared instance.
+         */
+        @Override
+        public BookDTO book() {
+            return book.toBuilder().build();
+        }
+    }
+}
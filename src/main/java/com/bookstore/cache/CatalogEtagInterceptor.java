@@ -0,0 +1,34 @@
+package com.bookstore.cache;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Tags catalog listings with the {@link CatalogVersion} and answers a matching {@code If-None-Match} with 304
+ * before the handler runs, so an unchanged listing is neither queried nor serialized.
+ */
+public class CatalogEtagInterceptor implements HandlerInterceptor {
+
+    private final CatalogVersion catalogVersion;
+
+    public CatalogEtagInterceptor(CatalogVersion catalogVersion) {
+        this.catalogVersion = catalogVersion;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String etag = catalogVersion.etag();
+        boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        if (etag == null || !read) {
+            return true;
+        }
+        // taken before the handler reads, so the tag is never newer than the body
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+}
@@ -0,0 +1,85 @@
+package com.bookstore.cache;
+
+import com.bookstore.repository.CatalogRevisions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Version of everything the catalog listings and {@code /api/categories} show, used as their {@code ETag}.
+ * <p>
+ * Changes committed on this node show in the tag at once. They are written behind as a single increment of the
+ * shared {@code catalog_revision} row every {@code app.catalog.version-sync-interval}, so checkouts never contend on
+ * it, and other nodes pick the new revision up on their next sync; until then they may still answer 304 for a
+ * listing changed elsewhere.
+ */
+@Component
+public class CatalogVersion {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogVersion.class);
+
+    private final CatalogRevisions catalogRevisions;
+    /** Tells this node's unsynced changes apart from another node's. */
+    private final String nodeTag = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicReference<State> state = new AtomicReference<>(new State(-1, 0));
+
+    public CatalogVersion(CatalogRevisions catalogRevisions) {
+        this.catalogRevisions = catalogRevisions;
+    }
+
+    /**
+     * The current strong entity tag, or {@code null} until the revision has been read.
+     */
+    public String etag() {
+        State current = state.get();
+        if (current.revision() < 0) {
+            return null;
+        }
+        return current.pending() == 0 ? "\"r" + current.revision() + "\""
+                : "\"r" + current.revision() + "-" + nodeTag + "-" + current.pending() + "\"";
+    }
+
+    /**
+     * Records a change to the catalog; within a transaction it counts once that transaction commits.
+     */
+    public void changed() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pend();
+                }
+            });
+        } else {
+            pend();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.version-sync-interval:PT1S}")
+    public void sync() {
+        long synced = state.get().pending();
+        try {
+            if (synced > 0) {
+                catalogRevisions.increment();
+            }
+            long revision = catalogRevisions.current();
+            state.updateAndGet(current -> new State(revision, current.pending() - synced));
+        } catch (DataAccessException ex) {
+            log.warn("Catalog version sync failed: {}", ex.getMessage());
+        }
+    }
+
+    private void pend() {
+        state.updateAndGet(current -> new State(current.revision(), current.pending() + 1));
+    }
+
+    private record State(long revision, long pending) {
+    }
+}
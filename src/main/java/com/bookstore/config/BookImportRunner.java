@@ -0,0 +1,64 @@
+package com.bookstore.config;
+
+import com.bookstore.dto.BookImportReport;
+import com.bookstore.service.BookImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command-line catalog import: started with {@code --import-books=<feed>}, the application imports the feed and
+ * exits, with status 1 if any row was rejected. Files ending in {@code .csv} are read as CSV, anything else as
+ * JSON lines. Add {@code --spring.main.web-application-type=none} to skip starting the web server.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class BookImportRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BookImportRunner.class);
+
+    private static final String OPTION = "import-books";
+
+    private final BookImportService bookImportService;
+    private final ConfigurableApplicationContext context;
+
+    public BookImportRunner(BookImportService bookImportService, ConfigurableApplicationContext context) {
+        this.bookImportService = bookImportService;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        List<String> feeds = args.getOptionValues(OPTION);
+        if (feeds == null || feeds.isEmpty()) {
+            return;
+        }
+        Path feed = Path.of(feeds.get(0));
+        BookImportService.Format format = feed.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv")
+                ? BookImportService.Format.CSV : BookImportService.Format.JSON_LINES;
+        BookImportReport report;
+        try (InputStream in = Files.newInputStream(feed)) {
+            report = bookImportService.importBooks(in, format);
+        }
+        report.getErrors().forEach(error ->
+                log.warn("Row {} ({}) rejected: {}", error.getRow(), error.getIsbn(), error.getMessage()));
+        if (report.getFailed() > report.getErrors().size()) {
+            log.warn("{} more rows rejected", report.getFailed() - report.getErrors().size());
+        }
+        int status = report.getFailed() > 0 ? 1 : 0;
+        System.exit(SpringApplication.exit(context, () -> status));
+    }
+}
@@ -0,0 +1,11 @@
+package com.bookstore.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties({ CatalogSearchProperties.class, InventoryLedgerProperties.class })
+public class CatalogConfig {
+}
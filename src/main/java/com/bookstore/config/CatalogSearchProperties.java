@@ -0,0 +1,28 @@
+package com.bookstore.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.catalog.search")
+public class CatalogSearchProperties {
+
+    private boolean inMemoryIndex = false;
+    private Duration refreshInterval = Duration.ofMinutes(5);
+
+    public boolean isInMemoryIndex() {
+        return inMemoryIndex;
+    }
+
+    public void setInMemoryIndex(boolean inMemoryIndex) {
+        this.inMemoryIndex = inMemoryIndex;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+}
@@ -0,0 +1,9 @@
+package com.bookstore.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CheckoutProperties.class)
+public class CheckoutConfig {
+}
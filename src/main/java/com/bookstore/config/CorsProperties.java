@@ -11,8 +11,8 @@ public class CorsProperties {
     private List<String> allowedOrigins = new ArrayList<>(List.of("http://localhost:3000", "http://localhost:4200"));
     private List<String> allowedOriginPatterns = new ArrayList<>();
     private List<String> allowedMethods = new ArrayList<>(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-    private List<String> allowedHeaders = new ArrayList<>(List.of("Authorization", "Content-Type"));
-    private List<String> exposedHeaders = new ArrayList<>(List.of("Authorization"));
+    private List<String> allowedHeaders = new ArrayList<>(List.of("Authorization", "Content-Type", "Prefer", "If-None-Match"));
+    private List<String> exposedHeaders = new ArrayList<>(List.of("Authorization", "Location", "Preference-Applied", "ETag"));
     private boolean allowCredentials = false;
     private long maxAge = 3600;
 
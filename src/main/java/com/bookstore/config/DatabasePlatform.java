@@ -0,0 +1,35 @@
+package com.bookstore.config;
+
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Detects the database product once at startup so PostgreSQL-only query paths can fall back on H2.
+ */
+@Component
+public class DatabasePlatform {
+
+    private static final String POSTGRESQL_PRODUCT_NAME = "PostgreSQL";
+
+    private final boolean postgreSql;
+
+    public DatabasePlatform(DataSource dataSource) {
+        this.postgreSql = POSTGRESQL_PRODUCT_NAME.equalsIgnoreCase(resolveProductName(dataSource));
+    }
+
+    private static String resolveProductName(DataSource dataSource) {
+        try {
+            return JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        } catch (MetaDataAccessException ex) {
+            throw new IllegalStateException("Could not determine database product name", ex);
+        }
+    }
+
+    public boolean isPostgreSql() {
+        return postgreSql;
+    }
+}
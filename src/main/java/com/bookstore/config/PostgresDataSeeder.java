@@ -52,6 +52,7 @@ public class PostgresDataSeeder implements ApplicationRunner {
                 "Epic science fiction masterpiece", BigDecimal.valueOf(16.99), 40, sciFi);
         upsertBook("978-0132350884", "Clean Code", "Robert C. Martin",
                 "A handbook of agile software craftsmanship", BigDecimal.valueOf(39.99), 20, technology);
+        categoryRepository.reconcileBookCounts();
 
         upsertUser(ADMIN_EMAIL, "Admin", "User", Role.ADMIN,
                 "$2a$10$5hyXbq.nyvEg1C/aFm/6Ee5JW20MuMIggUh1LAVJtxYyQPB3LC9.y");
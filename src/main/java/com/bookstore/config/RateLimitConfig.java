@@ -0,0 +1,35 @@
+package com.bookstore.config;
+
+import com.bookstore.repository.RateLimitCounters;
+import com.bookstore.security.JdbcRateLimitStore;
+import com.bookstore.security.RateLimitStore;
+import com.bookstore.security.SlidingWindowRateLimiter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.security.rate-limit", name = "store", havingValue = "memory",
+            matchIfMissing = true)
+    public RateLimitStore inMemoryRateLimitStore(RateLimitProperties properties) {
+        return new SlidingWindowRateLimiter(
+                properties.getMaxClients(),
+                properties.getMaxRequests(),
+                properties.getWindowSeconds() * 1000L);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.security.rate-limit", name = "store", havingValue = "jdbc")
+    public RateLimitStore jdbcRateLimitStore(RateLimitCounters counters, RateLimitProperties properties) {
+        return new JdbcRateLimitStore(
+                counters,
+                properties.getMaxClients(),
+                properties.getMaxRequests(),
+                properties.getWindowSeconds() * 1000L,
+                properties.getLeaseSize(),
+                properties.getSyncInterval().toMillis());
+    }
+}
@@ -2,11 +2,17 @@ package com.bookstore.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 @ConfigurationProperties(prefix = "app.security.rate-limit")
 public class RateLimitProperties {
 
     private int maxRequests = 120;
     private int windowSeconds = 60;
+    private int maxClients = 262_144;
+    private Store store = Store.MEMORY;
+    private int leaseSize = 10;
+    private Duration syncInterval = Duration.ofMillis(200);
 
     public int getMaxRequests() {
         return maxRequests;
@@ -23,4 +29,43 @@ public class RateLimitProperties {
     public void setWindowSeconds(int windowSeconds) {
         this.windowSeconds = windowSeconds;
     }
+
+    public int getMaxClients() {
+        return maxClients;
+    }
+
+    public void setMaxClients(int maxClients) {
+        this.maxClients = maxClients;
+    }
+
+    public Store getStore() {
+        return store;
+    }
+
+    public void setStore(Store store) {
+        this.store = store;
+    }
+
+    public int getLeaseSize() {
+        return leaseSize;
+    }
+
+    public void setLeaseSize(int leaseSize) {
+        this.leaseSize = leaseSize;
+    }
+
+    public Duration getSyncInterval() {
+        return syncInterval;
+    }
+
+    public void setSyncInterval(Duration syncInterval) {
+        this.syncInterval = syncInterval;
+    }
+
+    public enum Store {
+        /** Per-node counters; each replica enforces the limit on its own. */
+        MEMORY,
+        /** Counters shared through the database, so the limit holds across replicas. */
+        JDBC
+    }
 }
@@ -0,0 +1,25 @@
+package com.bookstore.config;
+
+import com.bookstore.cache.CatalogEtagInterceptor;
+import com.bookstore.cache.CatalogVersion;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final CatalogVersion catalogVersion;
+
+    public WebConfig(CatalogVersion catalogVersion) {
+        this.catalogVersion = catalogVersion;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // single books carry their own tag; see BookDetailsCache
+        registry.addInterceptor(new CatalogEtagInterceptor(catalogVersion))
+                .addPathPatterns("/api/books", "/api/books/search", "/api/books/category/*",
+                        "/api/categories", "/api/categories/*");
+    }
+}
@@ -0,0 +1,36 @@
+package com.bookstore.config.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Adds a weighted {@code tsvector} column with a GIN index to {@code books}.
+ * Written in Java because the statements are PostgreSQL-only; other databases keep the LIKE search.
+ */
+@Component
+public class V2__AddBookFullTextSearch extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        if (!"PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName())) {
+            return;
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    ALTER TABLE books ADD COLUMN search_vector tsvector
+                        GENERATED ALWAYS AS (
+                            setweight(to_tsvector('simple', coalesce(title, '')), 'A')
+                            || setweight(to_tsvector('simple', coalesce(author, '')), 'B')
+                            || setweight(to_tsvector('simple', coalesce(description, '')), 'C')
+                        ) STORED
+                    """);
+            statement.execute("CREATE INDEX idx_books_search_vector ON books USING GIN (search_vector)");
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.bookstore.dto.RefreshTokenRequest;
 import com.bookstore.dto.RegisterRequest;
 import com.bookstore.domain.AuthResult;
 import com.bookstore.entity.User;
+import com.bookstore.security.UserPrincipal;
 import com.bookstore.service.AuditLogger;
 import com.bookstore.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,9 +14,11 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -75,6 +78,19 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Log out everywhere", description = "Revokes all access and refresh tokens of the current user.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "All sessions revoked"),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content(schema = @Schema(hidden = true)))
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@AuthenticationPrincipal UserPrincipal principal) {
+        authService.logoutEverywhere(principal.getUser());
+        auditLogger.log("AUTH_LOGOUT", principal.getUsername(), "USER", "SUCCESS", "All sessions revoked");
+        return ResponseEntity.noContent().build();
+    }
+
     private AuthResponse toAuthResponse(AuthResult result) {
         User user = result.getUser();
         return AuthResponse.builder()
@@ -1,14 +1,22 @@
 package com.bookstore.controller;
 
+import com.bookstore.cache.BookDetailsCache;
 import com.bookstore.dto.BookDTO;
+import com.bookstore.dto.BookImportReport;
+import com.bookstore.dto.CursorPageResponse;
 import com.bookstore.dto.PageResponse;
+import com.bookstore.dto.PagedResponse;
+import com.bookstore.dto.SliceResponse;
+import com.bookstore.dto.StockShardsRequest;
 import com.bookstore.entity.Book;
 import com.bookstore.entity.Category;
 import com.bookstore.exception.BadRequestException;
 import com.bookstore.mapper.BookMapper;
+import com.bookstore.pagination.CursorCodec;
 import com.bookstore.service.CategoryService;
 import com.bookstore.service.BookService;
 import com.bookstore.service.AuditLogger;
+import com.bookstore.service.BookImportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -16,17 +24,24 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.Locale;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/books")
@@ -36,70 +51,138 @@ public class BookController {
     private static final Set<String> SORTABLE_BOOK_FIELDS = Set.of(
             "title", "author", "price", "stockQuantity", "createdAt");
 
+    /**
+     * How offset listings report totals: an exact {@code COUNT}, nothing ({@code hasNext} only),
+     * or a planner estimate.
+     */
+    private enum CountMode {
+        EXACT, NONE, ESTIMATED
+    }
+
     private final BookService bookService;
     private final CategoryService categoryService;
     private final BookMapper bookMapper;
     private final AuditLogger auditLogger;
+    private final BookDetailsCache bookDetailsCache;
+    private final BookImportService bookImportService;
 
     public BookController(BookService bookService,
             CategoryService categoryService,
             BookMapper bookMapper,
-            AuditLogger auditLogger) {
+            AuditLogger auditLogger,
+            BookDetailsCache bookDetailsCache,
+            BookImportService bookImportService) {
         this.bookService = bookService;
         this.categoryService = categoryService;
         this.bookMapper = bookMapper;
         this.auditLogger = auditLogger;
+        this.bookDetailsCache = bookDetailsCache;
+        this.bookImportService = bookImportService;
     }
 
-    @Operation(summary = "List all books", description = "Returns a paginated list of all books with optional sorting.")
+    @Operation(summary = "List all books", description = "Returns a paginated list of all books with optional sorting. "
+            + "count=none skips the total count; count=estimated adds a planner estimate instead.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Success"),
             @ApiResponse(responseCode = "400", description = "Invalid pagination or sorting parameters", content = @Content(schema = @Schema(hidden = true))),
             @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(hidden = true)))
     })
     @GetMapping
-    public ResponseEntity<PageResponse<BookDTO>> getAllBooks(
+    public ResponseEntity<PagedResponse<BookDTO>> getAllBooks(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "title") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "exact") String count) {
 
-        Pageable pageable = bookPageRequest(page, size, sortBy, sortDir);
+        CountMode countMode = countMode(count);
+        Pageable pageable = bookPageRequest(page, size, sortBy, sortDir);
 
-        Page<BookDTO> books = bookService.getAllBooks(pageable).map(bookMapper::toDTO);
-        return ResponseEntity.ok(PageResponse.from(books));
+        return ResponseEntity.ok(switch (countMode) {
+            case EXACT -> PageResponse.from(bookService.getAllBooks(pageable).map(bookMapper::toDTO));
+            case NONE, ESTIMATED -> sliceResponse(bookService.sliceAllBooks(pageable),
+                    countMode, bookService::estimateBookCount);
+        });
     }
 
-    @Operation(summary = "Get book by ID", description = "Returns a single book by its ID.")
+    @Operation(summary = "List all books by cursor",
+            description = "Keyset pagination: send an empty cursor for the first page, then each response's nextCursor. No total count is computed.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, size or sorting parameters", content = @Content(schema = @Schema(hidden = true)))
+    })
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageResponse<BookDTO>> getAllBooksByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "title") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir) {
+
+        validatePageSize(size);
+        Sort sort = bookSort(sortBy, sortDir);
+        Window<BookDTO> books = bookService.scrollBooks(sort, CursorCodec.decode(cursor), size).map(bookMapper::toDTO);
+        return ResponseEntity.ok(CursorPageResponse.from(books));
+    }
+
+    @Operation(summary = "Get book by ID", description = "Returns a single book by its ID, tagged with a strong ETag.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "304", description = "Not modified since the If-None-Match tag", content = @Content(schema = @Schema(hidden = true))),
             @ApiResponse(responseCode = "404", description = "Book not found", content = @Content(schema = @Schema(hidden = true))),
             @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(hidden = true)))
     })
     @GetMapping("/{id}")
     public ResponseEntity<BookDTO> getBookById(@PathVariable Long id) {
-        Book book = bookService.getBookById(id);
-        return ResponseEntity.ok(bookMapper.toDTO(book));
+        // a matching If-None-Match is answered with 304 before the body is written
+        BookDetailsCache.Snapshot snapshot = bookDetailsCache.snapshot(id);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(snapshot.etag())
+                .body(snapshot.book());
     }
 
-    @Operation(summary = "Search books", description = "Searches books by keyword (title, author, description) with pagination.")
+    @Operation(summary = "Search books", description = "Searches books by keyword (title, author, description) with pagination. "
+            + "count=none skips the total count; count=estimated adds an estimate instead.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Success"),
             @ApiResponse(responseCode = "400", description = "Invalid pagination parameters", content = @Content(schema = @Schema(hidden = true))),
             @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(hidden = true)))
     })
     @GetMapping("/search")
-    public ResponseEntity<PageResponse<BookDTO>> searchBooks(
+    public ResponseEntity<PagedResponse<BookDTO>> searchBooks(
             @RequestParam String keyword,
             @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "exact") String count) {
+
+        CountMode countMode = countMode(count);
+        Pageable pageable = pageRequest(page, size);
+        return ResponseEntity.ok(switch (countMode) {
+            case EXACT -> PageResponse.from(bookService.searchBooks(keyword, pageable).map(bookMapper::toDTO));
+            case NONE, ESTIMATED -> sliceResponse(bookService.sliceSearch(keyword, pageable),
+                    countMode, () -> bookService.estimateSearchMatches(keyword));
+        });
+    }
+
+    @Operation(summary = "Search books by cursor",
+            description = "Keyset pagination over relevance-ordered search results: send an empty cursor for the first page, then each response's nextCursor.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or size", content = @Content(schema = @Schema(hidden = true)))
+    })
+    @GetMapping(value = "/search", params = "cursor")
+    public ResponseEntity<CursorPageResponse<BookDTO>> searchBooksByCursor(
+            @RequestParam String keyword,
+            @RequestParam String cursor,
             @RequestParam(defaultValue = "10") int size) {
 
-        Pageable pageable = pageRequest(page, size);
-        Page<BookDTO> books = bookService.searchBooks(keyword, pageable).map(bookMapper::toDTO);
-        return ResponseEntity.ok(PageResponse.from(books));
+        validatePageSize(size);
+        Window<BookDTO> books = bookService.scrollSearch(keyword, CursorCodec.decode(cursor), size).map(bookMapper::toDTO);
+        return ResponseEntity.ok(CursorPageResponse.from(books));
     }
 
-    @Operation(summary = "List books by category", description = "Returns a paginated list of books for the given category ID.")
+    @Operation(summary = "List books by category", description = "Returns a paginated list of books for the given category ID. "
+            + "count=none skips the total count; count=estimated adds a planner estimate instead.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Success"),
             @ApiResponse(responseCode = "400", description = "Invalid pagination parameters", content = @Content(schema = @Schema(hidden = true))),
@@ -107,15 +190,43 @@ public class BookController {
             @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(hidden = true)))
     })
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<PageResponse<BookDTO>> getBooksByCategory(
+    public ResponseEntity<PagedResponse<BookDTO>> getBooksByCategory(
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "exact") String count) {
 
+        CountMode countMode = countMode(count);
         Pageable pageable = pageRequest(page, size);
         Category category = categoryService.getCategoryById(categoryId);
-        Page<BookDTO> books = bookService.getBooksByCategory(category, pageable).map(bookMapper::toDTO);
-        return ResponseEntity.ok(PageResponse.from(books));
+        return ResponseEntity.ok(switch (countMode) {
+            case EXACT -> PageResponse.from(bookService.getBooksByCategory(category, pageable).map(bookMapper::toDTO));
+            case NONE, ESTIMATED -> sliceResponse(bookService.sliceBooksByCategory(category, pageable),
+                    countMode, () -> bookService.estimateBookCount(category));
+        });
+    }
+
+    @Operation(summary = "List books by category by cursor",
+            description = "Keyset pagination for a category: send an empty cursor for the first page, then each response's nextCursor.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, size or sorting parameters", content = @Content(schema = @Schema(hidden = true))),
+            @ApiResponse(responseCode = "404", description = "Category not found", content = @Content(schema = @Schema(hidden = true)))
+    })
+    @GetMapping(value = "/category/{categoryId}", params = "cursor")
+    public ResponseEntity<CursorPageResponse<BookDTO>> getBooksByCategoryByCursor(
+            @PathVariable Long categoryId,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "title") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir) {
+
+        validatePageSize(size);
+        Sort sort = bookSort(sortBy, sortDir);
+        Category category = categoryService.getCategoryById(categoryId);
+        Window<BookDTO> books = bookService.scrollBooksByCategory(category, sort, CursorCodec.decode(cursor), size)
+                .map(bookMapper::toDTO);
+        return ResponseEntity.ok(CursorPageResponse.from(books));
     }
 
     @Operation(summary = "Create book", description = "Creates a new book. Requires admin role.")
@@ -136,6 +247,30 @@ public class BookController {
         return new ResponseEntity<>(createdDTO, HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Import books", description = "Upserts books by ISBN from a CSV (`text/csv`, with a header row) "
+            + "or JSON-lines (`application/x-ndjson`) feed; columns and properties are isbn, title, author, description, "
+            + "price, stockQuantity, imageUrl and category (by name). Stock is only set for new books. Invalid rows are "
+            + "reported and skipped. Requires admin role.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Import finished; see the report for rejected rows"),
+            @ApiResponse(responseCode = "400", description = "CSV header missing required columns", content = @Content(schema = @Schema(hidden = true))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(hidden = true))),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content(schema = @Schema(hidden = true)))
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    public ResponseEntity<BookImportReport> importBooks(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream feed,
+            Authentication authentication) {
+        BookImportService.Format format = contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? BookImportService.Format.CSV : BookImportService.Format.JSON_LINES;
+        BookImportReport report = bookImportService.importBooks(feed, format);
+        auditLogger.log("BOOK_IMPORT", authentication.getName(), "BOOK", "SUCCESS",
+                "imported=" + report.getImported() + " failed=" + report.getFailed());
+        return ResponseEntity.ok(report);
+    }
+
     @Operation(summary = "Update book", description = "Updates an existing book by ID. Requires admin role.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Book updated"),
@@ -158,6 +293,28 @@ public class BookController {
         return ResponseEntity.ok(bookMapper.toDTO(updated));
     }
 
+    @Operation(summary = "Shard book stock", description = "Splits a book's stock across the given number of "
+            + "inventory shards so concurrent checkouts lock different rows; 0 moves it back onto the book. "
+            + "Requires admin role.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stock sharding updated"),
+            @ApiResponse(responseCode = "400", description = "Validation error", content = @Content(schema = @Schema(hidden = true))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(hidden = true))),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content(schema = @Schema(hidden = true))),
+            @ApiResponse(responseCode = "404", description = "Book not found", content = @Content(schema = @Schema(hidden = true)))
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @PutMapping("/{id}/stock-shards")
+    public ResponseEntity<BookDTO> setStockShards(
+            @PathVariable Long id,
+            @Valid @RequestBody StockShardsRequest request,
+            Authentication authentication) {
+        Book book = bookService.setStockShards(id, request.getShards());
+        auditLogger.log("BOOK_STOCK_SHARDS", authentication.getName(), "BOOK", "SUCCESS",
+                "bookId=" + id + ", shards=" + request.getShards());
+        return ResponseEntity.ok(bookMapper.toDTO(book));
+    }
+
     @Operation(summary = "Delete book", description = "Deletes a book by ID. Requires admin role.")
     @ApiResponses({
             @ApiResponse(responseCode = "204", description = "Book deleted"),
@@ -180,19 +337,40 @@ public class BookController {
         return categoryService.getCategoryById(categoryId);
     }
 
+    private SliceResponse<BookDTO> sliceResponse(Slice<Book> books, CountMode countMode,
+            Supplier<Optional<Long>> estimate) {
+        Long estimatedTotal = countMode == CountMode.ESTIMATED ? estimate.get().orElse(null) : null;
+        return SliceResponse.from(books.map(bookMapper::toDTO), estimatedTotal);
+    }
+
+    private CountMode countMode(String count) {
+        return switch (count.toLowerCase(Locale.ROOT)) {
+            case "exact" -> CountMode.EXACT;
+            case "none" -> CountMode.NONE;
+            case "estimated" -> CountMode.ESTIMATED;
+            default -> throw new BadRequestException("Count must be 'exact', 'none' or 'estimated'");
+        };
+    }
+
     private Pageable bookPageRequest(int page, int size, String sortBy, String sortDir) {
         validatePageRequest(page, size);
+        return PageRequest.of(page, size, bookSort(sortBy, sortDir));
+    }
+
+    private Sort bookSort(String sortBy, String sortDir) {
         if (!SORTABLE_BOOK_FIELDS.contains(sortBy)) {
             throw new BadRequestException("Invalid book sort field: " + sortBy);
         }
+        // the column excludes shard and ledger stock, so its order would not match the stock returned
+        if ("stockQuantity".equals(sortBy) && !bookService.isStockSortable()) {
+            throw new BadRequestException("Books cannot be sorted by stockQuantity while stock is sharded or leased");
+        }
 
-        Sort sort = switch (sortDir.toLowerCase(Locale.ROOT)) {
+        return switch (sortDir.toLowerCase(Locale.ROOT)) {
             case "asc" -> Sort.by(sortBy).ascending();
             case "desc" -> Sort.by(sortBy).descending();
             default -> throw new BadRequestException("Sort direction must be 'asc' or 'desc'");
         };
-
-        return PageRequest.of(page, size, sort);
     }
 
     private Pageable pageRequest(int page, int size) {
@@ -204,6 +382,10 @@ public class BookController {
         if (page < 0) {
             throw new BadRequestException("Page index must be 0 or greater");
         }
+        validatePageSize(size);
+    }
+
+    private void validatePageSize(int size) {
         if (size < 1 || size > MAX_PAGE_SIZE) {
             throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
         }
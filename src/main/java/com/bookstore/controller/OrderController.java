@@ -1,11 +1,20 @@
 package com.bookstore.controller;
 
 import com.bookstore.dto.CheckoutRequest;
+import com.bookstore.config.CheckoutProperties;
+import com.bookstore.dto.CursorPageResponse;
 import com.bookstore.dto.OrderDTO;
+import com.bookstore.dto.OrderSummaryDTO;
 import com.bookstore.entity.Order;
+import com.bookstore.entity.OrderStatus;
+import com.bookstore.entity.User;
+import com.bookstore.exception.BadRequestException;
 import com.bookstore.mapper.OrderMapper;
+import com.bookstore.pagination.CursorCodec;
 import com.bookstore.security.UserPrincipal;
 import com.bookstore.service.AuditLogger;
+import com.bookstore.service.CheckoutPipeline;
+import com.bookstore.service.OrderExportService;
 import com.bookstore.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,31 +22,64 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Pattern PREFER_WAIT = Pattern.compile("(?:^|[,;\\s])wait\\s*=\\s*(\\d{1,9})");
+
     private final OrderService orderService;
+    private final CheckoutPipeline checkoutPipeline;
+    private final OrderExportService orderExportService;
     private final OrderMapper orderMapper;
     private final AuditLogger auditLogger;
+    private final AsyncTaskExecutor taskExecutor;
+    private final Duration maxWait;
 
-    public OrderController(OrderService orderService, OrderMapper orderMapper, AuditLogger auditLogger) {
+    public OrderController(OrderService orderService,
+            CheckoutPipeline checkoutPipeline,
+            OrderExportService orderExportService,
+            OrderMapper orderMapper,
+            AuditLogger auditLogger,
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) AsyncTaskExecutor taskExecutor,
+            CheckoutProperties checkoutProperties) {
         this.orderService = orderService;
+        this.checkoutPipeline = checkoutPipeline;
+        this.orderExportService = orderExportService;
         this.orderMapper = orderMapper;
         this.auditLogger = auditLogger;
+        this.taskExecutor = taskExecutor;
+        this.maxWait = checkoutProperties.getMaxWait();
     }
 
-    @Operation(summary = "Checkout", description = "Creates an order from the current cart with the given shipping address.")
+    @Operation(summary = "Checkout", description = "Creates an order from the current cart with the given shipping address. "
+            + "With `Prefer: respond-async` the order is accepted as PENDING and confirmed or cancelled in the background; "
+            + "poll the returned Location, optionally with `Prefer: wait=<seconds>`.")
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Order created"),
+            @ApiResponse(responseCode = "202", description = "Order accepted as PENDING"),
             @ApiResponse(responseCode = "400", description = "Validation error or empty cart", content = @Content(schema = @Schema(hidden = true))),
             @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(hidden = true))),
             @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content(schema = @Schema(hidden = true)))
@@ -46,7 +88,16 @@ public class OrderController {
     @PostMapping("/checkout")
     public ResponseEntity<OrderDTO> checkout(
             @AuthenticationPrincipal UserPrincipal principal,
+            @RequestHeader(value = "Prefer", required = false) String prefer,
             @Valid @RequestBody CheckoutRequest request) {
+        if (prefer != null && Arrays.stream(prefer.split("[,;]")).map(String::trim).anyMatch("respond-async"::equals)) {
+            Order order = checkoutPipeline.submit(principal.getUser(), request.getShippingAddress());
+            auditLogger.log("ORDER_CHECKOUT", principal.getUsername(), "ORDER", "ACCEPTED", "orderId=" + order.getId());
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/orders/" + order.getId()))
+                    .header("Preference-Applied", "respond-async")
+                    .body(orderMapper.toDTO(order));
+        }
         Order order = orderService.checkout(principal.getUser(), request.getShippingAddress());
         auditLogger.log("ORDER_CHECKOUT", principal.getUsername(), "ORDER", "SUCCESS", "orderId=" + order.getId());
         return new ResponseEntity<>(orderMapper.toDTO(order), HttpStatus.CREATED);
@@ -68,6 +119,74 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    @Operation(summary = "List my orders by cursor",
+            description = "Order history, newest first, with keyset pagination: send an empty cursor for the first page, "
+                    + "then each response's nextCursor. Items are loaded for the page only.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or size", content = @Content(schema = @Schema(hidden = true))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(hidden = true))),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content(schema = @Schema(hidden = true)))
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageResponse<OrderDTO>> getUserOrdersByCursor(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        validatePageSize(size);
+        Window<OrderDTO> orders = orderService.scrollUserOrdersWithItems(principal.getUser(), CursorCodec.decode(cursor), size)
+                .map(orderMapper::toDTO);
+        return ResponseEntity.ok(CursorPageResponse.from(orders));
+    }
+
+    @Operation(summary = "List my order summaries by cursor",
+            description = "Same pages as List my orders by cursor, without line items.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or size", content = @Content(schema = @Schema(hidden = true))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(hidden = true))),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content(schema = @Schema(hidden = true)))
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping(params = { "cursor", "view=summary" })
+    public ResponseEntity<CursorPageResponse<OrderSummaryDTO>> getUserOrderSummariesByCursor(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        validatePageSize(size);
+        Window<OrderSummaryDTO> orders = orderService.scrollUserOrders(principal.getUser(), CursorCodec.decode(cursor), size)
+                .map(orderMapper::toSummaryDTO);
+        return ResponseEntity.ok(CursorPageResponse.from(orders));
+    }
+
+    @Operation(summary = "Export all orders", description = "Admin only. Streams every order with its items, in id order: "
+            + "`format=ndjson` (default) writes one JSON object per line, `format=csv` one row per item.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "400", description = "Unknown format", content = @Content(schema = @Schema(hidden = true))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(hidden = true))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - not admin", content = @Content(schema = @Schema(hidden = true)))
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping("/export")
+    public void exportOrders(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        boolean csv = switch (format) {
+            case "ndjson" -> false;
+            case "csv" -> true;
+            default -> throw new BadRequestException("Export format must be ndjson or csv");
+        };
+        response.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + format + "\"");
+        long exported = csv
+                ? orderExportService.exportCsv(response.getOutputStream())
+                : orderExportService.exportNdjson(response.getOutputStream());
+        auditLogger.log("ORDER_EXPORT", principal.getUsername(), "ORDER", "SUCCESS", "orders=" + exported);
+    }
+
     @Operation(summary = "Get order by ID", description = "Returns a single order by ID. User can only access their own orders.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Success"),
@@ -83,4 +202,31 @@ public class OrderController {
         Order order = orderService.getOrderById(principal.getUser(), orderId);
         return ResponseEntity.ok(orderMapper.toDTO(order));
     }
+
+    @Operation(summary = "Wait for order", description = "Same as Get order by ID, but with `Prefer: wait=<seconds>` "
+            + "a PENDING order is returned once it is confirmed or cancelled, or when the wait is over.")
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping(value = "/{orderId}", headers = "Prefer")
+    public CompletableFuture<ResponseEntity<OrderDTO>> awaitOrder(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable Long orderId,
+            @RequestHeader("Prefer") String prefer) {
+        User user = principal.getUser();
+        Order order = orderService.getOrderById(user, orderId);
+        Matcher wait = PREFER_WAIT.matcher(prefer);
+        if (order.getStatus() != OrderStatus.PENDING || !wait.find()) {
+            return CompletableFuture.completedFuture(ResponseEntity.ok(orderMapper.toDTO(order)));
+        }
+        Duration timeout = Duration.ofSeconds(Math.min(Long.parseLong(wait.group(1)), maxWait.toSeconds()));
+        // the re-read blocks on the database, so it runs on the application's task executor, not the common pool
+        return checkoutPipeline.awaitSettled(orderId, timeout)
+                .thenApplyAsync(settled -> ResponseEntity.ok(orderMapper.toDTO(orderService.getOrderById(user, orderId))),
+                        taskExecutor);
+    }
+
+    private void validatePageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
 }
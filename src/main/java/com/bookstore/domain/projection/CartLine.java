@@ -0,0 +1,21 @@
+package com.bookstore.domain.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Cart item with the book columns a cart line response needs, as returned by the add-to-cart upsert.
+ */
+public interface CartLine {
+
+    Long getId();
+
+    Integer getQuantity();
+
+    Long getBookId();
+
+    String getTitle();
+
+    String getAuthor();
+
+    BigDecimal getPrice();
+}
@@ -0,0 +1,11 @@
+package com.bookstore.domain.projection;
+
+/**
+ * Book id with its {@code ts_rank} score from the PostgreSQL full-text search.
+ */
+public interface FullTextMatch {
+
+    Long getId();
+
+    Float getRank();
+}
@@ -0,0 +1,13 @@
+package com.bookstore.domain.projection;
+
+/**
+ * Book id with the sort keys of the substring search: match rank (title, author, description) and title.
+ */
+public interface KeywordMatch {
+
+    Long getId();
+
+    Integer getRank();
+
+    String getTitle();
+}
@@ -0,0 +1,22 @@
+package com.bookstore.domain.projection;
+
+import com.bookstore.entity.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Order columns for the order history list, with the number of lines instead of the lines themselves.
+ */
+public interface OrderSummary {
+
+    Long getId();
+
+    OrderStatus getStatus();
+
+    BigDecimal getTotalAmount();
+
+    Long getItemCount();
+
+    LocalDateTime getCreatedAt();
+}
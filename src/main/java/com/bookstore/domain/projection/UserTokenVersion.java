@@ -0,0 +1,15 @@
+package com.bookstore.domain.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection for a user's current access-token version without loading the user.
+ */
+public interface UserTokenVersion {
+
+    Long getUserId();
+
+    int getTokenVersion();
+
+    LocalDateTime getTokensRevokedAt();
+}
@@ -0,0 +1,40 @@
+package com.bookstore.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Outcome of a bulk book import")
+public class BookImportReport {
+
+    @Schema(description = "Rows read from the feed")
+    private long rows;
+    @Schema(description = "Rows inserted or updated")
+    private long imported;
+    @Schema(description = "Rows rejected")
+    private long failed;
+    @Schema(description = "The first rejected rows and why they were rejected")
+    private List<RowError> errors;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class RowError {
+
+        @Schema(description = "Row number in the feed, counting from 1 after any header")
+        private long row;
+        @Schema(description = "ISBN of the row, if it had one")
+        private String isbn;
+        @Schema(description = "Why the row was rejected")
+        private String message;
+    }
+}
@@ -0,0 +1,50 @@
+package com.bookstore.dto;
+
+import com.bookstore.validation.NoHtml;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One book of a bulk import feed, a CSV row or a JSON line with these property names. The category is given by name.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookImportRow {
+
+    @NotBlank(message = "ISBN is required")
+    @NoHtml
+    private String isbn;
+
+    @NotBlank(message = "Title is required")
+    @NoHtml
+    private String title;
+
+    @NotBlank(message = "Author is required")
+    @NoHtml
+    private String author;
+
+    @NoHtml
+    private String description;
+
+    @NotNull(message = "Price is required")
+    @DecimalMin(value = "0.01", message = "Price must be greater than 0")
+    private BigDecimal price;
+
+    @Min(value = 0, message = "Stock quantity cannot be negative")
+    private Integer stockQuantity;
+
+    @NoHtml
+    private String imageUrl;
+
+    private String category;
+}
@@ -0,0 +1,22 @@
+package com.bookstore.dto;
+
+import com.bookstore.pagination.CursorCodec;
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+
+@Schema(description = "Cursor-paginated response wrapper; pass nextCursor back as the cursor parameter to fetch the next page")
+public record CursorPageResponse<T>(
+        List<T> content,
+        int size,
+        boolean hasNext,
+        String nextCursor) {
+
+    public static <T> CursorPageResponse<T> from(Window<T> window) {
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? CursorCodec.encode(window.positionAt(window.size() - 1))
+                : null;
+        return new CursorPageResponse<>(window.getContent(), window.size(), window.hasNext(), nextCursor);
+    }
+}
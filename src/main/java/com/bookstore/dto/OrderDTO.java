@@ -25,6 +25,8 @@ public class OrderDTO {
     private BigDecimal totalAmount;
     @Schema(description = "Order status", example = "PENDING")
     private String status;
+    @Schema(description = "Why the order was cancelled, if it was")
+    private String statusReason;
     @Schema(description = "Shipping address")
     private String shippingAddress;
     @Schema(description = "Order creation timestamp")
@@ -0,0 +1,41 @@
+package com.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One line of the admin order export: the order and its items by id only, so no book or user is loaded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderExportDTO {
+
+    private Long id;
+    private Long userId;
+    private String status;
+    private String statusReason;
+    private BigDecimal totalAmount;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private List<Item> items;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Item {
+
+        private Long id;
+        private Long bookId;
+        private Integer quantity;
+        private BigDecimal priceAtPurchase;
+    }
+}
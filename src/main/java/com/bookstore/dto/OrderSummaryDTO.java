@@ -0,0 +1,29 @@
+package com.bookstore.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Order without its line items, for order history lists")
+public class OrderSummaryDTO {
+
+    @Schema(description = "Unique order identifier")
+    private Long id;
+    @Schema(description = "Order status", example = "CONFIRMED")
+    private String status;
+    @Schema(description = "Total order amount")
+    private BigDecimal totalAmount;
+    @Schema(description = "Number of line items")
+    private long itemCount;
+    @Schema(description = "Order creation timestamp")
+    private LocalDateTime createdAt;
+}
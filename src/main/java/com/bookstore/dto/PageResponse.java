@@ -15,7 +15,7 @@ public record PageResponse<T>(
         boolean first,
         boolean last,
         boolean hasNext,
-        boolean hasPrevious) {
+        boolean hasPrevious) implements PagedResponse<T> {
 
     public static <T> PageResponse<T> from(Page<T> page) {
         return new PageResponse<>(
@@ -0,0 +1,14 @@
+package com.bookstore.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Offset page body: {@link PageResponse} with an exact count, or {@link SliceResponse} without one.
+ */
+@Schema(oneOf = { PageResponse.class, SliceResponse.class })
+public sealed interface PagedResponse<T> permits PageResponse, SliceResponse {
+
+    List<T> content();
+}
@@ -0,0 +1,33 @@
+package com.bookstore.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+@Schema(description = "Paginated response wrapper without an exact count; estimatedTotalElements comes from planner statistics when requested and available")
+public record SliceResponse<T>(
+        List<T> content,
+        int page,
+        int size,
+        boolean first,
+        boolean hasNext,
+        boolean hasPrevious,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Long estimatedTotalElements) implements PagedResponse<T> {
+
+    public static <T> SliceResponse<T> from(Slice<T> slice) {
+        return from(slice, null);
+    }
+
+    public static <T> SliceResponse<T> from(Slice<T> slice, Long estimatedTotalElements) {
+        return new SliceResponse<>(
+                slice.getContent(),
+                slice.getNumber(),
+                slice.getSize(),
+                slice.isFirst(),
+                slice.hasNext(),
+                slice.hasPrevious(),
+                estimatedTotalElements);
+    }
+}
@@ -0,0 +1,23 @@
+package com.bookstore.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request to split a book's stock across inventory shards")
+public class StockShardsRequest {
+
+    @NotNull(message = "Shards is required")
+    @Min(value = 0, message = "Shards cannot be negative")
+    @Max(value = 64, message = "Shards must be at most 64")
+    @Schema(description = "Number of stock shards; 0 keeps all stock on the book row",
+            requiredMode = Schema.RequiredMode.REQUIRED, example = "8")
+    private Integer shards;
+}
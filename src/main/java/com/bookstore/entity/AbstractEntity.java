@@ -0,0 +1,35 @@
+package com.bookstore.entity;
+
+import jakarta.persistence.MappedSuperclass;
+import org.hibernate.Hibernate;
+
+/**
+ * Identity-based equality shared by all entities; subclasses choose how their id is generated.
+ */
+@MappedSuperclass
+public abstract class AbstractEntity {
+
+    public abstract Long getId();
+
+    public abstract void setId(Long id);
+
+    @Override
+    public final boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null) {
+            return false;
+        }
+        if (Hibernate.getClass(this) != Hibernate.getClass(other)) {
+            return false;
+        }
+        AbstractEntity that = (AbstractEntity) other;
+        return getId() != null && getId().equals(that.getId());
+    }
+
+    @Override
+    public final int hashCode() {
+        return Hibernate.getClass(this).hashCode();
+    }
+}
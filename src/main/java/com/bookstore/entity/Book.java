@@ -9,15 +9,18 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -25,7 +28,13 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "books", indexes = {
         @Index(name = "idx_books_category_id", columnList = "category_id"),
-        @Index(name = "idx_books_isbn", columnList = "isbn")
+        @Index(name = "idx_books_isbn", columnList = "isbn"),
+        @Index(name = "idx_books_title_id", columnList = "title, id"),
+        @Index(name = "idx_books_author_id", columnList = "author, id"),
+        @Index(name = "idx_books_price_id", columnList = "price, id"),
+        @Index(name = "idx_books_stock_quantity_id", columnList = "stock_quantity, id"),
+        @Index(name = "idx_books_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_books_stock_shards", columnList = "stock_shards")
 })
 @NoArgsConstructor
 @AllArgsConstructor
@@ -57,6 +66,23 @@ public class Book extends BaseEntity {
     @Column(name = "stock_quantity", nullable = false)
     private Integer stockQuantity = 0;
 
+    /** Number of {@link BookStockShard} slots holding this book's stock; 0 when {@code stock_quantity} holds it. */
+    @ColumnDefault("0")
+    @Column(name = "stock_shards", nullable = false)
+    private int stockShards;
+
+    /** Sum of the book's shard slots, set by {@code BookStockLevels} where stock is shown; null until then. */
+    @Transient
+    private Integer shardedStock;
+
+    /**
+     * Stock leased to checkout nodes by the inventory ledger, as of their last sync; set by {@code BookStockLevels}
+     * while the ledger is enabled.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private Integer leasedStock;
+
     @Column(name = "image_url")
     private String imageUrl;
 
@@ -80,4 +106,23 @@ public class Book extends BaseEntity {
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
     }
+
+    public boolean isStockSharded() {
+        return stockShards > 0;
+    }
+
+    /**
+     * Stock available for sale: the shard total for sharded books, otherwise {@code stock_quantity} plus what
+     * checkout nodes hold leased.
+     */
+    public int getAvailableStock() {
+        if (!isStockSharded()) {
+            return stockQuantity + getLeasedStock();
+        }
+        return shardedStock != null ? shardedStock : 0;
+    }
+
+    public int getLeasedStock() {
+        return leasedStock != null ? leasedStock : 0;
+    }
 }
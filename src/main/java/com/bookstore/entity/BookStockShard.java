@@ -0,0 +1,57 @@
+package com.bookstore.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+import java.io.Serializable;
+
+/**
+ * One slot of a sharded book's stock; see {@code StockShardService}. The book's stock is the sum of its slots.
+ */
+@Entity
+@Table(name = "book_stock_shards")
+@IdClass(BookStockShard.Key.class)
+public class BookStockShard {
+
+    @Id
+    @Column(name = "book_id")
+    private long bookId;
+
+    @Id
+    @Column(name = "slot")
+    private int slot;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    protected BookStockShard() {
+    }
+
+    public BookStockShard(long bookId, int slot, int quantity) {
+        this.bookId = bookId;
+        this.slot = slot;
+        this.quantity = quantity;
+    }
+
+    public long getBookId() {
+        return bookId;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public record Key(long bookId, int slot) implements Serializable {
+    }
+}
@@ -0,0 +1,31 @@
+package com.bookstore.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * The shared revision of the catalog, a single row; see {@code CatalogVersion}.
+ */
+@Entity
+@Table(name = "catalog_revision")
+public class CatalogRevision {
+
+    @Id
+    private int id;
+
+    @Column(nullable = false)
+    private long revision;
+
+    protected CatalogRevision() {
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+}
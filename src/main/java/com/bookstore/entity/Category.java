@@ -10,6 +10,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -29,6 +30,14 @@ public class Category extends BaseEntity {
 
     private String description;
 
+    /**
+     * Books in the category, kept up to date by {@link com.bookstore.repository.CategoryRepository#adjustBookCount}
+     * alongside every book insert, delete and category change; never written from the entity.
+     */
+    @ColumnDefault("0")
+    @Column(name = "book_count", nullable = false, insertable = false, updatable = false)
+    private long bookCount;
+
     @OneToMany(mappedBy = "category")
     @Builder.Default
     private List<Book> books = new ArrayList<>();
@@ -0,0 +1,62 @@
+package com.bookstore.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Stock of one book leased to one node, as of the node's last sync; see {@code InventoryLedger}.
+ */
+@Entity
+@Table(name = "inventory_leases")
+@IdClass(InventoryLease.Key.class)
+public class InventoryLease {
+
+    @Id
+    @Column(name = "book_id")
+    private long bookId;
+
+    @Id
+    @Column(name = "node_id", length = 64)
+    private String nodeId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(name = "synced_at", nullable = false)
+    private LocalDateTime syncedAt;
+
+    protected InventoryLease() {
+    }
+
+    public InventoryLease(long bookId, String nodeId, int quantity, LocalDateTime syncedAt) {
+        this.bookId = bookId;
+        this.nodeId = nodeId;
+        this.quantity = quantity;
+        this.syncedAt = syncedAt;
+    }
+
+    public long getBookId() {
+        return bookId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public LocalDateTime getSyncedAt() {
+        return syncedAt;
+    }
+
+    public record Key(long bookId, String nodeId) implements Serializable {
+    }
+}
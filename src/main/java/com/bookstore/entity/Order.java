@@ -6,12 +6,16 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -27,14 +31,21 @@ import java.util.List;
 @Entity
 @Table(name = "orders", indexes = {
         @Index(name = "idx_orders_user_id", columnList = "user_id"),
-        @Index(name = "idx_orders_user_created", columnList = "user_id, created_at")
+        @Index(name = "idx_orders_user_created", columnList = "user_id, created_at"),
+        @Index(name = "idx_orders_status", columnList = "status"),
+        @Index(name = "idx_orders_stock_node", columnList = "stock_node, stock_reserved_at")
 })
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Getter
 @Setter
-public class Order extends BaseEntity {
+public class Order extends AbstractEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
+    private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -51,6 +62,17 @@ public class Order extends BaseEntity {
     @Column(nullable = false)
     private OrderStatus status = OrderStatus.PENDING;
 
+    /** Why an asynchronous checkout was cancelled, for example the book that ran out of stock. */
+    @Column(name = "status_reason")
+    private String statusReason;
+
+    /** Inventory ledger node the order's unsharded stock was reserved from; null when the ledger is off. */
+    @Column(name = "stock_node", length = 64)
+    private String stockNode;
+
+    @Column(name = "stock_reserved_at")
+    private LocalDateTime stockReservedAt;
+
     @Column(name = "shipping_address", columnDefinition = "TEXT")
     private String shippingAddress;
 
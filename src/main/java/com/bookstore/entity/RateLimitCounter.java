@@ -0,0 +1,58 @@
+package com.bookstore.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.io.Serializable;
+
+/**
+ * Requests leased to nodes for one client in one fixed window; see {@code JdbcRateLimitStore}.
+ */
+@Entity
+@Table(name = "rate_limit_counters",
+        indexes = @Index(name = "idx_rate_limit_counters_window_start", columnList = "window_start"))
+@IdClass(RateLimitCounter.Key.class)
+public class RateLimitCounter {
+
+    @Id
+    @Column(name = "client_key")
+    private long clientKey;
+
+    @Id
+    @Column(name = "window_start")
+    private long windowStart;
+
+    @Column(nullable = false)
+    private int claimed;
+
+    public long getClientKey() {
+        return clientKey;
+    }
+
+    public void setClientKey(long clientKey) {
+        this.clientKey = clientKey;
+    }
+
+    public long getWindowStart() {
+        return windowStart;
+    }
+
+    public void setWindowStart(long windowStart) {
+        this.windowStart = windowStart;
+    }
+
+    public int getClaimed() {
+        return claimed;
+    }
+
+    public void setClaimed(int claimed) {
+        this.claimed = claimed;
+    }
+
+    public record Key(long clientKey, long windowStart) implements Serializable {
+    }
+}
@@ -16,7 +16,7 @@ public class BookMapper {
                 .isbn(book.getIsbn())
                 .description(book.getDescription())
                 .price(book.getPrice())
-                .stockQuantity(book.getStockQuantity())
+                .stockQuantity(book.getAvailableStock())
                 .imageUrl(book.getImageUrl())
                 .categoryId(book.getCategory() != null ? book.getCategory().getId() : null)
                 .categoryName(book.getCategory() != null ? book.getCategory().getName() : null)
@@ -13,7 +13,7 @@ public class CategoryMapper {
                 .id(category.getId())
                 .name(category.getName())
                 .description(category.getDescription())
-                .bookCount(category.getBooks() != null ? category.getBooks().size() : 0)
+                .bookCount((int) category.getBookCount())
                 .build();
     }
 
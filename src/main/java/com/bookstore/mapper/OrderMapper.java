@@ -1,7 +1,10 @@
 package com.bookstore.mapper;
 
+import com.bookstore.domain.projection.OrderSummary;
 import com.bookstore.dto.OrderDTO;
+import com.bookstore.dto.OrderExportDTO;
 import com.bookstore.dto.OrderItemDTO;
+import com.bookstore.dto.OrderSummaryDTO;
 import com.bookstore.entity.Order;
 import com.bookstore.entity.OrderItem;
 import org.springframework.stereotype.Component;
@@ -22,11 +25,45 @@ public class OrderMapper {
                 .items(items)
                 .totalAmount(order.getTotalAmount())
                 .status(order.getStatus().name())
+                .statusReason(order.getStatusReason())
                 .shippingAddress(order.getShippingAddress())
                 .createdAt(order.getCreatedAt())
                 .build();
     }
 
+    public OrderSummaryDTO toSummaryDTO(OrderSummary order) {
+        return OrderSummaryDTO.builder()
+                .id(order.getId())
+                .status(order.getStatus().name())
+                .totalAmount(order.getTotalAmount())
+                .itemCount(order.getItemCount())
+                .createdAt(order.getCreatedAt())
+                .build();
+    }
+
+    /**
+     * Reads only ids of the user and books, which their uninitialized proxies hold.
+     */
+    public OrderExportDTO toExportDTO(Order order) {
+        return OrderExportDTO.builder()
+                .id(order.getId())
+                .userId(order.getUser().getId())
+                .status(order.getStatus().name())
+                .statusReason(order.getStatusReason())
+                .totalAmount(order.getTotalAmount())
+                .createdAt(order.getCreatedAt())
+                .updatedAt(order.getUpdatedAt())
+                .items(order.getOrderItems().stream()
+                        .map(item -> OrderExportDTO.Item.builder()
+                                .id(item.getId())
+                                .bookId(item.getBook().getId())
+                                .quantity(item.getQuantity())
+                                .priceAtPurchase(item.getPriceAtPurchase())
+                                .build())
+                        .toList())
+                .build();
+    }
+
     public OrderItemDTO toItemDTO(OrderItem orderItem) {
         return OrderItemDTO.builder()
                 .id(orderItem.getId())
@@ -0,0 +1,98 @@
+package com.bookstore.monitoring;
+
+import com.bookstore.config.SqlMonitorProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts the Hibernate statements each API request issues and records them per endpoint in
+ * {@code bookstore.sql.statements}. A request over its budget ({@code app.sql-monitor}) is counted in
+ * {@code bookstore.sql.budget.exceeded} and logged with its repeated statements and where they were issued.
+ * Work handed to other threads (asynchronous checkout, streamed exports) is not attributed to the request.
+ */
+@Component
+public class SqlStatementBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementBudgetFilter.class);
+    private static final int MAX_LOGGED_SQL = 200;
+
+    private final SqlStatementCounter counter;
+    private final SqlMonitorProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, DistributionSummary> statements = new ConcurrentHashMap<>();
+    private final Map<String, Counter> overBudget = new ConcurrentHashMap<>();
+
+    public SqlStatementBudgetFilter(SqlStatementCounter counter, SqlMonitorProperties properties,
+            MeterRegistry meterRegistry) {
+        this.counter = counter;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (SqlStatementCounter.Scope scope = counter.open()) {
+            filterChain.doFilter(request, response);
+            if (request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String pattern) {
+                record(request.getMethod(), pattern, scope);
+            }
+        }
+    }
+
+    private void record(String method, String pattern, SqlStatementCounter.Scope scope) {
+        String endpoint = method + " " + pattern;
+        statements.computeIfAbsent(endpoint, key -> DistributionSummary.builder("bookstore.sql.statements")
+                        .description("Hibernate statements issued per request")
+                        .tag("method", method)
+                        .tag("uri", pattern)
+                        .register(meterRegistry))
+                .record(scope.count());
+
+        int budget = properties.budgetFor(endpoint);
+        if (scope.count() <= budget) {
+            return;
+        }
+        overBudget.computeIfAbsent(endpoint, key -> Counter.builder("bookstore.sql.budget.exceeded")
+                        .description("Requests that issued more statements than their endpoint's budget")
+                        .tag("method", method)
+                        .tag("uri", pattern)
+                        .register(meterRegistry))
+                .increment();
+        if (log.isWarnEnabled()) {
+            List<SqlStatementCounter.Repeat> repeats = scope.repeats();
+            StringBuilder message = new StringBuilder();
+            message.append(endpoint).append(" issued ").append(scope.count())
+                    .append(" SQL statements, over its budget of ").append(budget);
+            for (SqlStatementCounter.Repeat repeat : repeats) {
+                message.append("\n  ").append(repeat.count()).append("x at ").append(repeat.callSite())
+                        .append(": ").append(abbreviate(repeat.sql()));
+            }
+            log.warn(message.toString());
+        }
+    }
+
+    private static String abbreviate(String sql) {
+        return sql.length() <= MAX_LOGGED_SQL ? sql : sql.substring(0, MAX_LOGGED_SQL) + "...";
+    }
+}
@@ -0,0 +1,120 @@
+package com.bookstore.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Hibernate {@link StatementInspector} counting the SQL statements prepared on the current thread while a
+ * {@link Scope} is open. Each distinct statement is tallied, and the first time one repeats within a scope the
+ * application frames that issued it are captured: a statement repeated once per row is what an N+1 load looks like.
+ * Statements issued through {@code JdbcTemplate} bypass Hibernate and are not counted.
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final int CALL_SITE_FRAMES = 3;
+    private static final String OWN_PACKAGE = SqlStatementCounter.class.getPackageName() + ".";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final ThreadLocal<Scope> current = new ThreadLocal<>();
+
+    /**
+     * Starts counting on this thread; scopes nest, and a statement counts towards every open scope.
+     */
+    public Scope open() {
+        Scope scope = new Scope(current.get());
+        current.set(scope);
+        return scope;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        String callSite = null;
+        for (Scope scope = current.get(); scope != null; scope = scope.parent) {
+            Tally tally = scope.record(sql);
+            if (tally.count == 2) {
+                callSite = callSite != null ? callSite : callSite();
+                tally.callSite = callSite;
+            }
+        }
+        return sql;
+    }
+
+    private static String callSite() {
+        String frames = STACK_WALKER.walk(stack -> stack
+                .filter(frame -> frame.getClassName().startsWith("com.bookstore.")
+                        && !frame.getClassName().startsWith(OWN_PACKAGE)
+                        && !frame.getClassName().contains("$$"))
+                .limit(CALL_SITE_FRAMES)
+                .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                        + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                .collect(Collectors.joining(" < ")));
+        return frames.isEmpty() ? "unknown" : frames;
+    }
+
+    /**
+     * Statements counted between {@link SqlStatementCounter#open()} and {@link #close()}.
+     */
+    public final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private final Map<String, Tally> statements = new LinkedHashMap<>();
+        private int count;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        private Tally record(String sql) {
+            count++;
+            Tally tally = statements.computeIfAbsent(sql, key -> new Tally());
+            tally.count++;
+            return tally;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        /**
+         * Statements run more than once, most repeated first.
+         */
+        public List<Repeat> repeats() {
+            List<Repeat> repeats = new ArrayList<>();
+            statements.forEach((sql, tally) -> {
+                if (tally.count > 1) {
+                    repeats.add(new Repeat(sql, tally.count, tally.callSite));
+                }
+            });
+            repeats.sort(Comparator.comparingInt(Repeat::count).reversed());
+            return repeats;
+        }
+
+        @Override
+        public void close() {
+            if (parent != null) {
+                current.set(parent);
+            } else {
+                current.remove();
+            }
+        }
+    }
+
+    /**
+     * @param callSite the innermost application frames that first repeated the statement, innermost first
+     */
+    public record Repeat(String sql, int count, String callSite) {
+    }
+
+    private static final class Tally {
+        private int count;
+        private String callSite;
+    }
+}
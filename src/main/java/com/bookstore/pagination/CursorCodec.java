@@ -0,0 +1,131 @@
+package com.bookstore.pagination;
+
+import com.bookstore.exception.BadRequestException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encodes keyset positions as opaque, URL-safe continuation tokens.
+ * Each key is stored with a type tag so it decodes back to the value the seek predicate compares against.
+ * An empty token is the start of the listing.
+ */
+public final class CursorCodec {
+
+    private static final int VERSION = 1;
+    private static final int MAX_KEYS = 8;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private CursorCodec() {
+    }
+
+    public static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset) || keyset.isInitial()) {
+            throw new IllegalArgumentException("Only non-initial keyset positions can be encoded");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeByte(keyset.getKeys().size());
+            for (Map.Entry<String, Object> key : keyset.getKeys().entrySet()) {
+                out.writeUTF(key.getKey());
+                writeValue(out, key.getValue());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return ENCODER.encodeToString(bytes.toByteArray());
+    }
+
+    public static KeysetScrollPosition decode(String token) {
+        if (token == null || token.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(DECODER.decode(token.trim())))) {
+            if (in.readUnsignedByte() != VERSION) {
+                throw invalidCursor();
+            }
+            int count = in.readUnsignedByte();
+            if (count == 0 || count > MAX_KEYS) {
+                throw invalidCursor();
+            }
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                keys.put(in.readUTF(), readValue(in));
+            }
+            if (in.available() > 0) {
+                throw invalidCursor();
+            }
+            return ScrollPosition.forward(keys);
+        } catch (IOException | IllegalArgumentException | DateTimeException ex) {
+            throw invalidCursor();
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        switch (value) {
+            case null -> out.writeByte('Z');
+            case String text -> {
+                out.writeByte('S');
+                out.writeUTF(text);
+            }
+            case Long number -> {
+                out.writeByte('J');
+                out.writeLong(number);
+            }
+            case Integer number -> {
+                out.writeByte('I');
+                out.writeInt(number);
+            }
+            case Float number -> {
+                out.writeByte('F');
+                out.writeFloat(number);
+            }
+            case Double number -> {
+                out.writeByte('D');
+                out.writeDouble(number);
+            }
+            case BigDecimal number -> {
+                out.writeByte('N');
+                out.writeUTF(number.toPlainString());
+            }
+            case LocalDateTime timestamp -> {
+                out.writeByte('T');
+                out.writeUTF(timestamp.toString());
+            }
+            default -> throw new IllegalArgumentException("Unsupported cursor key type: " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        return switch (in.readUnsignedByte()) {
+            case 'Z' -> null;
+            case 'S' -> in.readUTF();
+            case 'J' -> in.readLong();
+            case 'I' -> in.readInt();
+            case 'F' -> in.readFloat();
+            case 'D' -> in.readDouble();
+            case 'N' -> new BigDecimal(in.readUTF());
+            case 'T' -> LocalDateTime.parse(in.readUTF());
+            default -> throw invalidCursor();
+        };
+    }
+
+    private static BadRequestException invalidCursor() {
+        return new BadRequestException("Invalid cursor");
+    }
+}
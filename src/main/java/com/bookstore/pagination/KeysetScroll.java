@@ -0,0 +1,112 @@
+package com.bookstore.pagination;
+
+import com.bookstore.exception.BadRequestException;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Seek-predicate helpers for keyset pagination over a sort whose last property is unique.
+ * The predicate is {@code k1 >= v1 AND (k1 > v1 OR (k1 = v1 AND (k2 > v2 OR ...)))}; the leading
+ * range bound lets the database start an index range scan at the cursor instead of skipping rows.
+ */
+public final class KeysetScroll {
+
+    private KeysetScroll() {
+    }
+
+    /**
+     * Appends {@code id} in the direction of the first order so ties resolve deterministically.
+     */
+    public static Sort withIdTieBreaker(Sort sort) {
+        Sort.Direction direction = sort.stream().findFirst().map(Sort.Order::getDirection).orElse(Sort.Direction.ASC);
+        return sort.and(Sort.by(direction, "id"));
+    }
+
+    /**
+     * Rows strictly after {@code position} in {@code sort} order; no restriction for the initial position.
+     */
+    public static <T> Specification<T> after(KeysetScrollPosition position, Sort sort) {
+        if (position.isInitial()) {
+            return Specification.unrestricted();
+        }
+        List<Sort.Order> orders = sort.toList();
+        Map<String, Object> keys = position.getKeys();
+        if (!keys.keySet().equals(orders.stream().map(Sort.Order::getProperty).collect(Collectors.toSet()))) {
+            throw new BadRequestException("Cursor does not match the requested sort");
+        }
+        return (root, query, cb) -> {
+            Sort.Order first = orders.get(0);
+            Predicate leadingBound = compare(cb, root, first, keys.get(first.getProperty()), true);
+            return cb.and(leadingBound, strictlyAfter(cb, root, orders, keys, 0));
+        };
+    }
+
+    /**
+     * Builds a window from a query that fetched {@code pageSize + 1} rows; the extra row only signals {@code hasNext}.
+     */
+    public static <T> Window<T> window(List<T> rows, Sort sort, int pageSize) {
+        boolean hasNext = rows.size() > pageSize;
+        List<T> content = hasNext ? rows.subList(0, pageSize) : rows;
+        return Window.from(content, index -> positionOf(content.get(index), sort), hasNext);
+    }
+
+    /**
+     * Reads one key of a decoded cursor, rejecting cursors issued for a different ordering.
+     */
+    public static <V> V key(KeysetScrollPosition position, String name, Class<V> type) {
+        Object value = position.getKeys().get(name);
+        if (!type.isInstance(value)) {
+            throw new BadRequestException("Cursor does not match the requested sort");
+        }
+        return type.cast(value);
+    }
+
+    public static KeysetScrollPosition positionOf(Object row, Sort sort) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(row);
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Sort.Order order : sort) {
+            keys.put(order.getProperty(), wrapper.getPropertyValue(order.getProperty()));
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    private static <T> Predicate strictlyAfter(CriteriaBuilder cb, Root<T> root, List<Sort.Order> orders,
+            Map<String, Object> keys, int index) {
+        Sort.Order order = orders.get(index);
+        Object value = keys.get(order.getProperty());
+        Predicate beyond = compare(cb, root, order, value, false);
+        if (index == orders.size() - 1) {
+            return beyond;
+        }
+        Predicate tied = cb.equal(root.get(order.getProperty()), value);
+        return cb.or(beyond, cb.and(tied, strictlyAfter(cb, root, orders, keys, index + 1)));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static <T> Predicate compare(CriteriaBuilder cb, Root<T> root, Sort.Order order, Object value,
+            boolean inclusive) {
+        Expression<Comparable> path = root.get(order.getProperty());
+        if (!path.getJavaType().isInstance(value)) {
+            throw new BadRequestException("Cursor does not match the requested sort");
+        }
+        Comparable key = (Comparable) value;
+        if (order.isAscending()) {
+            return inclusive ? cb.greaterThanOrEqualTo(path, key) : cb.greaterThan(path, key);
+        }
+        return inclusive ? cb.lessThanOrEqualTo(path, key) : cb.lessThan(path, key);
+    }
+}
@@ -0,0 +1,121 @@
+package com.bookstore.repository;
+
+import com.bookstore.config.DatabasePlatform;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Upserts books by ISBN a batch at a time, for bulk catalog imports. Existing books get the row's catalog details;
+ * their stock is left alone, since shards and inventory leases may hold part of it.
+ */
+@Repository
+public class BookImports {
+
+    private static final String UPSERT = """
+            INSERT INTO books (isbn, title, author, description, price, stock_quantity, image_url, category_id,
+                               stock_shards, created_at, updated_at)
+            SELECT r.*, 0, CAST(? AS timestamp), CAST(? AS timestamp)
+            FROM unnest(CAST(? AS varchar[]), CAST(? AS varchar[]), CAST(? AS varchar[]), CAST(? AS text[]),
+                        CAST(? AS numeric[]), CAST(? AS integer[]), CAST(? AS varchar[]), CAST(? AS bigint[]))
+                AS r(isbn, title, author, description, price, stock_quantity, image_url, category_id)
+            ON CONFLICT (isbn) DO UPDATE SET title = EXCLUDED.title, author = EXCLUDED.author,
+                description = EXCLUDED.description, price = EXCLUDED.price, image_url = EXCLUDED.image_url,
+                category_id = EXCLUDED.category_id, updated_at = EXCLUDED.updated_at
+            """;
+    private static final String UPDATE = """
+            UPDATE books SET title = ?, author = ?, description = ?, price = ?, image_url = ?, category_id = ?,
+                updated_at = ?
+            WHERE isbn = ?
+            """;
+    private static final String INSERT = """
+            INSERT INTO books (title, author, description, price, image_url, category_id, updated_at,
+                               isbn, stock_quantity, stock_shards, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    public BookImports(JdbcTemplate jdbcTemplate, DatabasePlatform databasePlatform) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = databasePlatform;
+    }
+
+    /**
+     * Inserts or updates every row in one transaction: on PostgreSQL one {@code INSERT ... ON CONFLICT} over the
+     * rows passed as arrays, elsewhere a JDBC batch of updates followed by one inserting the rows no book matched.
+     */
+    @Transactional
+    public void upsert(List<Row> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (databasePlatform.isPostgreSql()) {
+            upsertAll(rows, now);
+            return;
+        }
+        int[] updated = write(UPDATE, rows, now, false);
+        List<Row> inserts = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (updated[i] == 0) {
+                inserts.add(rows.get(i));
+            }
+        }
+        write(INSERT, inserts, now, true);
+    }
+
+    private void upsertAll(List<Row> rows, Timestamp now) {
+        // one statement may not update a row twice, so only the last row of each ISBN is kept
+        Map<String, Row> byIsbn = new LinkedHashMap<>();
+        rows.forEach(row -> byIsbn.put(row.isbn(), row));
+        Collection<Row> unique = byIsbn.values();
+        jdbcTemplate.update(UPSERT, statement -> {
+            Connection connection = statement.getConnection();
+            statement.setTimestamp(1, now);
+            statement.setTimestamp(2, now);
+            statement.setArray(3, connection.createArrayOf("varchar", unique.stream().map(Row::isbn).toArray()));
+            statement.setArray(4, connection.createArrayOf("varchar", unique.stream().map(Row::title).toArray()));
+            statement.setArray(5, connection.createArrayOf("varchar", unique.stream().map(Row::author).toArray()));
+            statement.setArray(6, connection.createArrayOf("text", unique.stream().map(Row::description).toArray()));
+            statement.setArray(7, connection.createArrayOf("numeric", unique.stream().map(Row::price).toArray()));
+            statement.setArray(8, connection.createArrayOf("integer",
+                    unique.stream().map(Row::stockQuantity).toArray()));
+            statement.setArray(9, connection.createArrayOf("varchar", unique.stream().map(Row::imageUrl).toArray()));
+            statement.setArray(10, connection.createArrayOf("bigint", unique.stream().map(Row::categoryId).toArray()));
+        });
+    }
+
+    private int[] write(String sql, List<Row> rows, Timestamp now, boolean insert) {
+        if (rows.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate(sql, rows, rows.size(), (statement, row) -> {
+            statement.setString(1, row.title());
+            statement.setString(2, row.author());
+            statement.setString(3, row.description());
+            statement.setBigDecimal(4, row.price());
+            statement.setString(5, row.imageUrl());
+            statement.setObject(6, row.categoryId(), Types.BIGINT);
+            statement.setTimestamp(7, now);
+            statement.setString(8, row.isbn());
+            if (insert) {
+                statement.setInt(9, row.stockQuantity());
+                statement.setTimestamp(10, now);
+            }
+        })[0];
+    }
+
+    public record Row(String isbn, String title, String author, String description, BigDecimal price,
+            int stockQuantity, String imageUrl, Long categoryId) {
+    }
+}
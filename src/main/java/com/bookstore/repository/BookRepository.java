@@ -1,45 +1,175 @@
 package com.bookstore.repository;
 
+import com.bookstore.domain.projection.FullTextMatch;
+import com.bookstore.domain.projection.KeywordMatch;
 import com.bookstore.entity.Book;
 import com.bookstore.entity.Category;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
+
+    String KEYWORD_SEARCH = """
+            SELECT b FROM Book b
+            WHERE LOWER(b.title) LIKE LOWER(CONCAT('%', :keyword, '%'))
+               OR LOWER(b.author) LIKE LOWER(CONCAT('%', :keyword, '%'))
+               OR LOWER(b.description) LIKE LOWER(CONCAT('%', :keyword, '%'))
+            ORDER BY CASE
+                WHEN LOWER(b.title) LIKE LOWER(CONCAT('%', :keyword, '%')) THEN 0
+                WHEN LOWER(b.author) LIKE LOWER(CONCAT('%', :keyword, '%')) THEN 1
+                ELSE 2
+            END, b.title, b.id
+            """;
+
+    String FULL_TEXT_SEARCH = """
+            SELECT b.id FROM books b
+            WHERE b.search_vector @@ to_tsquery('simple', :query)
+            ORDER BY ts_rank(b.search_vector, to_tsquery('simple', :query)) DESC, b.id
+            """;
 
     @EntityGraph(attributePaths = { "category" })
     Page<Book> findByCategory(Category category, Pageable pageable);
 
+    /**
+     * Same as {@link #findByCategory} without the count query; one extra row is read to answer {@code hasNext}.
+     */
+    @EntityGraph(attributePaths = { "category" })
+    Slice<Book> findSliceByCategory(Category category, Pageable pageable);
+
     @Override
     @EntityGraph(attributePaths = { "category" })
     Page<Book> findAll(Pageable pageable);
 
     @EntityGraph(attributePaths = { "category" })
-    @Query("SELECT b FROM Book b WHERE " +
-            "LOWER(b.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(b.author) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    Page<Book> searchByTitleOrAuthor(@Param("keyword") String keyword, Pageable pageable);
+    Slice<Book> findSliceBy(Pageable pageable);
+
+    /**
+     * Substring search used when PostgreSQL full-text search is unavailable (H2).
+     * Title matches rank ahead of author matches, which rank ahead of description matches.
+     */
+    @EntityGraph(attributePaths = { "category" })
+    @Query(value = KEYWORD_SEARCH,
+            countQuery = """
+            SELECT COUNT(b) FROM Book b
+            WHERE LOWER(b.title) LIKE LOWER(CONCAT('%', :keyword, '%'))
+               OR LOWER(b.author) LIKE LOWER(CONCAT('%', :keyword, '%'))
+               OR LOWER(b.description) LIKE LOWER(CONCAT('%', :keyword, '%'))
+            """)
+    Page<Book> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
+
+    @EntityGraph(attributePaths = { "category" })
+    @Query(KEYWORD_SEARCH)
+    Slice<Book> sliceByKeyword(@Param("keyword") String keyword, Pageable pageable);
+
+    /**
+     * Keyset variant of {@link #searchByKeyword}: matches ordered by (rank, title, id) after the given keys,
+     * or from the start when {@code afterId} is null.
+     */
+    @Query("""
+            SELECT m.id AS id, m.rank AS rank, m.title AS title
+            FROM (
+                SELECT b.id AS id, b.title AS title,
+                       CASE
+                           WHEN LOWER(b.title) LIKE LOWER(CONCAT('%', :keyword, '%')) THEN 0
+                           WHEN LOWER(b.author) LIKE LOWER(CONCAT('%', :keyword, '%')) THEN 1
+                           ELSE 2
+                       END AS rank
+                FROM Book b
+                WHERE LOWER(b.title) LIKE LOWER(CONCAT('%', :keyword, '%'))
+                   OR LOWER(b.author) LIKE LOWER(CONCAT('%', :keyword, '%'))
+                   OR LOWER(b.description) LIKE LOWER(CONCAT('%', :keyword, '%'))
+            ) m
+            WHERE :afterId IS NULL
+               OR m.rank > :afterRank
+               OR (m.rank = :afterRank AND (m.title > :afterTitle OR (m.title = :afterTitle AND m.id > :afterId)))
+            ORDER BY m.rank, m.title, m.id
+            """)
+    List<KeywordMatch> scrollByKeyword(@Param("keyword") String keyword,
+            @Param("afterRank") Integer afterRank,
+            @Param("afterTitle") String afterTitle,
+            @Param("afterId") Long afterId,
+            Limit limit);
+
+    /**
+     * Ranked full-text match against the GIN-indexed {@code search_vector} column (PostgreSQL only).
+     * Returns ids only; callers hydrate the page with {@link #findByIdIn(Collection)}.
+     */
+    @Query(value = FULL_TEXT_SEARCH,
+            countQuery = "SELECT COUNT(*) FROM books b WHERE b.search_vector @@ to_tsquery('simple', :query)",
+            nativeQuery = true)
+    Page<Long> searchIdsByFullText(@Param("query") String tsQuery, Pageable pageable);
+
+    @Query(value = FULL_TEXT_SEARCH, nativeQuery = true)
+    Slice<Long> sliceIdsByFullText(@Param("query") String tsQuery, Pageable pageable);
+
+    /**
+     * Keyset variant of {@link #searchIdsByFullText}: matches ordered by (rank DESC, id) after the given keys,
+     * or from the start when {@code afterRank} is null.
+     */
+    @Query(value = """
+            SELECT ranked.id AS id, ranked.rank AS rank
+            FROM (
+                SELECT b.id, ts_rank(b.search_vector, to_tsquery('simple', :query)) AS rank
+                FROM books b
+                WHERE b.search_vector @@ to_tsquery('simple', :query)
+            ) ranked
+            WHERE CAST(:afterRank AS real) IS NULL
+               OR ranked.rank < CAST(:afterRank AS real)
+               OR (ranked.rank = CAST(:afterRank AS real) AND ranked.id > :afterId)
+            ORDER BY ranked.rank DESC, ranked.id
+            """,
+            nativeQuery = true)
+    List<FullTextMatch> scrollIdsByFullText(@Param("query") String tsQuery,
+            @Param("afterRank") Float afterRank,
+            @Param("afterId") Long afterId,
+            Limit limit);
+
+    @EntityGraph(attributePaths = { "category" })
+    List<Book> findByIdIn(Collection<Long> ids);
 
     @EntityGraph(attributePaths = { "category" })
     @Query("SELECT b FROM Book b WHERE b.id = :id")
     Optional<Book> findByIdWithCategory(@Param("id") Long id);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Book b WHERE b.id = :id")
+    Optional<Book> findByIdForUpdate(@Param("id") Long id);
+
     Optional<Book> findByIsbn(String isbn);
 
     List<Book> findByCategoryId(Long categoryId);
 
     boolean existsByCategoryId(Long categoryId);
 
+    /**
+     * The category the book is stored with; pending changes to a managed copy of the book are not flushed first.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT b.category.id FROM Book b WHERE b.id = :id")
+    Optional<Long> findCategoryIdById(@Param("id") Long id);
+
+    @Query("SELECT b.id FROM Book b WHERE b.category.id = :categoryId")
+    List<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId);
+
     @Query("SELECT b FROM Book b WHERE b.stockQuantity > 0")
     Page<Book> findAvailableBooks(Pageable pageable);
 
@@ -48,7 +178,41 @@ public interface BookRepository extends JpaRepository<Book, Long> {
             UPDATE Book b
             SET b.stockQuantity = b.stockQuantity - :quantity
             WHERE b.id = :bookId
+              AND b.stockShards = 0
               AND b.stockQuantity >= :quantity
             """)
     int decrementStockIfAvailable(@Param("bookId") Long bookId, @Param("quantity") int quantity);
+
+    /**
+     * PostgreSQL: reserves stock for a whole order in one statement. Rows are locked in id order, so overlapping
+     * checkouts queue instead of deadlocking; stock is only decremented if every line fits. Sharded books are
+     * reported as short, since their stock is not in {@code stock_quantity}.
+     *
+     * @return ids of the books without enough stock (or missing); empty when all lines were decremented
+     */
+    @Query(value = """
+            WITH requested AS (
+                SELECT r.book_id, SUM(r.quantity) AS quantity
+                FROM unnest(CAST(:bookIds AS bigint[]), CAST(:quantities AS integer[])) AS r(book_id, quantity)
+                GROUP BY r.book_id
+            ),
+            locked AS (
+                SELECT b.id, b.stock_quantity FROM books b
+                WHERE b.id IN (SELECT book_id FROM requested) AND b.stock_shards = 0
+                ORDER BY b.id
+                FOR UPDATE
+            ),
+            short AS (
+                SELECT r.book_id FROM requested r LEFT JOIN locked l ON l.id = r.book_id
+                WHERE l.id IS NULL OR l.stock_quantity < r.quantity
+            ),
+            reserved AS (
+                UPDATE books b SET stock_quantity = b.stock_quantity - r.quantity
+                FROM requested r
+                WHERE b.id = r.book_id AND NOT EXISTS (SELECT 1 FROM short)
+                RETURNING b.id
+            )
+            SELECT book_id FROM short ORDER BY book_id
+            """, nativeQuery = true)
+    List<Long> reserveStock(@Param("bookIds") Long[] bookIds, @Param("quantities") Integer[] quantities);
 }
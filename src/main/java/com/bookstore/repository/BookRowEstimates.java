@@ -0,0 +1,57 @@
+package com.bookstore.repository;
+
+import com.bookstore.config.DatabasePlatform;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Row-count estimates for {@code books} from PostgreSQL planner statistics, for listings that skip the exact count.
+ * Estimates are as fresh as the last (auto)analyze; other databases have none.
+ */
+@Repository
+public class BookRowEstimates {
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\":\\s*(\\d+)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    public BookRowEstimates(JdbcTemplate jdbcTemplate, DatabasePlatform databasePlatform) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = databasePlatform;
+    }
+
+    public Optional<Long> all() {
+        if (!databasePlatform.isPostgreSql()) {
+            return Optional.empty();
+        }
+        Long reltuples = jdbcTemplate.queryForObject(
+                "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = CAST('books' AS regclass)", Long.class);
+        // -1 until the table is first analyzed; the planner then estimates from its size on disk
+        if (reltuples == null || reltuples < 0) {
+            return planRows("SELECT 1 FROM books");
+        }
+        return Optional.of(reltuples);
+    }
+
+    public Optional<Long> byCategory(Long categoryId) {
+        return planRows("SELECT 1 FROM books WHERE category_id = ?", categoryId);
+    }
+
+    public Optional<Long> fullTextMatches(String tsQuery) {
+        return planRows("SELECT 1 FROM books WHERE search_vector @@ to_tsquery('simple', ?)", tsQuery);
+    }
+
+    private Optional<Long> planRows(String sql, Object... args) {
+        if (!databasePlatform.isPostgreSql()) {
+            return Optional.empty();
+        }
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class, args);
+        Matcher rows = PLAN_ROWS.matcher(plan == null ? "" : plan);
+        return rows.find() ? Optional.of(Long.parseLong(rows.group(1))) : Optional.empty();
+    }
+}
@@ -0,0 +1,62 @@
+package com.bookstore.repository;
+
+import com.bookstore.config.InventoryLedgerProperties;
+import com.bookstore.entity.Book;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Stock held outside {@code books.stock_quantity}: in {@code book_stock_shards} for sharded books and in
+ * {@code inventory_leases} while the inventory ledger is enabled. Loaded only for books whose available stock is
+ * shown or checked, with one grouped query per table for the whole page.
+ */
+@Repository
+public class BookStockLevels {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InventoryLedgerProperties ledgerProperties;
+
+    public BookStockLevels(JdbcTemplate jdbcTemplate, InventoryLedgerProperties ledgerProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ledgerProperties = ledgerProperties;
+    }
+
+    /**
+     * Whether {@code books.stock_quantity} holds every book's available stock, so ordering by it orders by the stock
+     * shown: false while the ledger leases stock out or any book is sharded.
+     */
+    public boolean isAllInStockQuantity() {
+        return !ledgerProperties.isEnabled() && !Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM books WHERE stock_shards > 0)", Boolean.class));
+    }
+
+    public void load(Collection<Book> books) {
+        fill(books, Book::isStockSharded, "book_stock_shards", Book::setShardedStock);
+        if (ledgerProperties.isEnabled()) {
+            fill(books, book -> !book.isStockSharded(), "inventory_leases", Book::setLeasedStock);
+        }
+    }
+
+    private void fill(Collection<Book> books, Predicate<Book> filter, String table, ObjIntConsumer<Book> setter) {
+        List<Book> matching = books.stream().filter(filter).toList();
+        if (matching.isEmpty()) {
+            return;
+        }
+        List<Long> ids = matching.stream().map(Book::getId).distinct().toList();
+        Map<Long, Integer> sums = new HashMap<>();
+        jdbcTemplate.query("SELECT book_id, SUM(quantity) FROM " + table + " WHERE book_id IN ("
+                        + ids.stream().map(id -> "?").collect(Collectors.joining(", ")) + ") GROUP BY book_id",
+                row -> {
+                    sums.put(row.getLong(1), row.getInt(2));
+                }, ids.toArray());
+        matching.forEach(book -> setter.accept(book, sums.getOrDefault(book.getId(), 0)));
+    }
+}
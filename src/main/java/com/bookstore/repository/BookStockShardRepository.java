@@ -0,0 +1,42 @@
+package com.bookstore.repository;
+
+import com.bookstore.entity.BookStockShard;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BookStockShardRepository extends JpaRepository<BookStockShard, BookStockShard.Key> {
+
+    /**
+     * Slots of the book holding at least {@code quantity} that no other transaction holds, locked, starting from slot
+     * {@code startSlot} and wrapping around, so concurrent checkouts starting at different slots take different rows.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            SELECT s FROM BookStockShard s
+            WHERE s.bookId = :bookId AND s.quantity >= :quantity
+            ORDER BY MOD(s.slot - :startSlot + :slots, :slots)
+            """)
+    List<BookStockShard> lockCoveringSkippingLocked(@Param("bookId") long bookId,
+            @Param("quantity") int quantity,
+            @Param("startSlot") int startSlot,
+            @Param("slots") int slots,
+            Limit limit);
+
+    /**
+     * Every slot of the book in slot order, waiting for other transactions to release them.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM BookStockShard s WHERE s.bookId = :bookId ORDER BY s.slot")
+    List<BookStockShard> lockAll(@Param("bookId") long bookId);
+}
@@ -1,5 +1,6 @@
 package com.bookstore.repository;
 
+import com.bookstore.domain.projection.CartLine;
 import com.bookstore.entity.CartItem;
 import com.bookstore.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -19,6 +20,37 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
     Optional<CartItem> findByUserIdAndBookId(Long userId, Long bookId);
 
+    /**
+     * PostgreSQL: adds {@code quantity} of the book to the user's cart line, creating it if needed, only while the
+     * resulting quantity fits the book's stock; returns the resulting line in the same statement, or empty if the
+     * book does not exist or has too little stock. Sharded books are checked against the sum of their shards, others
+     * against {@code stock_quantity} plus the stock leased to checkout nodes.
+     */
+    @Query(value = """
+            WITH stock AS (
+                SELECT b.id, CASE WHEN b.stock_shards = 0
+                                  THEN b.stock_quantity + (SELECT COALESCE(SUM(l.quantity), 0) FROM inventory_leases l
+                                                           WHERE l.book_id = b.id)
+                                  ELSE (SELECT COALESCE(SUM(s.quantity), 0) FROM book_stock_shards s
+                                        WHERE s.book_id = b.id) END AS available
+                FROM books b WHERE b.id = :bookId
+            ),
+            line AS (
+                INSERT INTO cart_items (user_id, book_id, quantity)
+                SELECT :userId, stock.id, :quantity FROM stock
+                WHERE stock.available >= :quantity
+                ON CONFLICT (user_id, book_id) DO UPDATE
+                SET quantity = cart_items.quantity + EXCLUDED.quantity
+                WHERE cart_items.quantity + EXCLUDED.quantity <= (SELECT available FROM stock)
+                RETURNING id, book_id, quantity
+            )
+            SELECT line.id AS id, line.quantity AS quantity, b.id AS bookId,
+                   b.title AS title, b.author AS author, b.price AS price
+            FROM line JOIN books b ON b.id = line.book_id
+            """, nativeQuery = true)
+    Optional<CartLine> upsertLine(@Param("userId") Long userId, @Param("bookId") Long bookId,
+            @Param("quantity") int quantity);
+
     void deleteByUserId(Long userId);
 
     void deleteByUserIdAndBookId(Long userId, Long bookId);
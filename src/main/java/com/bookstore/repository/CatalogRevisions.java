@@ -0,0 +1,29 @@
+package com.bookstore.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * The cluster-wide catalog revision in {@code catalog_revision}, bumped by nodes that changed the catalog.
+ */
+@Repository
+public class CatalogRevisions {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogRevisions(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long current() {
+        List<Long> revision = jdbcTemplate.queryForList(
+                "SELECT revision FROM catalog_revision WHERE id = 1", Long.class);
+        return revision.isEmpty() ? 0 : revision.get(0);
+    }
+
+    public void increment() {
+        jdbcTemplate.update("UPDATE catalog_revision SET revision = revision + 1 WHERE id = 1");
+    }
+}
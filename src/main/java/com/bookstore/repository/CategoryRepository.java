@@ -3,6 +3,7 @@ package com.bookstore.repository;
 import com.bookstore.domain.projection.CategoryWithCount;
 import com.bookstore.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,11 +17,28 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     boolean existsByName(String name);
 
-    @Query("SELECT c.id as id, c.name as name, c.description as description, " +
-            "(SELECT COUNT(b) FROM Book b WHERE b.category = c) as bookCount FROM Category c")
+    @Query("SELECT c.id as id, c.name as name, c.description as description, c.bookCount as bookCount " +
+            "FROM Category c")
     List<CategoryWithCount> findAllWithBookCount();
 
-    @Query("SELECT c.id as id, c.name as name, c.description as description, " +
-            "(SELECT COUNT(b) FROM Book b WHERE b.category = c) as bookCount FROM Category c WHERE c.id = :id")
+    @Query("SELECT c.id as id, c.name as name, c.description as description, c.bookCount as bookCount " +
+            "FROM Category c WHERE c.id = :id")
     Optional<CategoryWithCount> findByIdWithBookCount(@Param("id") Long id);
+
+    /**
+     * Adds {@code delta} to the category's book count; call in the transaction that adds, moves or removes the book.
+     */
+    @Modifying
+    @Query("UPDATE Category c SET c.bookCount = c.bookCount + :delta WHERE c.id = :id")
+    int adjustBookCount(@Param("id") Long id, @Param("delta") long delta);
+
+    /**
+     * Recounts the books of every category whose count has drifted.
+     *
+     * @return the number of categories corrected
+     */
+    @Modifying
+    @Query("UPDATE Category c SET c.bookCount = (SELECT COUNT(b) FROM Book b WHERE b.category = c) " +
+            "WHERE c.bookCount <> (SELECT COUNT(b) FROM Book b WHERE b.category = c)")
+    int reconcileBookCounts();
 }
@@ -0,0 +1,127 @@
+package com.bookstore.repository;
+
+import com.bookstore.entity.InventoryLease;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stock leased from {@code books.stock_quantity} to nodes, recorded in {@code inventory_leases}.
+ * Every change to a book's stock and to its lease rows is made in one transaction, so the two always add up.
+ */
+@Repository
+public class InventoryLeases {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InventoryLeases(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Moves up to {@code wanted} of an unsharded book's stock into the node's lease. Joins the caller's transaction,
+     * so it needs no second connection and rolls back with it; the book row stays locked until that transaction ends.
+     *
+     * @return stock granted, 0 once the book is sold out, sharded or gone
+     */
+    @Transactional
+    public int claim(String nodeId, long bookId, int wanted) {
+        List<Integer> stock = jdbcTemplate.queryForList(
+                "SELECT stock_quantity FROM books WHERE id = ? AND stock_shards = 0 FOR UPDATE",
+                Integer.class, bookId);
+        int granted = stock.isEmpty() ? 0 : Math.min(wanted, stock.get(0));
+        if (granted <= 0) {
+            return 0;
+        }
+        jdbcTemplate.update("UPDATE books SET stock_quantity = stock_quantity - ? WHERE id = ?", granted, bookId);
+        int updated = jdbcTemplate.update(
+                "UPDATE inventory_leases SET quantity = quantity + ? WHERE book_id = ? AND node_id = ?",
+                granted, bookId, nodeId);
+        if (updated == 0) {
+            jdbcTemplate.update(
+                    "INSERT INTO inventory_leases (book_id, node_id, quantity, synced_at) VALUES (?, ?, ?, ?)",
+                    bookId, nodeId, granted, Timestamp.valueOf(LocalDateTime.now()));
+        }
+        return granted;
+    }
+
+    /**
+     * Records the node's current lease of each book and hands released leases back to the books' stock.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void sync(String nodeId, List<Remainder> remainders, List<Remainder> releases, LocalDateTime syncedAt) {
+        Timestamp timestamp = Timestamp.valueOf(syncedAt);
+        returnToStock(releases);
+        List<Remainder> updates = new ArrayList<>(remainders);
+        releases.forEach(release -> updates.add(new Remainder(release.bookId(), 0)));
+        if (updates.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "UPDATE inventory_leases SET quantity = ?, synced_at = ? WHERE book_id = ? AND node_id = ?",
+                updates, updates.size(), (statement, update) -> {
+                    statement.setInt(1, update.quantity());
+                    statement.setTimestamp(2, timestamp);
+                    statement.setLong(3, update.bookId());
+                    statement.setString(4, nodeId);
+                });
+    }
+
+    /**
+     * Hands all of the node's leases back and forgets them, as on shutdown.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void releaseAll(String nodeId, List<Remainder> releases) {
+        returnToStock(releases);
+        jdbcTemplate.update("DELETE FROM inventory_leases WHERE node_id = ?", nodeId);
+    }
+
+    /**
+     * Returns the leases a node left behind when it stopped without releasing them. What orders record the node
+     * reserved since a lease was last synced was sold from it, so that much is written off rather than sold twice;
+     * other nodes' orders and orders not yet confirmed are not counted.
+     *
+     * @return stock returned to the books
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int recover(String nodeId) {
+        List<InventoryLease> leftovers = jdbcTemplate.query(
+                "SELECT book_id, quantity, synced_at FROM inventory_leases WHERE node_id = ? FOR UPDATE",
+                (row, rowNum) -> new InventoryLease(row.getLong("book_id"), nodeId, row.getInt("quantity"),
+                        row.getTimestamp("synced_at").toLocalDateTime()),
+                nodeId);
+        int returned = 0;
+        for (InventoryLease lease : leftovers) {
+            Integer orderedSince = jdbcTemplate.queryForObject("""
+                    SELECT COALESCE(SUM(oi.quantity), 0) FROM order_items oi JOIN orders o ON o.id = oi.order_id
+                    WHERE oi.book_id = ? AND o.stock_node = ? AND o.stock_reserved_at >= ?
+                    """, Integer.class, lease.getBookId(), nodeId, Timestamp.valueOf(lease.getSyncedAt()));
+            int unsold = Math.max(0, lease.getQuantity() - (orderedSince != null ? orderedSince : 0));
+            jdbcTemplate.update("UPDATE books SET stock_quantity = stock_quantity + ? WHERE id = ?",
+                    unsold, lease.getBookId());
+            returned += unsold;
+        }
+        jdbcTemplate.update("DELETE FROM inventory_leases WHERE node_id = ?", nodeId);
+        return returned;
+    }
+
+    private void returnToStock(List<Remainder> releases) {
+        if (releases.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("UPDATE books SET stock_quantity = stock_quantity + ? WHERE id = ?",
+                releases, releases.size(), (statement, release) -> {
+                    statement.setInt(1, release.quantity());
+                    statement.setLong(2, release.bookId());
+                });
+    }
+
+    public record Remainder(long bookId, int quantity) {
+    }
+}
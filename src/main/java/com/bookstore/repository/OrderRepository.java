@@ -1,16 +1,26 @@
 package com.bookstore.repository;
 
+import com.bookstore.domain.projection.OrderSummary;
 import com.bookstore.entity.Order;
+import com.bookstore.entity.OrderStatus;
 import com.bookstore.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -23,4 +33,63 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems oi LEFT JOIN FETCH oi.book WHERE o.id = :id")
     Optional<Order> findByIdWithOrderItemsAndBook(@Param("id") Long id);
+
+    String ORDER_SUMMARY = "SELECT o.id AS id, o.status AS status, o.totalAmount AS totalAmount, "
+            + "(SELECT COUNT(oi) FROM OrderItem oi WHERE oi.order = o) AS itemCount, o.createdAt AS createdAt "
+            + "FROM Order o WHERE o.user.id = :userId ";
+
+    /**
+     * Newest orders first; the first page of {@link #findSummariesByUserIdAfter}.
+     */
+    @Query(ORDER_SUMMARY + "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummary> findSummariesByUserId(@Param("userId") Long userId, Limit limit);
+
+    /**
+     * Orders after {@code (createdAt, id)} in newest-first order. The leading {@code createdAt} bound lets the
+     * {@code (user_id, created_at)} index start its range scan at the cursor.
+     */
+    @Query(ORDER_SUMMARY + "AND o.createdAt <= :createdAt AND (o.createdAt < :createdAt OR o.id < :id) "
+            + "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummary> findSummariesByUserIdAfter(@Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems oi LEFT JOIN FETCH oi.book WHERE o.id IN :ids")
+    List<Order> findWithOrderItemsAndBookByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Every order with its items, in id order, read from a forward-only cursor 500 rows at a time. Must be consumed
+     * and closed inside a transaction; the orders are read-only, so no snapshots are kept for dirty checking.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems ORDER BY o.id")
+    Stream<Order> streamAllWithOrderItems();
+
+    @Query("SELECT o.id FROM Order o WHERE o.status = :status ORDER BY o.id")
+    List<Long> findIdsByStatus(@Param("status") OrderStatus status);
+
+    @Query("SELECT o.id FROM Order o WHERE o.status = :status AND o.id IN :ids")
+    List<Long> findIdsByStatusAndIdIn(@Param("status") OrderStatus status, @Param("ids") Collection<Long> ids);
+
+    /**
+     * Moves the order from {@code from} to {@code to}; returns 0 when it is no longer in {@code from}.
+     */
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :to, o.statusReason = :reason, o.updatedAt = :now "
+            + "WHERE o.id = :id AND o.status = :from")
+    int transition(@Param("id") Long id, @Param("from") OrderStatus from, @Param("to") OrderStatus to,
+            @Param("reason") String reason, @Param("now") LocalDateTime now);
+
+    /**
+     * Confirms a pending order, recording the inventory ledger node its stock came from ({@code null} for none);
+     * returns 0 when it is no longer pending.
+     */
+    @Modifying
+    @Query("UPDATE Order o SET o.status = com.bookstore.entity.OrderStatus.CONFIRMED, o.statusReason = null, "
+            + "o.stockNode = :stockNode, o.stockReservedAt = :reservedAt, o.updatedAt = :now "
+            + "WHERE o.id = :id AND o.status = com.bookstore.entity.OrderStatus.PENDING")
+    int confirm(@Param("id") Long id, @Param("stockNode") String stockNode,
+            @Param("reservedAt") LocalDateTime reservedAt, @Param("now") LocalDateTime now);
 }
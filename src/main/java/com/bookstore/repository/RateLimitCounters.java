@@ -0,0 +1,229 @@
+package com.bookstore.repository;
+
+import com.bookstore.config.DatabasePlatform;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Shared per-client request budgets in {@code rate_limit_counters}.
+ * Claims are optimistic compare-and-set updates, so concurrent nodes never lease more than the limit
+ * and no statement holds a row lock across round trips.
+ */
+@Repository
+public class RateLimitCounters {
+
+    private static final int MAX_CLAIM_ATTEMPTS = 8;
+
+    private static final String OPEN_ALL = """
+            INSERT INTO rate_limit_counters (client_key, window_start, claimed)
+            SELECT v.client_key, ?, v.claimed
+            FROM unnest(CAST(? AS bigint[]), CAST(? AS integer[])) AS v(client_key, claimed)
+            ON CONFLICT (client_key, window_start) DO NOTHING
+            RETURNING client_key
+            """;
+    private static final String ADVANCE_ALL = """
+            UPDATE rate_limit_counters c SET claimed = v.claimed + v.granted
+            FROM unnest(CAST(? AS bigint[]), CAST(? AS integer[]), CAST(? AS integer[]))
+                AS v(client_key, claimed, granted)
+            WHERE c.client_key = v.client_key AND c.window_start = ? AND c.claimed = v.claimed
+            RETURNING c.client_key
+            """;
+    private static final String OPEN = """
+            MERGE INTO rate_limit_counters c
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS INTEGER))) AS v(client_key, window_start, claimed)
+            ON c.client_key = v.client_key AND c.window_start = v.window_start
+            WHEN NOT MATCHED THEN INSERT (client_key, window_start, claimed)
+                VALUES (v.client_key, v.window_start, v.claimed)
+            """;
+    private static final String ADVANCE =
+            "UPDATE rate_limit_counters SET claimed = ? WHERE client_key = ? AND window_start = ? AND claimed = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    public RateLimitCounters(JdbcTemplate jdbcTemplate, DatabasePlatform databasePlatform) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = databasePlatform;
+    }
+
+    /**
+     * Leases up to {@code wanted} requests of the window to the caller without exceeding {@code limit} in total.
+     *
+     * @return requests granted, 0 once the window's budget is used up (or under sustained contention)
+     */
+    public int claim(long clientKey, long windowStart, int wanted, int limit) {
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            List<Integer> current = jdbcTemplate.queryForList(
+                    "SELECT claimed FROM rate_limit_counters WHERE client_key = ? AND window_start = ?",
+                    Integer.class, clientKey, windowStart);
+            if (current.isEmpty()) {
+                int granted = Math.min(wanted, limit);
+                try {
+                    jdbcTemplate.update(
+                            "INSERT INTO rate_limit_counters (client_key, window_start, claimed) VALUES (?, ?, ?)",
+                            clientKey, windowStart, granted);
+                    return granted;
+                } catch (DuplicateKeyException ex) {
+                    continue; // another node opened the window first
+                }
+            }
+            int claimed = current.get(0);
+            int granted = Math.min(wanted, limit - claimed);
+            if (granted <= 0) {
+                return 0;
+            }
+            int updated = jdbcTemplate.update(
+                    "UPDATE rate_limit_counters SET claimed = ? "
+                            + "WHERE client_key = ? AND window_start = ? AND claimed = ?",
+                    claimed + granted, clientKey, windowStart, claimed);
+            if (updated == 1) {
+                return granted;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Claims for many clients of one window at once, with the same outcome as {@link #claim} for each: one query
+     * reads their counters, then one statement opens the windows not claimed yet and one moves the others forward by
+     * compare-and-set (on PostgreSQL over arrays, elsewhere as JDBC batches). Clients whose counter another node
+     * changed in between are claimed one by one.
+     *
+     * @return requests granted per client key
+     */
+    public Map<Long, Integer> claimAll(long windowStart, Map<Long, Integer> wanted, int limit) {
+        Map<Long, Integer> granted = new HashMap<>();
+        if (wanted.isEmpty()) {
+            return granted;
+        }
+        Map<Long, Integer> claimed = new HashMap<>();
+        List<Object> arguments = new ArrayList<>(wanted.keySet());
+        arguments.addFirst(windowStart);
+        jdbcTemplate.query("SELECT client_key, claimed FROM rate_limit_counters WHERE window_start = ? AND client_key IN ("
+                        + wanted.keySet().stream().map(key -> "?").collect(Collectors.joining(", ")) + ")",
+                row -> {
+                    claimed.put(row.getLong(1), row.getInt(2));
+                }, arguments.toArray());
+
+        List<Step> opens = new ArrayList<>();
+        List<Step> advances = new ArrayList<>();
+        wanted.forEach((clientKey, count) -> {
+            Integer current = claimed.get(clientKey);
+            int grant = Math.min(count, limit - (current != null ? current : 0));
+            if (grant <= 0) {
+                granted.put(clientKey, 0);
+            } else if (current == null) {
+                opens.add(new Step(clientKey, 0, grant));
+            } else {
+                advances.add(new Step(clientKey, current, grant));
+            }
+        });
+
+        Set<Long> applied = new HashSet<>();
+        if (databasePlatform.isPostgreSql()) {
+            applied.addAll(openAll(windowStart, opens));
+            applied.addAll(advanceAll(windowStart, advances));
+        } else {
+            applied.addAll(batch(OPEN, opens, (statement, step) -> {
+                statement.setLong(1, step.clientKey());
+                statement.setLong(2, windowStart);
+                statement.setInt(3, step.granted());
+            }));
+            applied.addAll(batch(ADVANCE, advances, (statement, step) -> {
+                statement.setInt(1, step.claimed() + step.granted());
+                statement.setLong(2, step.clientKey());
+                statement.setLong(3, windowStart);
+                statement.setInt(4, step.claimed());
+            }));
+        }
+        for (List<Step> steps : List.of(opens, advances)) {
+            for (Step step : steps) {
+                granted.put(step.clientKey(), applied.contains(step.clientKey())
+                        ? step.granted()
+                        : claim(step.clientKey(), windowStart, wanted.get(step.clientKey()), limit));
+            }
+        }
+        return granted;
+    }
+
+    private List<Long> openAll(long windowStart, List<Step> opens) {
+        if (opens.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(OPEN_ALL, statement -> {
+            Connection connection = statement.getConnection();
+            statement.setLong(1, windowStart);
+            statement.setArray(2, connection.createArrayOf("bigint", opens.stream().map(Step::clientKey).toArray()));
+            statement.setArray(3, connection.createArrayOf("integer", opens.stream().map(Step::granted).toArray()));
+        }, (row, rowNum) -> row.getLong(1));
+    }
+
+    private List<Long> advanceAll(long windowStart, List<Step> advances) {
+        if (advances.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(ADVANCE_ALL, statement -> {
+            Connection connection = statement.getConnection();
+            statement.setArray(1, connection.createArrayOf("bigint",
+                    advances.stream().map(Step::clientKey).toArray()));
+            statement.setArray(2, connection.createArrayOf("integer", advances.stream().map(Step::claimed).toArray()));
+            statement.setArray(3, connection.createArrayOf("integer", advances.stream().map(Step::granted).toArray()));
+            statement.setLong(4, windowStart);
+        }, (row, rowNum) -> row.getLong(1));
+    }
+
+    /**
+     * Runs one statement per step as a JDBC batch; returns the client keys of the steps that changed a row.
+     */
+    private List<Long> batch(String sql, List<Step> steps, ParameterizedPreparedStatementSetter<Step> setter) {
+        List<Long> applied = new ArrayList<>();
+        if (steps.isEmpty()) {
+            return applied;
+        }
+        int[] counts = jdbcTemplate.batchUpdate(sql, steps, steps.size(), setter)[0];
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 1) {
+                applied.add(steps.get(i).clientKey());
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Hands unused leases back to the shared budget in one batch.
+     */
+    public void release(List<Release> releases) {
+        if (releases.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "UPDATE rate_limit_counters SET claimed = claimed - ? WHERE client_key = ? AND window_start = ?",
+                releases, releases.size(), (statement, release) -> {
+                    statement.setInt(1, release.unused());
+                    statement.setLong(2, release.clientKey());
+                    statement.setLong(3, release.windowStart());
+                });
+    }
+
+    public int deleteWindowsBefore(long windowStart) {
+        return jdbcTemplate.update("DELETE FROM rate_limit_counters WHERE window_start < ?", windowStart);
+    }
+
+    public record Release(long clientKey, long windowStart, int unused) {
+    }
+
+    /** Moves a client's counter from {@code claimed} to {@code claimed + granted}. */
+    private record Step(long clientKey, int claimed, int granted) {
+    }
+}
@@ -1,9 +1,14 @@
 package com.bookstore.repository;
 
+import com.bookstore.domain.projection.UserTokenVersion;
 import com.bookstore.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +16,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    /**
+     * Users who revoked their tokens at or after {@code since}; tokens revoked earlier have expired by now.
+     */
+    @Query("SELECT u.id AS userId, u.tokenVersion AS tokenVersion, u.tokensRevokedAt AS tokensRevokedAt "
+            + "FROM User u WHERE u.tokensRevokedAt >= :since")
+    List<UserTokenVersion> findTokenVersionsRevokedSince(LocalDateTime since);
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :userId")
+    int findTokenVersionById(Long userId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1, u.tokensRevokedAt = :revokedAt "
+            + "WHERE u.id = :userId")
+    int incrementTokenVersion(Long userId, LocalDateTime revokedAt);
 }
@@ -0,0 +1,281 @@
+package com.bookstore.security;
+
+import com.bookstore.repository.RateLimitCounters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cluster-wide rate limiting over fixed windows whose budgets live in the database.
+ * <p>
+ * Each node leases requests from a client's shared budget in batches and admits against its local lease, so the
+ * steady-state request path does not touch the database. A periodic {@link #sync()} tops up leases of active
+ * clients (sized to their recent rate) with one batched claim per window, hands unused leases of idle clients back,
+ * and drops past windows. A client's
+ * first request on a node is admitted against a small local allowance and its lease is claimed by the next sync, so
+ * a client seen once (a scan from many addresses, say) never costs a database round trip on the request path. A
+ * request only waits on the database when its client has used its allowance or lease before a sync topped it up.
+ * Leases, allowances included, are charged to the shared budget, so the limit holds across replicas; only an
+ * allowance admitted after another node used up the budget goes over it, by at most one allowance per node and
+ * window. Nodes are assumed to have synchronized clocks. At most {@code maxClients} clients hold a lease on a
+ * node; beyond that each request claims its own. If the database is unreachable, requests are admitted rather
+ * than failing the API.
+ */
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcRateLimitStore.class);
+
+    /** Leases untouched for this many sync intervals are returned to the shared budget. */
+    private static final int IDLE_SYNC_INTERVALS = 5;
+    /** Requests a new client may make on this node before its lease is claimed. */
+    private static final int FIRST_REQUEST_ALLOWANCE = 1;
+
+    private final RateLimitCounters counters;
+    private final int maxClients;
+    private final int maxRequests;
+    private final long windowMillis;
+    private final int leaseSize;
+    private final int allowance;
+    private final long idleMillis;
+    private final Map<Long, Lease> leases = new ConcurrentHashMap<>();
+    private volatile boolean degraded;
+    private long purgedBefore;
+
+    public JdbcRateLimitStore(RateLimitCounters counters, int maxClients, int maxRequests, long windowMillis,
+            int leaseSize, long syncIntervalMillis) {
+        if (maxClients < 1 || maxRequests < 0 || windowMillis < 1 || leaseSize < 1) {
+            throw new IllegalArgumentException(
+                    "maxClients, windowMillis and leaseSize must be positive, maxRequests not negative");
+        }
+        this.counters = counters;
+        this.maxClients = maxClients;
+        this.maxRequests = maxRequests;
+        this.windowMillis = windowMillis;
+        this.leaseSize = leaseSize;
+        this.allowance = Math.min(FIRST_REQUEST_ALLOWANCE, maxRequests);
+        this.idleMillis = IDLE_SYNC_INTERVALS * syncIntervalMillis;
+    }
+
+    @Override
+    public boolean tryAcquire(long clientKeyHash, long nowMillis) {
+        long windowStart = nowMillis - nowMillis % windowMillis;
+        Lease lease = leases.get(clientKeyHash);
+        if (lease == null || lease.windowStart < windowStart) {
+            if (lease == null && leases.size() >= maxClients) {
+                return claimUnleased(clientKeyHash, windowStart);
+            }
+            lease = leases.compute(clientKeyHash, (key, existing) ->
+                    existing != null && existing.windowStart >= windowStart && !existing.retired
+                            ? existing : new Lease(windowStart, allowance));
+        }
+        lease.lastUsedMillis = nowMillis;
+        if (lease.take()) {
+            return true;
+        }
+        if (lease.exhausted) {
+            return false;
+        }
+        lease.lock.lock();
+        try {
+            if (lease.take()) {
+                return true; // topped up while we waited
+            }
+            if (lease.retired) {
+                return tryAcquire(clientKeyHash, nowMillis); // handed back by sync while we waited
+            }
+            if (lease.exhausted) {
+                return false;
+            }
+            try {
+                refill(clientKeyHash, lease, leaseSize);
+            } catch (DataAccessException ex) {
+                return admitWhileDegraded(ex);
+            }
+            return lease.take();
+        } finally {
+            lease.lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.rate-limit.sync-interval:PT0.2S}")
+    public void sync() {
+        sync(System.currentTimeMillis());
+    }
+
+    void sync(long nowMillis) {
+        long windowStart = nowMillis - nowMillis % windowMillis;
+        List<RateLimitCounters.Release> releases = new ArrayList<>();
+        Map<Long, Map<Long, Refill>> refills = new HashMap<>();
+        try {
+            for (Map.Entry<Long, Lease> entry : leases.entrySet()) {
+                long clientKey = entry.getKey();
+                Lease lease = entry.getValue();
+                if (lease.windowStart < windowStart) {
+                    leases.remove(clientKey, lease); // unused requests expire with their window
+                    continue;
+                }
+                int recentlyTaken = lease.taken.getAndSet(0);
+                lease.lock.lock();
+                try {
+                    if (nowMillis - lease.lastUsedMillis >= idleMillis) {
+                        if (lease.exhausted) {
+                            // kept until the window ends, so no new allowance reopens it; the next request claims
+                            lease.exhausted = false;
+                        } else {
+                            int unused = lease.tokens.getAndSet(0) - lease.unclaimed;
+                            if (unused > 0) {
+                                releases.add(new RateLimitCounters.Release(clientKey, lease.windowStart, unused));
+                            }
+                            lease.retired = true;
+                            leases.remove(clientKey, lease);
+                        }
+                    } else {
+                        int wanted = Math.max(leaseSize, recentlyTaken);
+                        if (lease.unclaimed > 0 || lease.tokens.get() < (wanted + 1) / 2) {
+                            refills.computeIfAbsent(lease.windowStart, window -> new HashMap<>())
+                                    .put(clientKey, new Refill(lease, wanted + lease.unclaimed, lease.unclaimed));
+                            lease.unclaimed = 0;
+                        }
+                    }
+                } finally {
+                    lease.lock.unlock();
+                }
+            }
+            topUp(refills);
+            counters.release(releases);
+            if (windowStart > purgedBefore) {
+                counters.deleteWindowsBefore(windowStart);
+                purgedBefore = windowStart;
+            }
+            if (degraded) {
+                degraded = false;
+                log.info("Rate limit store reachable again");
+            }
+        } catch (DataAccessException ex) {
+            // leases already zeroed for release are forfeited until the window ends; the limit stays safe
+            log.warn("Rate limit sync failed: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Claims the collected top-ups without holding any lease's lock, so requests keep drawing on their leases
+     * meanwhile. If the claim fails, the allowances taken off the leases are put back for the next sync to claim.
+     */
+    private void topUp(Map<Long, Map<Long, Refill>> refills) {
+        Map<Long, Refill> pending = new HashMap<>();
+        refills.values().forEach(pending::putAll);
+        try {
+            for (Map.Entry<Long, Map<Long, Refill>> window : refills.entrySet()) {
+                Map<Long, Integer> wanted = new HashMap<>();
+                window.getValue().forEach((clientKey, refill) -> wanted.put(clientKey, refill.wanted()));
+                Map<Long, Integer> granted = counters.claimAll(window.getKey(), wanted, maxRequests);
+                window.getValue().forEach((clientKey, refill) -> {
+                    refill.apply(granted.getOrDefault(clientKey, 0));
+                    pending.remove(clientKey);
+                });
+            }
+        } catch (DataAccessException ex) {
+            pending.values().forEach(Refill::restore);
+            throw ex;
+        }
+    }
+
+    /**
+     * Claims {@code wanted} requests plus the allowance the lease was opened with. If the budget cannot cover the
+     * allowance the shortfall is taken from the lease's tokens, which may go negative.
+     */
+    private void refill(long clientKey, Lease lease, int wanted) {
+        int unclaimed = lease.unclaimed;
+        int granted = counters.claim(clientKey, lease.windowStart, wanted + unclaimed, maxRequests);
+        lease.unclaimed = 0;
+        lease.tokens.addAndGet(granted - unclaimed);
+        lease.exhausted = granted <= unclaimed;
+    }
+
+    /**
+     * Admits a request of a client beyond {@code maxClients} by claiming it on its own.
+     */
+    private boolean claimUnleased(long clientKey, long windowStart) {
+        try {
+            return counters.claim(clientKey, windowStart, 1, maxRequests) == 1;
+        } catch (DataAccessException ex) {
+            return admitWhileDegraded(ex);
+        }
+    }
+
+    private boolean admitWhileDegraded(DataAccessException ex) {
+        if (!degraded) {
+            degraded = true;
+            log.warn("Rate limit store unavailable, admitting requests: {}", ex.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * A top-up collected by sync: {@code wanted} requests to claim, {@code unclaimed} of them already handed out.
+     */
+    private record Refill(Lease lease, int wanted, int unclaimed) {
+
+        void apply(int granted) {
+            lease.lock.lock();
+            try {
+                lease.tokens.addAndGet(granted - unclaimed);
+                lease.exhausted = granted <= unclaimed;
+            } finally {
+                lease.lock.unlock();
+            }
+        }
+
+        void restore() {
+            lease.lock.lock();
+            try {
+                lease.unclaimed += unclaimed;
+            } finally {
+                lease.lock.unlock();
+            }
+        }
+    }
+
+    private static final class Lease {
+
+        // guards refills, which wait on the database; synchronized would pin a virtual thread's carrier meanwhile
+        final ReentrantLock lock = new ReentrantLock();
+        final long windowStart;
+        final AtomicInteger tokens;
+        final AtomicInteger taken = new AtomicInteger();
+        /** Allowance handed out before the first claim; guarded by {@code lock}. */
+        int unclaimed;
+        volatile boolean exhausted;
+        /** Set once sync has handed the lease back; requests then open a new one. */
+        volatile boolean retired;
+        volatile long lastUsedMillis;
+
+        Lease(long windowStart, int allowance) {
+            this.windowStart = windowStart;
+            this.tokens = new AtomicInteger(allowance);
+            this.unclaimed = allowance;
+        }
+
+        boolean take() {
+            while (true) {
+                int available = tokens.get();
+                if (available <= 0) {
+                    return false;
+                }
+                if (tokens.compareAndSet(available, available - 1)) {
+                    taken.incrementAndGet();
+                    return true;
+                }
+            }
+        }
+    }
+}
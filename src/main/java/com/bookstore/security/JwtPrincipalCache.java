@@ -0,0 +1,102 @@
+package com.bookstore.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Principals of already verified access tokens, keyed by the token's SHA-256 and kept until the token's {@code exp}.
+ * Principals are rebuilt from the token's claims; only tokens issued without them fall back to a user lookup.
+ * A repeated token skips signature verification, but is checked against {@link TokenVersions} on every request
+ * so revocation applies to cached tokens too. Raw tokens are never held in memory. Rejected tokens are counted in
+ * {@code bookstore.jwt.validation.failures}, tagged {@code invalid} (bad signature, malformed or expired) or
+ * {@code revoked}.
+ */
+@Component
+public class JwtPrincipalCache {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final UserDetailsService userDetailsService;
+    private final TokenVersions tokenVersions;
+    private final Cache<String, CachedPrincipal> principals;
+    private final Counter invalidTokens;
+    private final Counter revokedTokens;
+
+    public JwtPrincipalCache(JwtTokenProvider jwtTokenProvider,
+            UserDetailsService userDetailsService,
+            TokenVersions tokenVersions,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.principal-cache-size:10000}") long maximumSize) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.userDetailsService = userDetailsService;
+        this.tokenVersions = tokenVersions;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.creating((String key, CachedPrincipal cached) ->
+                        Duration.ofMillis(Math.max(0, cached.expiresAtMillis() - System.currentTimeMillis()))))
+                .build();
+        this.invalidTokens = validationFailures(meterRegistry, "invalid");
+        this.revokedTokens = validationFailures(meterRegistry, "revoked");
+    }
+
+    private static Counter validationFailures(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("bookstore.jwt.validation.failures")
+                .description("Bearer tokens rejected by the authentication filter")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The principal the token authenticates, or empty when the token is invalid or expired.
+     */
+    public Optional<UserDetails> resolve(String token) {
+        String key = sha256(token);
+        CachedPrincipal cached = principals.getIfPresent(key);
+        if (cached == null) {
+            Optional<Claims> claims = jwtTokenProvider.parseClaims(token);
+            if (claims.isEmpty()) {
+                invalidTokens.increment();
+                return Optional.empty();
+            }
+            cached = load(claims.get());
+            principals.put(key, cached);
+        }
+        if (!tokenVersions.isCurrent(cached.userId(), cached.tokenVersion())) {
+            revokedTokens.increment();
+            return Optional.empty();
+        }
+        return Optional.of(cached.principal());
+    }
+
+    private CachedPrincipal load(Claims claims) {
+        UserPrincipal principal = jwtTokenProvider.toPrincipal(claims)
+                .orElseGet(() -> (UserPrincipal) userDetailsService.loadUserByUsername(claims.getSubject()));
+        return new CachedPrincipal(principal, principal.getUser().getId(), jwtTokenProvider.getTokenVersion(claims),
+                claims.getExpiration().getTime());
+    }
+
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return new String(digest, StandardCharsets.ISO_8859_1);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private record CachedPrincipal(UserDetails principal, long userId, int tokenVersion, long expiresAtMillis) {
+    }
+}
@@ -1,5 +1,7 @@
 package com.bookstore.security;
 
+import com.bookstore.entity.Role;
+import com.bookstore.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -14,6 +16,7 @@ import org.springframework.util.StringUtils;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
 
 @Component
 public class JwtTokenProvider {
@@ -21,13 +24,19 @@ public class JwtTokenProvider {
     private static final Logger log = LoggerFactory.getLogger(JwtTokenProvider.class);
     private static final int MIN_KEY_LENGTH_BYTES = 32; // 256 bits for HS256
 
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_TOKEN_VERSION = "ver";
+
     private final SecretKey signingKey;
+    private final JwtParser jwtParser;
     private final long jwtExpiration;
 
     public JwtTokenProvider(
             @Value("${jwt.secret}") String jwtSecret,
             @Value("${jwt.expiration}") long jwtExpiration) {
         this.signingKey = buildSigningKey(jwtSecret);
+        this.jwtParser = Jwts.parser().verifyWith(signingKey).build();
         this.jwtExpiration = jwtExpiration;
     }
 
@@ -73,20 +82,37 @@ public class JwtTokenProvider {
     }
 
     public String generateToken(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return generateToken(principal.getUser());
+        }
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         return generateToken(userDetails.getUsername());
     }
 
+    /**
+     * Issues a token that carries the user's id, role and token version, so requests authenticate without a lookup.
+     */
+    public String generateToken(User user) {
+        return tokenBuilder(user.getEmail())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_TOKEN_VERSION, user.getTokenVersion())
+                .compact();
+    }
+
     public String generateToken(String username) {
+        return tokenBuilder(username).compact();
+    }
+
+    private JwtBuilder tokenBuilder(String subject) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
 
         return Jwts.builder()
-                .subject(username)
+                .subject(subject)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
-                .compact();
+                .signWith(getSigningKey());
     }
 
     public long getJwtExpirationSeconds() {
@@ -94,9 +120,7 @@ public class JwtTokenProvider {
     }
 
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
+        Claims claims = jwtParser
                 .parseSignedClaims(token)
                 .getPayload();
 
@@ -104,21 +128,52 @@ public class JwtTokenProvider {
     }
 
     public boolean validateToken(String token) {
+        return parseClaims(token).isPresent();
+    }
+
+    /**
+     * Verifies the signature and expiry once and returns the claims; empty for any invalid token.
+     */
+    public Optional<Claims> parseClaims(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            return Optional.of(jwtParser.parseSignedClaims(token).getPayload());
         } catch (MalformedJwtException ex) {
             log.debug("Invalid JWT token");
         } catch (ExpiredJwtException ex) {
             log.debug("Expired JWT token");
         } catch (UnsupportedJwtException ex) {
             log.debug("Unsupported JWT token");
+        } catch (JwtException ex) {
+            log.debug("Invalid JWT signature");
         } catch (IllegalArgumentException ex) {
             log.debug("JWT claims string is empty");
         }
-        return false;
+        return Optional.empty();
+    }
+
+    /**
+     * Rebuilds the principal from verified claims; empty for tokens issued without the user claims.
+     */
+    public Optional<UserPrincipal> toPrincipal(Claims claims) {
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (userId == null || role == null) {
+            return Optional.empty();
+        }
+        User user = User.builder()
+                .email(claims.getSubject())
+                .role(Role.valueOf(role))
+                .tokenVersion(getTokenVersion(claims))
+                .build();
+        user.setId(userId);
+        return Optional.of(new UserPrincipal(user));
+    }
+
+    /**
+     * Token version the claims were issued at; tokens without one count as version 0.
+     */
+    public int getTokenVersion(Claims claims) {
+        Integer version = claims.get(CLAIM_TOKEN_VERSION, Integer.class);
+        return version == null ? 0 : version;
     }
 }
@@ -1,6 +1,7 @@
 package com.bookstore.security;
 
-import com.bookstore.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,17 +14,18 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 public class RateLimitFilter extends OncePerRequestFilter {
 
-    private final ConcurrentHashMap<String, CounterWindow> counters = new ConcurrentHashMap<>();
-    private final RateLimitProperties properties;
+    private final RateLimitStore store;
+    private final Counter rejections;
 
-    public RateLimitFilter(RateLimitProperties properties) {
-        this.properties = properties;
+    public RateLimitFilter(RateLimitStore store, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.rejections = Counter.builder("bookstore.ratelimit.rejections")
+                .description("Requests answered with 429 Too Many Requests")
+                .register(meterRegistry);
     }
 
     @Override
@@ -52,19 +54,8 @@ public class RateLimitFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        long now = System.currentTimeMillis();
-        long windowMs = properties.getWindowSeconds() * 1000L;
-        String clientKey = resolveClientKey(request);
-
-        CounterWindow counter = counters.compute(clientKey, (key, existing) -> {
-            if (existing == null || now - existing.windowStartMs >= windowMs) {
-                return new CounterWindow(now, new AtomicInteger(1));
-            }
-            existing.counter.incrementAndGet();
-            return existing;
-        });
-
-        if (counter.counter.get() > properties.getMaxRequests()) {
+        if (!store.tryAcquire(clientKeyHash(request), System.currentTimeMillis())) {
+            rejections.increment();
             response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
             response.setContentType(MediaType.APPLICATION_JSON_VALUE);
             String payload = "{\"status\":429,\"error\":\"Too Many Requests\",\"message\":"
@@ -77,14 +68,26 @@ public class RateLimitFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private String resolveClientKey(HttpServletRequest request) {
+    /**
+     * Hashes the first {@code X-Forwarded-For} entry (or the remote address) in place, without splitting the header.
+     */
+    private long clientKeyHash(HttpServletRequest request) {
         String forwardedFor = request.getHeader("X-Forwarded-For");
         if (forwardedFor != null && !forwardedFor.isBlank()) {
-            return forwardedFor.split(",")[0].trim();
+            int end = forwardedFor.indexOf(',');
+            if (end < 0) {
+                end = forwardedFor.length();
+            }
+            int start = 0;
+            while (start < end && Character.isWhitespace(forwardedFor.charAt(start))) {
+                start++;
+            }
+            while (end > start && Character.isWhitespace(forwardedFor.charAt(end - 1))) {
+                end--;
+            }
+            return SlidingWindowRateLimiter.hash(forwardedFor, start, end);
         }
-        return request.getRemoteAddr();
-    }
-
-    private record CounterWindow(long windowStartMs, AtomicInteger counter) {
+        String remoteAddr = request.getRemoteAddr();
+        return SlidingWindowRateLimiter.hash(remoteAddr, 0, remoteAddr.length());
     }
 }
@@ -0,0 +1,16 @@
+package com.bookstore.security;
+
+/**
+ * Backend that decides whether a client may issue another request; selected by {@code app.security.rate-limit.store}.
+ * Implementations are called on every rate-limited request and must be thread-safe.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Counts one request for the client and returns whether it is within the limit.
+     *
+     * @param clientKeyHash {@link SlidingWindowRateLimiter#hash(CharSequence, int, int)} of the client key
+     * @param nowMillis     current wall-clock time
+     */
+    boolean tryAcquire(long clientKeyHash, long nowMillis);
+}
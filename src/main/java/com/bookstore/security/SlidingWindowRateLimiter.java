@@ -0,0 +1,174 @@
+package com.bookstore.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sliding-window rate limiter over a fixed-size, lock-free table of packed {@code long} slots.
+ * <p>
+ * The table is split into stripes of {@value #SLOTS_PER_STRIPE} slots (one cache line); a client hashes to one
+ * stripe and is probed only there. Each slot packs a key fingerprint, the window number and the request counts
+ * of the current and previous window, and is updated with a single CAS, so the request path neither locks nor
+ * allocates. Slots whose last window is older than the previous one are expired and reused in place; when a
+ * stripe is full of live clients the least active one is evicted, which keeps memory fixed under key scans.
+ * <p>
+ * The limit applies to {@code previous * (1 - elapsedFractionOfWindow) + current}, the usual sliding-window
+ * approximation of a sliding log. Concurrent first requests of one client may briefly occupy two slots and
+ * split its count; the limiter then errs on the side of admitting.
+ */
+public class SlidingWindowRateLimiter implements RateLimitStore {
+
+    static final int SLOTS_PER_STRIPE = 8;
+    private static final int WINDOW_BITS = 16;
+    private static final long WINDOW_MASK = (1L << WINDOW_BITS) - 1;
+
+    private final AtomicLongArray slots;
+    private final int stripeMask;
+    private final int maxRequests;
+    private final long windowMillis;
+
+    private final int countBits;
+    private final long countMask;
+    private final int windowShift;
+    private final int fingerprintShift;
+    private final long fingerprintTopBit;
+
+    /**
+     * @param maxClients  clients tracked at once; rounded up to a power-of-two number of stripes
+     * @param maxRequests requests allowed per sliding window
+     * @param windowMillis window length
+     */
+    public SlidingWindowRateLimiter(int maxClients, int maxRequests, long windowMillis) {
+        if (maxClients < 1 || maxRequests < 0 || windowMillis < 1) {
+            throw new IllegalArgumentException("maxClients and windowMillis must be positive, maxRequests not negative");
+        }
+        int neededStripes = (maxClients + SLOTS_PER_STRIPE - 1) / SLOTS_PER_STRIPE;
+        int stripes = neededStripes <= 1 ? 1 : Integer.highestOneBit(neededStripes - 1) << 1;
+        this.slots = new AtomicLongArray(stripes * SLOTS_PER_STRIPE);
+        this.stripeMask = stripes - 1;
+        this.maxRequests = maxRequests;
+        this.windowMillis = windowMillis;
+
+        // counts never exceed maxRequests, so each needs only enough bits for it
+        this.countBits = Math.max(1, 64 - Long.numberOfLeadingZeros(maxRequests));
+        if (2 * countBits + WINDOW_BITS > 56) {
+            throw new IllegalArgumentException("maxRequests too large: " + maxRequests);
+        }
+        this.countMask = (1L << countBits) - 1;
+        this.windowShift = 2 * countBits;
+        this.fingerprintShift = windowShift + WINDOW_BITS;
+        // fingerprints always have their top bit set, so 0 can mean "empty slot"
+        this.fingerprintTopBit = 1L << (63 - fingerprintShift);
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * Counts one request for the client and returns whether it is within the limit; rejected requests are not counted.
+     */
+    @Override
+    public boolean tryAcquire(long keyHash, long nowMillis) {
+        long window = nowMillis / windowMillis;
+        double previousWeight = 1.0 - (double) (nowMillis - window * windowMillis) / windowMillis;
+        long fingerprint = fingerprint(keyHash);
+        int base = stripe(keyHash) * SLOTS_PER_STRIPE;
+
+        retry:
+        while (true) {
+            int victim = base;
+            long victimLoad = Long.MAX_VALUE;
+            for (int i = base; i < base + SLOTS_PER_STRIPE; i++) {
+                long slot = slots.get(i);
+                if (slot != 0 && fingerprintOf(slot) == fingerprint) {
+                    long rolled = roll(slot, window);
+                    boolean admitted = admits(rolled, previousWeight);
+                    long updated = admitted ? rolled + 1 : rolled;
+                    if (updated == slot || slots.compareAndSet(i, slot, updated)) {
+                        return admitted;
+                    }
+                    continue retry; // a concurrent request of the same client won the CAS
+                }
+                long load = load(slot, window);
+                if (load < victimLoad) {
+                    victim = i;
+                    victimLoad = load;
+                }
+            }
+            if (maxRequests == 0) {
+                return false;
+            }
+            long claimed = pack(fingerprint, window, 0, 1);
+            long current = slots.get(victim);
+            if (load(current, window) == victimLoad && slots.compareAndSet(victim, current, claimed)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 64-bit hash of {@code key[start, end)} without copying it, for keys cut out of request headers.
+     */
+    public static long hash(CharSequence key, int start, int end) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        // final avalanche so both the stripe index (low bits) and the fingerprint (high bits) are well mixed
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private int stripe(long keyHash) {
+        return (int) keyHash & stripeMask;
+    }
+
+    private long fingerprint(long keyHash) {
+        return (keyHash >>> (fingerprintShift + 1)) | fingerprintTopBit;
+    }
+
+    private long fingerprintOf(long slot) {
+        return slot >>> fingerprintShift;
+    }
+
+    private long pack(long fingerprint, long window, long previous, long current) {
+        return (fingerprint << fingerprintShift) | ((window & WINDOW_MASK) << windowShift)
+                | (previous << countBits) | current;
+    }
+
+    /**
+     * Moves a slot into {@code window}: the current count becomes the previous one, or both reset after a gap.
+     */
+    private long roll(long slot, long window) {
+        long slotWindow = (slot >>> windowShift) & WINDOW_MASK;
+        long current = slot & countMask;
+        long fingerprint = fingerprintOf(slot);
+        if (slotWindow == (window & WINDOW_MASK)) {
+            return slot;
+        }
+        if (slotWindow == ((window - 1) & WINDOW_MASK)) {
+            return pack(fingerprint, window, current, 0);
+        }
+        return pack(fingerprint, window, 0, 0);
+    }
+
+    private boolean admits(long rolled, double previousWeight) {
+        long previous = (rolled >>> countBits) & countMask;
+        long current = rolled & countMask;
+        return previous * previousWeight + current + 1 <= maxRequests;
+    }
+
+    /**
+     * Eviction preference: empty and expired slots first, then the client with the fewest recent requests.
+     */
+    private long load(long slot, long window) {
+        if (slot == 0) {
+            return -1;
+        }
+        long rolled = roll(slot, window);
+        return ((rolled >>> countBits) & countMask) + (rolled & countMask);
+    }
+}
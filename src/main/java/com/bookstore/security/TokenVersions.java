@@ -0,0 +1,64 @@
+package com.bookstore.security;
+
+import com.bookstore.domain.projection.UserTokenVersion;
+import com.bookstore.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the access-token versions of users who revoked their tokens within the last token lifetime
+ * ({@code jwt.expiration}); tokens issued before an older revocation have expired, so it is forgotten.
+ * Refreshed from the database on {@code jwt.token-version-refresh}, so a revocation on another node takes effect
+ * here within one interval; versions only grow, so a refresh never undoes a newer local revocation.
+ */
+@Component
+public class TokenVersions {
+
+    private final UserRepository userRepository;
+    private final long tokenLifetimeMillis;
+    private final Map<Long, Revocation> revocations = new ConcurrentHashMap<>();
+
+    public TokenVersions(UserRepository userRepository, @Value("${jwt.expiration}") long tokenLifetimeMillis) {
+        this.userRepository = userRepository;
+        this.tokenLifetimeMillis = tokenLifetimeMillis;
+    }
+
+    /**
+     * Whether a token issued at {@code tokenVersion} is still valid for the user.
+     */
+    public boolean isCurrent(long userId, int tokenVersion) {
+        Revocation revocation = revocations.get(userId);
+        return revocation == null || tokenVersion >= revocation.version();
+    }
+
+    public void record(long userId, int tokenVersion) {
+        record(userId, tokenVersion, LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.token-version-refresh:PT30S}")
+    public void refresh() {
+        refresh(LocalDateTime.now());
+    }
+
+    void refresh(LocalDateTime now) {
+        LocalDateTime oldestLive = now.minus(tokenLifetimeMillis, ChronoUnit.MILLIS);
+        for (UserTokenVersion version : userRepository.findTokenVersionsRevokedSince(oldestLive)) {
+            record(version.getUserId(), version.getTokenVersion(), version.getTokensRevokedAt());
+        }
+        revocations.values().removeIf(revocation -> revocation.revokedAt().isBefore(oldestLive));
+    }
+
+    private void record(long userId, int tokenVersion, LocalDateTime revokedAt) {
+        revocations.merge(userId, new Revocation(tokenVersion, revokedAt),
+                (current, recorded) -> recorded.version() > current.version() ? recorded : current);
+    }
+
+    private record Revocation(int version, LocalDateTime revokedAt) {
+    }
+}
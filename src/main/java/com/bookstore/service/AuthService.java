@@ -6,12 +6,16 @@ import com.bookstore.entity.User;
 import com.bookstore.exception.BadRequestException;
 import com.bookstore.repository.UserRepository;
 import com.bookstore.security.JwtTokenProvider;
+import com.bookstore.security.TokenVersions;
 import com.bookstore.security.UserPrincipal;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 
 @Service
 public class AuthService {
@@ -21,17 +25,20 @@ public class AuthService {
     private final JwtTokenProvider jwtTokenProvider;
     private final RefreshTokenService refreshTokenService;
     private final AuthenticationManager authenticationManager;
+    private final TokenVersions tokenVersions;
 
     public AuthService(UserRepository userRepository,
             PasswordEncoder passwordEncoder,
             JwtTokenProvider jwtTokenProvider,
             RefreshTokenService refreshTokenService,
-            AuthenticationManager authenticationManager) {
+            AuthenticationManager authenticationManager,
+            TokenVersions tokenVersions) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtTokenProvider = jwtTokenProvider;
         this.refreshTokenService = refreshTokenService;
         this.authenticationManager = authenticationManager;
+        this.tokenVersions = tokenVersions;
     }
 
     public AuthResult register(String email, String password, String firstName, String lastName) {
@@ -49,7 +56,7 @@ public class AuthService {
 
         userRepository.save(user);
 
-        String accessToken = jwtTokenProvider.generateToken(user.getEmail());
+        String accessToken = jwtTokenProvider.generateToken(user);
         String refreshToken = refreshTokenService.createForUser(user).getToken();
         return new AuthResult(accessToken, refreshToken, jwtTokenProvider.getJwtExpirationSeconds(), user);
     }
@@ -68,11 +75,23 @@ public class AuthService {
         return new AuthResult(accessToken, refreshToken, jwtTokenProvider.getJwtExpirationSeconds(), user);
     }
 
+    @Transactional
     public AuthResult refresh(String refreshToken) {
         var rotated = refreshTokenService.rotate(refreshToken);
         User user = rotated.getUser();
-        String accessToken = jwtTokenProvider.generateToken(user.getEmail());
+        String accessToken = jwtTokenProvider.generateToken(user);
         String newRefreshToken = rotated.getToken();
         return new AuthResult(accessToken, newRefreshToken, jwtTokenProvider.getJwtExpirationSeconds(), user);
     }
+
+    /**
+     * Ends every session of the user: outstanding access tokens stop validating (on other nodes within one
+     * {@link TokenVersions} refresh) and refresh tokens are deleted.
+     */
+    @Transactional
+    public void logoutEverywhere(User user) {
+        userRepository.incrementTokenVersion(user.getId(), LocalDateTime.now());
+        refreshTokenService.deleteForUser(user);
+        tokenVersions.record(user.getId(), userRepository.findTokenVersionById(user.getId()));
+    }
 }
@@ -0,0 +1,310 @@
+package com.bookstore.service;
+
+import com.bookstore.cache.BookDetailsCache;
+import com.bookstore.dto.BookImportReport;
+import com.bookstore.dto.BookImportRow;
+import com.bookstore.exception.BadRequestException;
+import com.bookstore.repository.BookImports;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Bulk catalog import from a publisher feed, upserting books by ISBN.
+ * <p>
+ * The feed is read as a stream, {@value #BATCH_SIZE} rows at a time. Each batch is parsed and validated in parallel,
+ * categories are resolved by name from a map loaded once, and the valid rows are written together in one
+ * transaction. A row that fails is reported with its row number and skipped; if a batch write fails, its rows are
+ * written one by one so only the offending rows are rejected. When rows in a batch share an ISBN only the last is
+ * written, and the earlier ones are reported as superseded. Progress is logged every {@value #PROGRESS_INTERVAL}
+ * rows. Category book counts are recounted once the feed is done.
+ */
+@Service
+public class BookImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookImportService.class);
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int PROGRESS_INTERVAL = 50_000;
+    /** Rejected rows listed in the report; the rest are only counted. */
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    public enum Format {
+        CSV, JSON_LINES
+    }
+
+    private final BookImports bookImports;
+    private final CategoryService categoryService;
+    private final BookDetailsCache bookDetailsCache;
+    private final BookSearchIndex bookSearchIndex;
+    private final Validator validator;
+    private final ObjectReader rowReader;
+
+    public BookImportService(BookImports bookImports,
+            CategoryService categoryService,
+            BookDetailsCache bookDetailsCache,
+            BookSearchIndex bookSearchIndex,
+            Validator validator,
+            JsonMapper jsonMapper) {
+        this.bookImports = bookImports;
+        this.categoryService = categoryService;
+        this.bookDetailsCache = bookDetailsCache;
+        this.bookSearchIndex = bookSearchIndex;
+        this.validator = validator;
+        this.rowReader = jsonMapper.readerFor(BookImportRow.class);
+    }
+
+    /**
+     * CSV feeds need a header row naming the columns after the {@link BookImportRow} properties; unknown columns are
+     * ignored. JSON-lines feeds hold one object per line; blank lines are skipped in both.
+     *
+     * @throws BadRequestException when the CSV header lacks a required column
+     */
+    public BookImportReport importBooks(InputStream feed, Format format) {
+        Map<String, Long> categoryIds = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        categoryService.getAllCategories().forEach(category -> categoryIds.put(category.getName(), category.getId()));
+        Progress progress = new Progress();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(feed, StandardCharsets.UTF_8));
+        try {
+            RecordSource source = format == Format.CSV ? csvSource(reader) : jsonLinesSource(reader);
+            List<PendingRow> batch = new ArrayList<>(BATCH_SIZE);
+            for (PendingRow row = source.next(); row != null; row = source.next()) {
+                batch.add(row);
+                if (batch.size() == BATCH_SIZE) {
+                    importBatch(batch, categoryIds, progress);
+                    batch.clear();
+                }
+            }
+            importBatch(batch, categoryIds, progress);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        categoryService.reconcileBookCounts();
+        bookSearchIndex.refresh();
+        log.info("Book import finished: {} rows read, {} imported, {} failed",
+                progress.rows, progress.imported, progress.failed);
+        progress.errors.sort(Comparator.comparingLong(BookImportReport.RowError::getRow));
+        return BookImportReport.builder()
+                .rows(progress.rows)
+                .imported(progress.imported)
+                .failed(progress.failed)
+                .errors(progress.errors)
+                .build();
+    }
+
+    private void importBatch(List<PendingRow> batch, Map<String, Long> categoryIds, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Checked> checked = batch.parallelStream().map(row -> check(row, categoryIds)).toList();
+        List<Checked> valid = checked.stream().filter(row -> row.error() == null).toList();
+        checked.stream().filter(row -> row.error() != null).forEach(row -> progress.reject(row.number(), row.isbn(), row.error()));
+        Map<String, Checked> byIsbn = new LinkedHashMap<>();
+        for (Checked row : valid) {
+            Checked superseded = byIsbn.put(row.isbn(), row);
+            if (superseded != null) {
+                progress.reject(superseded.number(), superseded.isbn(),
+                        "Superseded by row " + row.number() + " with the same ISBN");
+            }
+        }
+        List<Checked> unique = List.copyOf(byIsbn.values());
+
+        try {
+            bookImports.upsert(unique.stream().map(Checked::row).toList());
+            progress.imported += unique.size();
+        } catch (DataAccessException batchFailure) {
+            for (Checked row : unique) {
+                try {
+                    bookImports.upsert(List.of(row.row()));
+                    progress.imported++;
+                } catch (DataAccessException ex) {
+                    progress.reject(row.number(), row.isbn(), "Could not be saved: " + ex.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        bookDetailsCache.clear();
+
+        long before = progress.rows;
+        progress.rows += batch.size();
+        if (before / PROGRESS_INTERVAL != progress.rows / PROGRESS_INTERVAL) {
+            log.info("Book import: {} rows read, {} imported, {} failed", progress.rows, progress.imported, progress.failed);
+        }
+    }
+
+    private Checked check(PendingRow pending, Map<String, Long> categoryIds) {
+        BookImportRow row;
+        try {
+            row = pending.parser().get();
+        } catch (JacksonException | IllegalArgumentException ex) {
+            return Checked.rejected(pending.number(), null, "Unreadable row: " + ex.getMessage());
+        }
+        String isbn = row.getIsbn() != null ? row.getIsbn().trim() : null;
+        List<String> violations = validator.validate(row).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .toList();
+        if (!violations.isEmpty()) {
+            return Checked.rejected(pending.number(), isbn, String.join("; ", violations));
+        }
+        Long categoryId = null;
+        if (row.getCategory() != null && !row.getCategory().isBlank()) {
+            categoryId = categoryIds.get(row.getCategory().trim());
+            if (categoryId == null) {
+                return Checked.rejected(pending.number(), isbn, "Unknown category: " + row.getCategory().trim());
+            }
+        }
+        return new Checked(pending.number(), isbn, new BookImports.Row(isbn, row.getTitle(), row.getAuthor(),
+                row.getDescription(), row.getPrice(), row.getStockQuantity() != null ? row.getStockQuantity() : 0,
+                row.getImageUrl(), categoryId), null);
+    }
+
+    private RecordSource jsonLinesSource(BufferedReader reader) {
+        long[] number = {0};
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            String json = line;
+            return new PendingRow(++number[0], () -> rowReader.readValue(json));
+        };
+    }
+
+    private RecordSource csvSource(BufferedReader reader) throws IOException {
+        List<String> header = readCsvRecord(reader);
+        if (header != null) {
+            header = header.stream().map(name -> name.replace("\uFEFF", "").strip()).toList();
+        }
+        if (header == null || !header.containsAll(List.of("isbn", "title", "author", "price"))) {
+            throw new BadRequestException("CSV header must name at least the isbn, title, author and price columns");
+        }
+        List<String> columns = header;
+        long[] number = {0};
+        return () -> {
+            List<String> fields;
+            do {
+                fields = readCsvRecord(reader);
+            } while (fields != null && fields.size() == 1 && fields.get(0).isBlank());
+            if (fields == null) {
+                return null;
+            }
+            List<String> values = fields;
+            return new PendingRow(++number[0], () -> toRow(columns, values));
+        };
+    }
+
+    private static BookImportRow toRow(List<String> header, List<String> fields) {
+        BookImportRow row = new BookImportRow();
+        for (int i = 0; i < header.size() && i < fields.size(); i++) {
+            String value = fields.get(i).isEmpty() ? null : fields.get(i);
+            switch (header.get(i)) {
+                case "isbn" -> row.setIsbn(value);
+                case "title" -> row.setTitle(value);
+                case "author" -> row.setAuthor(value);
+                case "description" -> row.setDescription(value);
+                case "price" -> row.setPrice(value != null ? new BigDecimal(value.trim()) : null);
+                case "stockQuantity" -> row.setStockQuantity(value != null ? Integer.valueOf(value.trim()) : null);
+                case "imageUrl" -> row.setImageUrl(value);
+                case "category" -> row.setCategory(value);
+                default -> { }
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Reads one RFC 4180 record: fields separated by commas, optionally double-quoted, where a quoted field may hold
+     * commas, line breaks and doubled quotes. Returns {@code null} at the end of the input.
+     */
+    static List<String> readCsvRecord(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    int next = reader.read();
+                    if (next != '"') {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /** Reads the next row of the feed, not yet parsed; {@code null} at the end. */
+    @FunctionalInterface
+    private interface RecordSource {
+        PendingRow next() throws IOException;
+    }
+
+    private record PendingRow(long number, Supplier<BookImportRow> parser) {
+    }
+
+    private record Checked(long number, String isbn, BookImports.Row row, String error) {
+
+        static Checked rejected(long number, String isbn, String error) {
+            return new Checked(number, isbn, null, error);
+        }
+    }
+
+    private static final class Progress {
+
+        long rows;
+        long imported;
+        long failed;
+        final List<BookImportReport.RowError> errors = new ArrayList<>();
+
+        void reject(long row, String isbn, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new BookImportReport.RowError(row, isbn, message));
+            }
+        }
+    }
+}
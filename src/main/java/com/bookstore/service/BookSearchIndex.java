@@ -0,0 +1,543 @@
+package com.bookstore.service;
+
+import com.bookstore.config.CatalogSearchProperties;
+import com.bookstore.entity.Book;
+import com.bookstore.pagination.KeysetScroll;
+import com.bookstore.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over book title, author, ISBN and description.
+ * Answers prefix, typo-tolerant and multi-term (AND) queries with book ids only;
+ * the database is used to load the index and to hydrate the requested page.
+ * Typos are matched in titles and authors only, through their terms' deletion neighbourhoods, so a misspelt term
+ * is compared with the few terms sharing a deletion rather than the whole vocabulary.
+ * Each node keeps its own copy, so it is also rebuilt on {@code app.catalog.search.refresh-interval}.
+ * Changes made inside a transaction are applied once it commits, so a rollback never shows in search results.
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BookSearchIndex.class);
+
+    private static final Pattern NON_WORD_CHARACTERS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int LONG_TERM_LENGTH = 8;
+    /** Shortest indexed term a fuzzy query term ({@code MIN_FUZZY_LENGTH} or more) can be one edit away from. */
+    private static final int MIN_NEIGHBOURHOOD_LENGTH = MIN_FUZZY_LENGTH - 1;
+    private static final double EXACT_MATCH = 1.0;
+    private static final double PREFIX_MATCH = 0.6;
+    private static final double FUZZY_MATCH = 0.4;
+    private static final Comparator<Match> BEST_FIRST = Comparator.comparingDouble(Match::score).reversed()
+            .thenComparingLong(Match::id);
+
+    private enum Field {
+        TITLE(3.0, true), AUTHOR(2.0, true), ISBN(3.0, false), DESCRIPTION(1.0, false);
+
+        private final double weight;
+        /** Whether misspelt query terms match this field's terms. */
+        private final boolean fuzzy;
+
+        Field(double weight, boolean fuzzy) {
+            this.weight = weight;
+            this.fuzzy = fuzzy;
+        }
+    }
+
+    private final BookRepository bookRepository;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock rebuildLock = new ReentrantLock();
+    private InvertedIndex index = new InvertedIndex();
+    /** Changes applied while a rebuild loads the books, replayed onto the rebuilt index; guarded by {@code lock}. */
+    private List<Change> missedByRebuild;
+
+    public BookSearchIndex(BookRepository bookRepository, CatalogSearchProperties properties) {
+        this.bookRepository = bookRepository;
+        this.enabled = properties.isInMemoryIndex();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.search.refresh-interval:PT5M}",
+            initialDelayString = "${app.catalog.search.refresh-interval:PT5M}")
+    public void refresh() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Loads every book and swaps the new index in atomically; queries keep using the old one meanwhile.
+     * Changes committed while the books load may be missing from the loaded snapshot, so they are recorded
+     * and replayed onto the new index before the swap.
+     */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                missedByRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            InvertedIndex rebuilt = new InvertedIndex();
+            List<Book> books;
+            try {
+                books = bookRepository.findAll();
+                books.forEach(book -> rebuilt.add(book.getId(), InvertedIndex.fieldsOf(book)));
+            } catch (RuntimeException ex) {
+                discardMissed();
+                throw ex;
+            }
+
+            lock.writeLock().lock();
+            try {
+                missedByRebuild.forEach(change -> change.applyTo(rebuilt));
+                missedByRebuild = null;
+                index = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Book search index rebuilt with {} books", books.size());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Indexes the book as it stands once the current transaction commits, or right away outside one.
+     */
+    public void index(Book book) {
+        if (!enabled || book.getId() == null) {
+            return;
+        }
+        afterCommit(() -> apply(new Change(book.getId(), InvertedIndex.fieldsOf(book))));
+    }
+
+    public void remove(Long bookId) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> apply(new Change(bookId, null)));
+    }
+
+    /**
+     * Returns the ids of matching books for the requested page, best match first.
+     */
+    public Page<Long> search(String keyword, Pageable pageable) {
+        List<Match> ranked = rank(keyword);
+
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        int to = Math.min(from + pageable.getPageSize(), ranked.size());
+        List<Long> pageIds = ranked.subList(from, to).stream().map(Match::id).toList();
+        return new PageImpl<>(pageIds, pageable, ranked.size());
+    }
+
+    public long count(String keyword) {
+        return rank(keyword).size();
+    }
+
+    /**
+     * Returns up to {@code size} ids ranked after {@code position}, whose keys are the last {@code score} and {@code id}.
+     */
+    public Window<Long> scroll(String keyword, KeysetScrollPosition position, int size) {
+        List<Match> ranked = rank(keyword);
+
+        int from = 0;
+        if (!position.isInitial()) {
+            Match last = new Match(KeysetScroll.key(position, "id", Long.class),
+                    KeysetScroll.key(position, "score", Double.class));
+            int found = Collections.binarySearch(ranked, last, BEST_FIRST);
+            from = found >= 0 ? found + 1 : -found - 1;
+        }
+        int to = Math.min(from + size, ranked.size());
+        List<Match> window = ranked.subList(from, to);
+        return Window.from(window.stream().map(Match::id).toList(),
+                i -> ScrollPosition.forward(Map.of("score", window.get(i).score(), "id", window.get(i).id())),
+                to < ranked.size());
+    }
+
+    private List<Match> rank(String keyword) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(keyword)));
+        lock.readLock().lock();
+        try {
+            return index.search(terms);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Change change) {
+        lock.writeLock().lock();
+        try {
+            change.applyTo(index);
+            if (missedByRebuild != null) {
+                missedByRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void discardMissed() {
+        lock.writeLock().lock();
+        try {
+            missedByRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(NON_WORD_CHARACTERS.split(normalized))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private static List<String> tokenizeIsbn(String isbn) {
+        List<String> tokens = new ArrayList<>(tokenize(isbn));
+        if (tokens.size() > 1) {
+            tokens.add(String.join("", tokens));
+        }
+        return tokens;
+    }
+
+    /**
+     * Edits a term may be away from a query term of this length and still match it.
+     */
+    private static int maxDistance(int queryLength) {
+        return queryLength >= LONG_TERM_LENGTH ? 2 : 1;
+    }
+
+    /**
+     * The term and every string left by deleting up to {@code deletions} of its characters. Two terms within that
+     * edit distance of each other (transpositions included) always share one of these.
+     */
+    static Set<String> deletionNeighbourhood(String term, int deletions) {
+        Set<String> neighbourhood = new HashSet<>();
+        neighbourhood.add(term);
+        Set<String> previous = neighbourhood;
+        for (int round = 0; round < deletions; round++) {
+            Set<String> next = new HashSet<>();
+            for (String variant : previous) {
+                for (int i = 0; i < variant.length(); i++) {
+                    next.add(variant.substring(0, i) + variant.substring(i + 1));
+                }
+            }
+            neighbourhood.addAll(next);
+            previous = next;
+        }
+        return neighbourhood;
+    }
+
+    /**
+     * Bounded edit distance (insertions, deletions, substitutions and adjacent transpositions)
+     * that gives up as soon as every path exceeds {@code maxDistance}.
+     */
+    static boolean withinEditDistance(String a, String b, int maxDistance) {
+        if (Math.abs(a.length() - b.length()) > maxDistance) {
+            return false;
+        }
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], beforePrevious[j - 2] + 1);
+                }
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > maxDistance) {
+                return false;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()] <= maxDistance;
+    }
+
+    private record Match(long id, double score) {
+    }
+
+    /**
+     * A committed book's indexed fields, or its removal when {@code fields} is {@code null}.
+     */
+    private record Change(long id, Map<Field, List<String>> fields) {
+
+        void applyTo(InvertedIndex target) {
+            target.remove(id);
+            if (fields != null) {
+                target.add(id, fields);
+            }
+        }
+    }
+
+    /**
+     * Sorted, growable array of book ids.
+     */
+    private static final class PostingList {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            int insertAt = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+
+    private static final class InvertedIndex {
+
+        private final Map<Field, Map<String, PostingList>> exactTerms = new EnumMap<>(Field.class);
+        private final Map<Field, Map<String, PostingList>> prefixes = new EnumMap<>(Field.class);
+        private final Map<Long, Map<Field, List<String>>> documents = new HashMap<>();
+        /** Title and author terms by each string of their deletion neighbourhood. */
+        private final Map<String, Set<String>> neighbours = new HashMap<>();
+
+        InvertedIndex() {
+            for (Field field : Field.values()) {
+                exactTerms.put(field, new HashMap<>());
+                prefixes.put(field, new HashMap<>());
+            }
+        }
+
+        static Map<Field, List<String>> fieldsOf(Book book) {
+            Map<Field, List<String>> fields = new EnumMap<>(Field.class);
+            fields.put(Field.TITLE, tokenize(book.getTitle()));
+            fields.put(Field.AUTHOR, tokenize(book.getAuthor()));
+            fields.put(Field.ISBN, tokenizeIsbn(book.getIsbn()));
+            fields.put(Field.DESCRIPTION, tokenize(book.getDescription()));
+            return fields;
+        }
+
+        void add(long id, Map<Field, List<String>> fields) {
+            fields.forEach((field, tokens) -> {
+                for (String token : tokens) {
+                    if (field.fuzzy && !isFuzzyTerm(token)) {
+                        neighbourhoodOf(token).forEach(variant ->
+                                neighbours.computeIfAbsent(variant, key -> new HashSet<>()).add(token));
+                    }
+                    exactTerms.get(field).computeIfAbsent(token, key -> new PostingList()).add(id);
+                    for (int length = MIN_PREFIX_LENGTH; length < token.length(); length++) {
+                        prefixes.get(field).computeIfAbsent(token.substring(0, length), key -> new PostingList()).add(id);
+                    }
+                }
+            });
+            documents.put(id, fields);
+        }
+
+        void remove(long id) {
+            Map<Field, List<String>> fields = documents.remove(id);
+            if (fields == null) {
+                return;
+            }
+            fields.forEach((field, tokens) -> {
+                for (String token : tokens) {
+                    removePosting(exactTerms.get(field), token, id);
+                    if (field.fuzzy && !isFuzzyTerm(token)) {
+                        for (String variant : neighbourhoodOf(token)) {
+                            Set<String> terms = neighbours.get(variant);
+                            if (terms != null && terms.remove(token) && terms.isEmpty()) {
+                                neighbours.remove(variant);
+                            }
+                        }
+                    }
+                    for (int length = MIN_PREFIX_LENGTH; length < token.length(); length++) {
+                        removePosting(prefixes.get(field), token.substring(0, length), id);
+                    }
+                }
+            });
+        }
+
+        /**
+         * Whether any title or author still contains the term.
+         */
+        private boolean isFuzzyTerm(String term) {
+            return exactTerms.get(Field.TITLE).containsKey(term) || exactTerms.get(Field.AUTHOR).containsKey(term);
+        }
+
+        /**
+         * The indexed neighbourhood of a term, with as many deletions as the edits allowed for the longest query term
+         * that may match it; none for terms too short for any.
+         */
+        private static Set<String> neighbourhoodOf(String term) {
+            if (term.length() < MIN_NEIGHBOURHOOD_LENGTH) {
+                return Set.of();
+            }
+            return deletionNeighbourhood(term, maxDistance(term.length() + 2));
+        }
+
+        private static void removePosting(Map<String, PostingList> postings, String key, long id) {
+            PostingList list = postings.get(key);
+            if (list != null) {
+                list.remove(id);
+                if (list.isEmpty()) {
+                    postings.remove(key);
+                }
+            }
+        }
+
+        List<Match> search(List<String> terms) {
+            if (terms.isEmpty()) {
+                return List.of();
+            }
+            Map<Long, Double> scores = null;
+            for (String term : terms) {
+                Map<Long, Double> termScores = scoreTerm(term);
+                if (termScores.isEmpty()) {
+                    return List.of();
+                }
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Long, Double> combined = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        Double termScore = termScores.get(entry.getKey());
+                        if (termScore != null) {
+                            combined.put(entry.getKey(), entry.getValue() + termScore);
+                        }
+                    }
+                    if (combined.isEmpty()) {
+                        return List.of();
+                    }
+                    scores = combined;
+                }
+            }
+
+            return scores.entrySet().stream()
+                    .map(entry -> new Match(entry.getKey(), entry.getValue()))
+                    .sorted(BEST_FIRST)
+                    .toList();
+        }
+
+        private Map<Long, Double> scoreTerm(String term) {
+            Map<Long, Double> scores = new HashMap<>();
+            for (Field field : Field.values()) {
+                accumulate(scores, exactTerms.get(field).get(term), field.weight * EXACT_MATCH);
+                accumulate(scores, prefixes.get(field).get(term), field.weight * PREFIX_MATCH);
+            }
+            if (scores.isEmpty() && term.length() >= MIN_FUZZY_LENGTH) {
+                int maxDistance = maxDistance(term.length());
+                Set<String> candidates = new HashSet<>();
+                for (String variant : deletionNeighbourhood(term, maxDistance)) {
+                    candidates.addAll(neighbours.getOrDefault(variant, Set.of()));
+                }
+                for (String candidate : candidates) {
+                    if (withinEditDistance(term, candidate, maxDistance)) {
+                        for (Field field : Field.values()) {
+                            if (field.fuzzy) {
+                                accumulate(scores, exactTerms.get(field).get(candidate), field.weight * FUZZY_MATCH);
+                            }
+                        }
+                    }
+                }
+            }
+            return scores;
+        }
+
+        private static void accumulate(Map<Long, Double> scores, PostingList postings, double score) {
+            if (postings == null) {
+                return;
+            }
+            for (int i = 0; i < postings.size; i++) {
+                scores.merge(postings.ids[i], score, Math::max);
+            }
+        }
+    }
+}
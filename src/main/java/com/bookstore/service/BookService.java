@@ -1,53 +1,329 @@
 package com.bookstore.service;
 
+import com.bookstore.cache.BookDetailsCache;
+import com.bookstore.cache.CatalogVersion;
+import com.bookstore.config.DatabasePlatform;
+import com.bookstore.domain.projection.FullTextMatch;
+import com.bookstore.domain.projection.KeywordMatch;
 import com.bookstore.entity.Book;
 import com.bookstore.entity.Category;
 import com.bookstore.exception.ResourceNotFoundException;
+import com.bookstore.pagination.KeysetScroll;
 import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookRowEstimates;
+import com.bookstore.repository.BookStockLevels;
+import com.bookstore.repository.CategoryRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.util.Streamable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Service
 public class BookService {
 
+    private static final Pattern NON_WORD_CHARACTERS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Sort FULL_TEXT_ORDER = Sort.by(Sort.Direction.DESC, "rank").and(Sort.by("id"));
+    private static final Sort KEYWORD_ORDER = Sort.by("rank", "title", "id");
+
     private final BookRepository bookRepository;
-    public BookService(BookRepository bookRepository) {
+    private final DatabasePlatform databasePlatform;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookDetailsCache bookDetailsCache;
+    private final BookRowEstimates bookRowEstimates;
+    private final BookStockLevels bookStockLevels;
+    private final StockShardService stockShardService;
+    private final CategoryRepository categoryRepository;
+    private final CatalogVersion catalogVersion;
+
+    public BookService(BookRepository bookRepository,
+            DatabasePlatform databasePlatform,
+            BookSearchIndex bookSearchIndex,
+            BookDetailsCache bookDetailsCache,
+            BookRowEstimates bookRowEstimates,
+            BookStockLevels bookStockLevels,
+            StockShardService stockShardService,
+            CategoryRepository categoryRepository,
+            CatalogVersion catalogVersion) {
         this.bookRepository = bookRepository;
+        this.databasePlatform = databasePlatform;
+        this.bookSearchIndex = bookSearchIndex;
+        this.bookDetailsCache = bookDetailsCache;
+        this.bookRowEstimates = bookRowEstimates;
+        this.bookStockLevels = bookStockLevels;
+        this.stockShardService = stockShardService;
+        this.categoryRepository = categoryRepository;
+        this.catalogVersion = catalogVersion;
     }
 
     public Page<Book> getAllBooks(Pageable pageable) {
-        return bookRepository.findAll(pageable);
+        return withStockLevels(bookRepository.findAll(pageable));
+    }
+
+    /**
+     * Same page as {@link #getAllBooks} without the {@code COUNT} query.
+     */
+    public Slice<Book> sliceAllBooks(Pageable pageable) {
+        return withStockLevels(bookRepository.findSliceBy(pageable));
+    }
+
+    public Optional<Long> estimateBookCount() {
+        return bookRowEstimates.all();
+    }
+
+    /**
+     * Whether books can be sorted by stock: only while {@code stock_quantity} holds all of it, see
+     * {@link BookStockLevels#isAllInStockQuantity()}.
+     */
+    public boolean isStockSortable() {
+        return bookStockLevels.isAllInStockQuantity();
     }
 
     public Book getBookById(Long id) {
-        return bookRepository.findByIdWithCategory(id)
+        Book book = bookRepository.findByIdWithCategory(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book", "id", id));
+        bookStockLevels.load(List.of(book));
+        return book;
     }
 
+    /**
+     * Prefers the in-memory index when enabled, then the PostgreSQL full-text index,
+     * otherwise the ranked substring search.
+     */
+    @Timed("bookstore.books.search")
     public Page<Book> searchBooks(String keyword, Pageable pageable) {
-        return bookRepository.searchByTitleOrAuthor(keyword, pageable);
+        if (bookSearchIndex.isEnabled()) {
+            return findAllInOrder(bookSearchIndex.search(keyword, pageable));
+        }
+        if (databasePlatform.isPostgreSql()) {
+            String tsQuery = toPrefixTsQuery(keyword);
+            if (!tsQuery.isEmpty()) {
+                return findAllInOrder(bookRepository.searchIdsByFullText(tsQuery, pageable));
+            }
+        }
+        return withStockLevels(bookRepository.searchByKeyword(keyword, pageable));
+    }
+
+    public Slice<Book> sliceSearch(String keyword, Pageable pageable) {
+        if (bookSearchIndex.isEnabled()) {
+            return findAllInOrder(bookSearchIndex.search(keyword, pageable));
+        }
+        if (databasePlatform.isPostgreSql()) {
+            String tsQuery = toPrefixTsQuery(keyword);
+            if (!tsQuery.isEmpty()) {
+                return findAllInOrder(bookRepository.sliceIdsByFullText(tsQuery, pageable));
+            }
+        }
+        return withStockLevels(bookRepository.sliceByKeyword(keyword, pageable));
+    }
+
+    /**
+     * Exact for the in-memory index, a planner estimate for PostgreSQL full-text search, otherwise unknown.
+     */
+    public Optional<Long> estimateSearchMatches(String keyword) {
+        if (bookSearchIndex.isEnabled()) {
+            return Optional.of(bookSearchIndex.count(keyword));
+        }
+        String tsQuery = toPrefixTsQuery(keyword);
+        return tsQuery.isEmpty() ? Optional.empty() : bookRowEstimates.fullTextMatches(tsQuery);
     }
 
     public Page<Book> getBooksByCategory(Category category, Pageable pageable) {
-        return bookRepository.findByCategory(category, pageable);
+        return withStockLevels(bookRepository.findByCategory(category, pageable));
+    }
+
+    public Slice<Book> sliceBooksByCategory(Category category, Pageable pageable) {
+        return withStockLevels(bookRepository.findSliceByCategory(category, pageable));
     }
 
+    public Optional<Long> estimateBookCount(Category category) {
+        return bookRowEstimates.byCategory(category.getId());
+    }
+
+    /**
+     * Keyset page in {@code sort} order (plus id) starting after {@code position}; no count query is issued.
+     */
+    public Window<Book> scrollBooks(Sort sort, KeysetScrollPosition position, int size) {
+        return scroll(Specification.unrestricted(), sort, position, size);
+    }
+
+    public Window<Book> scrollBooksByCategory(Category category, Sort sort, KeysetScrollPosition position, int size) {
+        return scroll((root, query, cb) -> cb.equal(root.get("category"), category), sort, position, size);
+    }
+
+    /**
+     * Keyset variant of {@link #searchBooks}: same backends and relevance order, with the rank in the cursor.
+     */
+    public Window<Book> scrollSearch(String keyword, KeysetScrollPosition position, int size) {
+        if (bookSearchIndex.isEnabled()) {
+            return hydrateInOrder(bookSearchIndex.scroll(keyword, position, size));
+        }
+        boolean initial = position.isInitial();
+        if (databasePlatform.isPostgreSql()) {
+            String tsQuery = toPrefixTsQuery(keyword);
+            if (!tsQuery.isEmpty()) {
+                List<FullTextMatch> matches = bookRepository.scrollIdsByFullText(tsQuery,
+                        initial ? null : KeysetScroll.key(position, "rank", Float.class),
+                        initial ? null : KeysetScroll.key(position, "id", Long.class),
+                        Limit.of(size + 1));
+                return hydrateInOrder(KeysetScroll.window(matches, FULL_TEXT_ORDER, size).map(FullTextMatch::getId));
+            }
+        }
+        List<KeywordMatch> matches = bookRepository.scrollByKeyword(keyword,
+                initial ? null : KeysetScroll.key(position, "rank", Integer.class),
+                initial ? null : KeysetScroll.key(position, "title", String.class),
+                initial ? null : KeysetScroll.key(position, "id", Long.class),
+                Limit.of(size + 1));
+        return hydrateInOrder(KeysetScroll.window(matches, KEYWORD_ORDER, size).map(KeywordMatch::getId));
+    }
+
+    @Transactional
     public Book createBook(Book book) {
-        return bookRepository.save(book);
+        Book created = bookRepository.save(book);
+        if (created.getCategory() != null) {
+            categoryRepository.adjustBookCount(created.getCategory().getId(), 1);
+        }
+        bookSearchIndex.index(created);
+        catalogVersion.changed();
+        return created;
     }
 
+    /**
+     * For a sharded book the stock quantity being saved is spread over its shards; otherwise stock leased to checkout
+     * nodes counts towards it. Returns the book as re-read
+     * with its category, since the merged copy only holds an uninitialized category proxy.
+     */
+    @Transactional
     public Book updateBook(Book book) {
-        return bookRepository.save(book);
+        Long previousCategoryId = bookRepository.findCategoryIdById(book.getId()).orElse(null);
+        Long categoryId = book.getCategory() != null ? book.getCategory().getId() : null;
+        if (!Objects.equals(previousCategoryId, categoryId)) {
+            if (previousCategoryId != null) {
+                categoryRepository.adjustBookCount(previousCategoryId, -1);
+            }
+            if (categoryId != null) {
+                categoryRepository.adjustBookCount(categoryId, 1);
+            }
+        }
+        Book updated;
+        if (book.isStockSharded()) {
+            int stock = book.getStockQuantity();
+            book.setStockQuantity(0);
+            updated = bookRepository.save(book);
+            stockShardService.setStock(updated, stock);
+        } else {
+            book.setStockQuantity(Math.max(0, book.getStockQuantity() - book.getLeasedStock()));
+            updated = bookRepository.save(book);
+        }
+        bookSearchIndex.index(updated);
+        bookDetailsCache.evict(updated.getId());
+        return getBookById(updated.getId());
+    }
+
+    public Book setStockShards(Long id, int shards) {
+        stockShardService.setShards(id, shards);
+        return getBookById(id);
     }
 
+    @Transactional
     public void deleteBook(Long id) {
         Book book = bookRepository.findByIdWithCategory(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book", "id", id));
         bookRepository.delete(book);
+        if (book.getCategory() != null) {
+            categoryRepository.adjustBookCount(book.getCategory().getId(), -1);
+        }
+        bookSearchIndex.remove(id);
+        bookDetailsCache.evict(id);
     }
 
     public Book getBookEntity(Long id) {
         return getBookById(id);
     }
+
+    /**
+     * Turns free text into an AND of prefix terms ({@code "clean co"} becomes {@code "clean:* & co:*"}),
+     * so partial words keep matching the way the substring search did.
+     */
+    static String toPrefixTsQuery(String keyword) {
+        return Arrays.stream(NON_WORD_CHARACTERS.split(keyword.toLowerCase(Locale.ROOT)))
+                .filter(term -> !term.isEmpty())
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+
+    private Window<Book> scroll(Specification<Book> filter, Sort sort, KeysetScrollPosition position, int size) {
+        Sort keysetSort = KeysetScroll.withIdTieBreaker(sort);
+        List<Book> rows = bookRepository.findBy(filter.and(KeysetScroll.after(position, keysetSort)),
+                query -> query.sortBy(keysetSort).limit(size + 1).project("category").all());
+        return withStockLevels(KeysetScroll.window(rows, keysetSort, size));
+    }
+
+    /**
+     * Loads the books for a window of ids, keeping each id's order and cursor position.
+     */
+    private Window<Book> hydrateInOrder(Window<Long> ids) {
+        List<Book> books = new ArrayList<>(ids.size());
+        List<ScrollPosition> positions = new ArrayList<>(ids.size());
+        if (!ids.isEmpty()) {
+            Map<Long, Book> booksById = bookRepository.findByIdIn(ids.getContent()).stream()
+                    .collect(Collectors.toMap(Book::getId, Function.identity()));
+            for (int i = 0; i < ids.size(); i++) {
+                Book book = booksById.get(ids.getContent().get(i));
+                if (book != null) {
+                    books.add(book);
+                    positions.add(ids.positionAt(i));
+                }
+            }
+        }
+        bookStockLevels.load(books);
+        return Window.from(books, positions::get, ids.hasNext());
+    }
+
+    private Page<Book> findAllInOrder(Page<Long> ids) {
+        return new PageImpl<>(loadInOrder(ids.getContent()), ids.getPageable(), ids.getTotalElements());
+    }
+
+    private Slice<Book> findAllInOrder(Slice<Long> ids) {
+        return new SliceImpl<>(loadInOrder(ids.getContent()), ids.getPageable(), ids.hasNext());
+    }
+
+    private List<Book> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Book> booksById = bookRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        bookStockLevels.load(booksById.values());
+        return ids.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private <T extends Streamable<Book>> T withStockLevels(T books) {
+        bookStockLevels.load(books.toList());
+        return books;
+    }
 }
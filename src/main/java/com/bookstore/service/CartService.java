@@ -1,13 +1,19 @@
 package com.bookstore.service;
 
+import com.bookstore.config.DatabasePlatform;
 import com.bookstore.domain.CartSummary;
+import com.bookstore.domain.projection.CartLine;
 import com.bookstore.entity.Book;
 import com.bookstore.entity.CartItem;
+import com.bookstore.entity.OrderItem;
 import com.bookstore.entity.User;
+import com.bookstore.exception.BadRequestException;
 import com.bookstore.exception.ResourceNotFoundException;
+import com.bookstore.repository.BookStockLevels;
 import com.bookstore.repository.CartItemRepository;
 import com.bookstore.validation.OwnershipValidator;
 import com.bookstore.validation.StockValidator;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,17 +26,23 @@ public class CartService {
 
     private final CartItemRepository cartItemRepository;
     private final BookService bookService;
+    private final BookStockLevels bookStockLevels;
     private final StockValidator stockValidator;
     private final OwnershipValidator ownershipValidator;
+    private final DatabasePlatform databasePlatform;
 
     public CartService(CartItemRepository cartItemRepository,
             BookService bookService,
+            BookStockLevels bookStockLevels,
             StockValidator stockValidator,
-            OwnershipValidator ownershipValidator) {
+            OwnershipValidator ownershipValidator,
+            DatabasePlatform databasePlatform) {
         this.cartItemRepository = cartItemRepository;
         this.bookService = bookService;
+        this.bookStockLevels = bookStockLevels;
         this.stockValidator = stockValidator;
         this.ownershipValidator = ownershipValidator;
+        this.databasePlatform = databasePlatform;
     }
 
     public CartSummary getCart(User user) {
@@ -47,8 +59,18 @@ public class CartService {
         return new CartSummary(cartItems, totalItems, totalAmount);
     }
 
+    /**
+     * On PostgreSQL a single upsert statement adds to the line and checks stock; the book and cart line are only
+     * read again to explain a rejection.
+     */
+    @Timed("bookstore.cart.add")
     @Transactional
     public CartItem addToCart(User user, Long bookId, int quantity) {
+        if (databasePlatform.isPostgreSql()) {
+            return cartItemRepository.upsertLine(user.getId(), bookId, quantity)
+                    .map(line -> toCartItem(user, line))
+                    .orElseThrow(() -> rejectedAddition(user, bookId, quantity));
+        }
         Book book = bookService.getBookEntity(bookId);
 
         stockValidator.validateAvailableStock(book, quantity);
@@ -72,6 +94,33 @@ public class CartService {
         return cartItemRepository.save(cartItem);
     }
 
+    private static CartItem toCartItem(User user, CartLine line) {
+        Book book = Book.builder()
+                .title(line.getTitle())
+                .author(line.getAuthor())
+                .price(line.getPrice())
+                .build();
+        book.setId(line.getBookId());
+        CartItem cartItem = CartItem.builder()
+                .user(user)
+                .book(book)
+                .quantity(line.getQuantity())
+                .build();
+        cartItem.setId(line.getId());
+        return cartItem;
+    }
+
+    private RuntimeException rejectedAddition(User user, Long bookId, int quantity) {
+        Book book = bookService.getBookEntity(bookId);
+        stockValidator.validateAvailableStock(book, quantity);
+        int inCart = cartItemRepository.findByUserIdAndBookId(user.getId(), bookId)
+                .map(CartItem::getQuantity)
+                .orElse(0);
+        stockValidator.validateTotalQuantity(book, inCart + quantity);
+        // stock changed between the upsert and these reads
+        return new BadRequestException("Not enough stock available. Available: " + book.getAvailableStock());
+    }
+
     @Transactional
     public CartItem updateCartItem(User user, Long cartItemId, int quantity) {
         CartItem cartItem = cartItemRepository.findById(cartItemId)
@@ -79,6 +128,7 @@ public class CartService {
 
         ownershipValidator.validateCartItemOwnership(user, cartItem);
 
+        bookStockLevels.load(List.of(cartItem.getBook()));
         stockValidator.validateTotalQuantity(cartItem.getBook(), quantity);
 
         cartItem.setQuantity(quantity);
@@ -100,6 +150,21 @@ public class CartService {
         cartItemRepository.deleteByUserId(user.getId());
     }
 
+    /**
+     * Puts the lines of an order that did not go through back into the cart, adding to lines already there.
+     * Stock is not checked; it is again at checkout.
+     */
+    @Transactional
+    public void restoreItems(User user, List<OrderItem> orderItems) {
+        for (OrderItem orderItem : orderItems) {
+            Book book = orderItem.getBook();
+            CartItem cartItem = cartItemRepository.findByUserIdAndBookId(user.getId(), book.getId())
+                    .orElseGet(() -> CartItem.builder().user(user).book(book).quantity(0).build());
+            cartItem.setQuantity(cartItem.getQuantity() + orderItem.getQuantity());
+            cartItemRepository.save(cartItem);
+        }
+    }
+
     public List<CartItem> getCartItems(User user) {
         return cartItemRepository.findByUserId(user.getId());
     }
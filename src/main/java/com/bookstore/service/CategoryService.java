@@ -1,24 +1,39 @@
 package com.bookstore.service;
 
+import com.bookstore.cache.BookDetailsCache;
+import com.bookstore.cache.CatalogVersion;
 import com.bookstore.entity.Category;
 import com.bookstore.exception.BadRequestException;
 import com.bookstore.exception.ResourceNotFoundException;
 import com.bookstore.domain.projection.CategoryWithCount;
 import com.bookstore.repository.BookRepository;
 import com.bookstore.repository.CategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Service
 public class CategoryService {
 
+    private static final Logger log = LoggerFactory.getLogger(CategoryService.class);
+
     private final CategoryRepository categoryRepository;
     private final BookRepository bookRepository;
+    private final BookDetailsCache bookDetailsCache;
+    private final CatalogVersion catalogVersion;
 
-    public CategoryService(CategoryRepository categoryRepository, BookRepository bookRepository) {
+    public CategoryService(CategoryRepository categoryRepository,
+            BookRepository bookRepository,
+            BookDetailsCache bookDetailsCache,
+            CatalogVersion catalogVersion) {
         this.categoryRepository = categoryRepository;
         this.bookRepository = bookRepository;
+        this.bookDetailsCache = bookDetailsCache;
+        this.catalogVersion = catalogVersion;
     }
 
     public List<Category> getAllCategories() {
@@ -26,7 +41,7 @@ public class CategoryService {
     }
 
     /**
-     * Returns categories with book count without loading the books collection (avoids N+1).
+     * Returns categories with their materialized book count, without counting or loading books.
      */
     public List<CategoryWithCount> getAllCategoriesWithBookCount() {
         return categoryRepository.findAllWithBookCount();
@@ -38,7 +53,7 @@ public class CategoryService {
     }
 
     /**
-     * Returns category with book count by id without loading the books collection.
+     * Returns category with its materialized book count by id.
      */
     public CategoryWithCount getCategoryWithBookCountById(Long id) {
         return categoryRepository.findByIdWithBookCount(id)
@@ -50,7 +65,9 @@ public class CategoryService {
             throw new BadRequestException("Category with name '" + category.getName() + "' already exists");
         }
 
-        return categoryRepository.save(category);
+        Category created = categoryRepository.save(category);
+        catalogVersion.changed();
+        return created;
     }
 
     public Category updateCategory(Long id, Category updates) {
@@ -65,7 +82,10 @@ public class CategoryService {
         category.setName(updates.getName());
         category.setDescription(updates.getDescription());
 
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        // Cached book snapshots embed the category name
+        bookDetailsCache.evictAll(bookRepository.findIdsByCategoryId(id));
+        return saved;
     }
 
     public void deleteCategory(Long id) {
@@ -75,6 +95,21 @@ public class CategoryService {
             throw new BadRequestException("Category cannot be deleted while it contains books");
         }
         categoryRepository.delete(category);
+        catalogVersion.changed();
     }
 
+    /**
+     * Recounts the books of categories whose count drifted, for example after books were changed outside
+     * {@link BookService} or by racing category changes of the same book.
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.book-count-reconcile-interval:PT1H}",
+            initialDelayString = "${app.catalog.book-count-reconcile-interval:PT1H}")
+    @Transactional
+    public void reconcileBookCounts() {
+        int corrected = categoryRepository.reconcileBookCounts();
+        if (corrected > 0) {
+            log.warn("Corrected the book count of {} categories", corrected);
+            catalogVersion.changed();
+        }
+    }
 }
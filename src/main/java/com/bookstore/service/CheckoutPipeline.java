@@ -0,0 +1,213 @@
+package com.bookstore.service;
+
+import com.bookstore.config.CheckoutProperties;
+import com.bookstore.entity.Order;
+import com.bookstore.entity.OrderStatus;
+import com.bookstore.entity.User;
+import com.bookstore.exception.BadRequestException;
+import com.bookstore.exception.ServiceUnavailableException;
+import com.bookstore.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Asynchronous checkout: the request only turns the cart into a {@code PENDING} order and queues its id; a small
+ * pool of workers reserves stock and moves each order to {@code CONFIRMED} or {@code CANCELLED}. Workers drain the
+ * queue in batches, but every order commits on its own, so one short order never cancels another.
+ * <p>
+ * The queue is bounded and per node; when it is full new checkouts are refused with 503 before any order is written.
+ * Orders still pending when a node stops are queued again on the next startup of any node; settling an order is a
+ * conditional status update, so an order picked up twice is only settled once. A cancelled order's lines go back
+ * into the cart, which placing it emptied.
+ */
+@Component
+public class CheckoutPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutPipeline.class);
+
+    /** Orders whose status one poll query reads at most. */
+    private static final int POLL_BATCH_SIZE = 500;
+
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final int workers;
+    private final int batchSize;
+    private final boolean virtualThreads;
+    private final Duration pollInterval;
+    private final BlockingQueue<Long> queue;
+    private final Map<Long, CompletableFuture<Void>> settled = new ConcurrentHashMap<>();
+    /** Waiters on orders this node is not settling; lists are only touched inside the map's atomic updates. */
+    private final Map<Long, List<CompletableFuture<Void>>> polled = new ConcurrentHashMap<>();
+    private final AtomicBoolean pollQueued = new AtomicBoolean();
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("checkout-poll").daemon().factory());
+    private ExecutorService executor;
+
+    public CheckoutPipeline(OrderService orderService, OrderRepository orderRepository, CheckoutProperties properties,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (properties.getQueueCapacity() < 1 || properties.getWorkers() < 1 || properties.getBatchSize() < 1) {
+            throw new IllegalArgumentException("queueCapacity, workers and batchSize must be positive");
+        }
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.workers = properties.getWorkers();
+        this.batchSize = properties.getBatchSize();
+        this.virtualThreads = virtualThreads;
+        this.pollInterval = properties.getPollInterval();
+        this.queue = new LinkedBlockingQueue<>(properties.getQueueCapacity());
+        poller.scheduleWithFixedDelay(this::poll, pollInterval.toMillis(), pollInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // the worker count bounds concurrent confirmations either way; virtual workers just hold no platform thread
+        executor = Executors.newFixedThreadPool(workers, virtualThreads
+                ? Thread.ofVirtual().name("checkout-", 1).factory()
+                : Thread.ofPlatform().name("checkout-", 1).daemon().factory());
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::work);
+        }
+        List<Long> pending = orderRepository.findIdsByStatus(OrderStatus.PENDING);
+        int requeued = 0;
+        for (Long orderId : pending) {
+            settled.putIfAbsent(orderId, new CompletableFuture<>());
+            if (queue.offer(orderId)) {
+                requeued++;
+            } else {
+                settled.remove(orderId); // waiters poll it instead
+            }
+        }
+        if (!pending.isEmpty()) {
+            log.info("Queued {} of {} pending orders left from a previous run", requeued, pending.size());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        poller.shutdownNow();
+    }
+
+    /**
+     * Places a pending order for the user's cart and queues it for confirmation.
+     *
+     * @throws ServiceUnavailableException when the queue is full
+     */
+    public Order submit(User user, String shippingAddress) {
+        if (queue.remainingCapacity() == 0) {
+            throw new ServiceUnavailableException("Too many checkouts in progress, please retry shortly");
+        }
+        Order order = orderService.placePendingOrder(user, shippingAddress);
+        settled.put(order.getId(), new CompletableFuture<>());
+        if (!queue.offer(order.getId())) {
+            settle(order.getId()); // filled up since the check; confirm in the caller's thread rather than refuse
+        }
+        return order;
+    }
+
+    /**
+     * Completes once the order is settled, or after {@code timeout}, whichever is first. Orders this node is not
+     * settling, because another node queued them or they are already settled, are re-read every poll interval,
+     * starting at once, with one query for all of them.
+     */
+    public CompletableFuture<Void> awaitSettled(Long orderId, Duration timeout) {
+        // a registered future is always completed by settle(); a missing one may mean it already ran
+        CompletableFuture<Void> local = settled.get(orderId);
+        CompletableFuture<Void> future = (local != null ? local.copy() : new CompletableFuture<Void>())
+                .completeOnTimeout(null, timeout.toMillis(), TimeUnit.MILLISECONDS);
+        if (local == null) {
+            polled.compute(orderId, (id, waiters) -> {
+                List<CompletableFuture<Void>> list = waiters != null ? waiters : new ArrayList<>();
+                list.add(future);
+                return list;
+            });
+            if (pollQueued.compareAndSet(false, true)) {
+                poller.execute(this::poll); // waiters arriving before it runs share its query
+            }
+        }
+        return future;
+    }
+
+    private void poll() {
+        pollQueued.set(false);
+        for (Long orderId : List.copyOf(polled.keySet())) {
+            polled.computeIfPresent(orderId, (id, waiters) -> {
+                waiters.removeIf(CompletableFuture::isDone); // timed out
+                return waiters.isEmpty() ? null : waiters;
+            });
+        }
+        List<Long> orderIds = List.copyOf(polled.keySet());
+        for (int from = 0; from < orderIds.size(); from += POLL_BATCH_SIZE) {
+            List<Long> batch = orderIds.subList(from, Math.min(from + POLL_BATCH_SIZE, orderIds.size()));
+            try {
+                Set<Long> pending = new HashSet<>(orderRepository.findIdsByStatusAndIdIn(OrderStatus.PENDING, batch));
+                for (Long orderId : batch) {
+                    List<CompletableFuture<Void>> waiters = pending.contains(orderId) ? null : polled.remove(orderId);
+                    if (waiters != null) {
+                        waiters.forEach(future -> future.complete(null));
+                    }
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Could not read the status of {} orders", batch.size(), ex);
+            }
+        }
+    }
+
+    private void work() {
+        List<Long> batch = new ArrayList<>(batchSize);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                batch.forEach(this::settle);
+                batch.clear();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void settle(Long orderId) {
+        try {
+            orderService.confirmPendingOrder(orderId);
+        } catch (BadRequestException ex) {
+            orderService.cancelPendingOrder(orderId, ex.getMessage());
+        } catch (RuntimeException ex) {
+            log.error("Checkout of order {} failed", orderId, ex);
+            try {
+                orderService.cancelPendingOrder(orderId, "Checkout could not be completed");
+            } catch (RuntimeException cancelFailure) {
+                log.error("Order {} left pending", orderId, cancelFailure); // queued again on the next startup
+            }
+        } finally {
+            CompletableFuture<Void> future = settled.remove(orderId);
+            if (future != null) {
+                future.complete(null);
+            }
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.bookstore.service;
+
+import com.bookstore.cache.BookDetailsCache;
+import com.bookstore.config.InventoryLedgerProperties;
+import com.bookstore.repository.InventoryLeases;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Optional in-memory stock reservation for unsharded books, so checkouts stop taking a {@code books} row lock.
+ * <p>
+ * Each node leases stock from {@code stock_quantity} in batches ({@link InventoryLeases#claim}) and reserves against
+ * its local lease with a compare-and-set. Every {@link #sync()} tops up active leases running low, so a checkout only
+ * touches the database when a lease runs short before that; it then claims in its own transaction, on the connection
+ * it already holds, and the spare stock joins the lease once it commits. Leases are recorded in
+ * {@code inventory_leases} and written back on every sync, which also hands idle leases back to the book. Stock is never leased twice, so the limit holds across replicas; near sell-out a checkout may
+ * be refused while other nodes still hold the last units, until their leases go idle. On startup the node returns
+ * whatever it left leased after a crash, less what orders record it sold from those leases since its last sync. {@code node-id} must be unique
+ * per replica and stable across its restarts.
+ */
+@Component
+public class InventoryLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryLedger.class);
+
+    /** Leases untouched for this many sync intervals are returned to the book's stock. */
+    private static final int IDLE_SYNC_INTERVALS = 5;
+
+    private final InventoryLeases inventoryLeases;
+    private final BookDetailsCache bookDetailsCache;
+    private final boolean enabled;
+    private final String nodeId;
+    private final int leaseSize;
+    private final long idleMillis;
+    private final Map<Long, Lease> leases = new ConcurrentHashMap<>();
+
+    public InventoryLedger(InventoryLeases inventoryLeases, BookDetailsCache bookDetailsCache,
+            InventoryLedgerProperties properties) {
+        if (properties.getLeaseSize() < 1) {
+            throw new IllegalArgumentException("leaseSize must be positive");
+        }
+        this.inventoryLeases = inventoryLeases;
+        this.bookDetailsCache = bookDetailsCache;
+        this.enabled = properties.isEnabled();
+        this.nodeId = properties.getNodeId();
+        this.leaseSize = properties.getLeaseSize();
+        this.idleMillis = IDLE_SYNC_INTERVALS * properties.getSyncInterval().toMillis();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            int returned = inventoryLeases.recover(nodeId);
+            if (returned > 0) {
+                log.info("Returned {} units of stock leased before node {} stopped", returned, nodeId);
+            }
+        }
+    }
+
+    /**
+     * Reserves {@code quantity} of the book from this node's lease. When the lease runs short the stock is claimed in
+     * the caller's transaction, which keeps the book row locked until it ends, and what is left over joins the lease
+     * once it commits. If that transaction does not commit, whatever was taken from the lease goes back to it.
+     *
+     * @return whether the book had enough stock
+     */
+    public boolean reserve(long bookId, int quantity) {
+        Lease lease = currentLease(bookId);
+        lease.lastUsedMillis = System.currentTimeMillis();
+        if (lease.take(quantity)) {
+            afterCompletion(committed -> {
+                if (!committed) {
+                    give(bookId, lease, quantity);
+                }
+            });
+            return true;
+        }
+
+        int granted = inventoryLeases.claim(nodeId, bookId, Math.max(leaseSize, quantity));
+        int fromLease = Math.max(0, quantity - granted);
+        if (fromLease > 0 && !lease.take(fromLease)) {
+            afterCompletion(committed -> {
+                if (committed) {
+                    give(bookId, lease, granted);
+                }
+            });
+            return false;
+        }
+        int spare = granted - (quantity - fromLease);
+        afterCompletion(committed -> give(bookId, lease, committed ? spare : fromLease));
+        return true;
+    }
+
+    private Lease currentLease(long bookId) {
+        while (true) {
+            Lease lease = leases.computeIfAbsent(bookId, id -> new Lease());
+            if (!lease.isRetired()) {
+                return lease;
+            }
+        }
+    }
+
+    /**
+     * Adds stock to the lease, or to the book's current lease if sync has retired this one meanwhile.
+     */
+    private void give(long bookId, Lease lease, int quantity) {
+        while (!lease.give(quantity)) {
+            lease = currentLease(bookId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.ledger.sync-interval:PT1S}")
+    public void sync() {
+        if (enabled) {
+            sync(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Writes changed leases behind in one transaction and returns idle ones to their books, forgetting them.
+     * Written-back leases change the stock books show, so their cached snapshots are evicted.
+     */
+    void sync(long nowMillis) {
+        LocalDateTime syncedAt = LocalDateTime.now();
+        List<InventoryLeases.Remainder> remainders = new ArrayList<>();
+        List<InventoryLeases.Remainder> releases = new ArrayList<>();
+        List<Long> runningLow = new ArrayList<>();
+        leases.forEach((bookId, lease) -> {
+            // cleared first, so a reservation made while this snapshot is taken is written on the next sync
+            boolean changed = lease.changed;
+            lease.changed = false;
+            if (nowMillis - lease.lastUsedMillis >= idleMillis) {
+                int unused = lease.retire();
+                leases.remove(bookId, lease);
+                if (unused > 0 || changed) {
+                    releases.add(new InventoryLeases.Remainder(bookId, unused));
+                }
+                return;
+            }
+            if (changed) {
+                remainders.add(new InventoryLeases.Remainder(bookId, lease.tokens.get()));
+            }
+            if (lease.tokens.get() < (leaseSize + 1) / 2) {
+                runningLow.add(bookId);
+            }
+        });
+        try {
+            inventoryLeases.sync(nodeId, remainders, releases, syncedAt);
+            if (!remainders.isEmpty()) {
+                bookDetailsCache.evictAll(remainders.stream().map(InventoryLeases.Remainder::bookId).toList());
+            }
+        } catch (DataAccessException ex) {
+            releases.forEach(release -> {
+                Lease lease = currentLease(release.bookId());
+                lease.give(release.quantity());
+                lease.changed = true;
+            });
+            remainders.forEach(remainder -> currentLease(remainder.bookId()).changed = true);
+            log.warn("Inventory ledger sync failed: {}", ex.getMessage());
+            return;
+        }
+        topUp(runningLow);
+    }
+
+    /**
+     * Claims a lease's worth of stock for each book, each in its own short transaction, ahead of the checkouts
+     * that would otherwise claim it.
+     */
+    private void topUp(List<Long> bookIds) {
+        for (Long bookId : bookIds) {
+            try {
+                give(bookId, currentLease(bookId), inventoryLeases.claim(nodeId, bookId, leaseSize));
+            } catch (DataAccessException ex) {
+                log.warn("Inventory lease top-up failed: {}", ex.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Runs {@code action} with whether the current transaction committed once it ends, or right away (as committed)
+     * outside one.
+     */
+    private static void afterCompletion(Consumer<Boolean> action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.accept(status == STATUS_COMMITTED);
+                }
+            });
+        } else {
+            action.accept(true);
+        }
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        if (!enabled) {
+            return;
+        }
+        List<InventoryLeases.Remainder> releases = new ArrayList<>();
+        leases.forEach((bookId, lease) -> {
+            int unused = lease.retire();
+            if (unused > 0) {
+                releases.add(new InventoryLeases.Remainder(bookId, unused));
+            }
+        });
+        inventoryLeases.releaseAll(nodeId, releases);
+    }
+
+    private static final class Lease {
+
+        /** Balance of a lease sync has handed back; below any real one, so it can neither be taken from nor given to. */
+        private static final int RETIRED = Integer.MIN_VALUE / 2;
+
+        final AtomicInteger tokens = new AtomicInteger();
+        volatile boolean changed;
+        volatile long lastUsedMillis;
+
+        boolean take(int quantity) {
+            while (true) {
+                int available = tokens.get();
+                if (available < quantity) {
+                    return false;
+                }
+                if (tokens.compareAndSet(available, available - quantity)) {
+                    changed = true;
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * @return false, adding nothing, once the lease is retired
+         */
+        boolean give(int quantity) {
+            if (quantity <= 0) {
+                return !isRetired();
+            }
+            while (true) {
+                int available = tokens.get();
+                if (available < 0) {
+                    return false;
+                }
+                if (tokens.compareAndSet(available, available + quantity)) {
+                    changed = true;
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Empties the lease for good; returns what was left in it.
+         */
+        int retire() {
+            return tokens.getAndSet(RETIRED);
+        }
+
+        boolean isRetired() {
+            return tokens.get() < 0;
+        }
+    }
+}
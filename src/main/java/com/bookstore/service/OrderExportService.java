@@ -0,0 +1,120 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.OrderExportDTO;
+import com.bookstore.entity.Order;
+import com.bookstore.mapper.OrderMapper;
+import com.bookstore.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every order, with its items, straight to an output stream for reconciliation. Orders are read from a
+ * database cursor and cleared from the persistence context once written, so memory stays flat however many
+ * orders there are.
+ */
+@Service
+public class OrderExportService {
+
+    private static final String CSV_HEADER =
+            "order_id,user_id,status,status_reason,total_amount,created_at,updated_at,item_id,book_id,quantity,price_at_purchase";
+
+    private final OrderRepository orderRepository;
+    private final OrderMapper orderMapper;
+    private final EntityManager entityManager;
+    private final ObjectWriter jsonWriter;
+
+    public OrderExportService(OrderRepository orderRepository,
+            OrderMapper orderMapper,
+            EntityManager entityManager,
+            JsonMapper jsonMapper) {
+        this.orderRepository = orderRepository;
+        this.orderMapper = orderMapper;
+        this.entityManager = entityManager;
+        this.jsonWriter = jsonMapper.writerFor(OrderExportDTO.class);
+    }
+
+    /**
+     * One JSON object per order and line.
+     *
+     * @return the number of orders written
+     */
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream out) {
+        try {
+            return export(order -> {
+                out.write(jsonWriter.writeValueAsBytes(order));
+                out.write('\n');
+            });
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * One row per order item, the order's columns repeated on each; an order without items gets one row with
+     * empty item columns.
+     *
+     * @return the number of orders written
+     */
+    @Transactional(readOnly = true)
+    public long exportCsv(OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            writer.write(CSV_HEADER + "\n");
+            long written = export(order -> {
+                String orderColumns = String.join(",", String.valueOf(order.getId()),
+                        String.valueOf(order.getUserId()), order.getStatus(), csv(order.getStatusReason()),
+                        order.getTotalAmount().toPlainString(), String.valueOf(order.getCreatedAt()),
+                        String.valueOf(order.getUpdatedAt()));
+                if (order.getItems().isEmpty()) {
+                    writer.write(orderColumns + ",,,,\n");
+                }
+                for (OrderExportDTO.Item item : order.getItems()) {
+                    writer.write(orderColumns + "," + item.getId() + "," + item.getBookId() + ","
+                            + item.getQuantity() + "," + item.getPriceAtPurchase().toPlainString() + "\n");
+                }
+            });
+            writer.flush();
+            return written;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private long export(LineWriter lineWriter) throws IOException {
+        long written = 0;
+        try (Stream<Order> orders = orderRepository.streamAllWithOrderItems()) {
+            for (Iterator<Order> it = orders.iterator(); it.hasNext(); written++) {
+                lineWriter.write(orderMapper.toExportDTO(it.next()));
+                // detaching the order would leave the user and book proxies it references behind
+                entityManager.clear();
+            }
+        }
+        return written;
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.matches("(?s).*[\",\\r\\n].*") ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+
+    @FunctionalInterface
+    private interface LineWriter {
+        void write(OrderExportDTO order) throws IOException;
+    }
+}
@@ -1,40 +1,174 @@
 package com.bookstore.service;
 
+import com.bookstore.cache.BookDetailsCache;
+import com.bookstore.config.DatabasePlatform;
+import com.bookstore.domain.projection.OrderSummary;
 import com.bookstore.entity.*;
 import com.bookstore.exception.BadRequestException;
 import com.bookstore.exception.ResourceNotFoundException;
+import com.bookstore.pagination.KeysetScroll;
 import com.bookstore.repository.BookRepository;
 import com.bookstore.repository.OrderRepository;
 import com.bookstore.validation.OwnershipValidator;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
 
+    private static final Sort HISTORY_ORDER = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+
     private final OrderRepository orderRepository;
     private final CartService cartService;
     private final BookRepository bookRepository;
     private final OwnershipValidator ownershipValidator;
+    private final BookDetailsCache bookDetailsCache;
+    private final DatabasePlatform databasePlatform;
+    private final StockShardService stockShardService;
+    private final InventoryLedger inventoryLedger;
+    private final Counter checkoutsSucceeded;
+    private final Counter checkoutsWithEmptyCart;
+    private final Counter checkoutsOutOfStock;
 
     public OrderService(OrderRepository orderRepository,
             CartService cartService,
             BookRepository bookRepository,
-            OwnershipValidator ownershipValidator) {
+            OwnershipValidator ownershipValidator,
+            BookDetailsCache bookDetailsCache,
+            DatabasePlatform databasePlatform,
+            StockShardService stockShardService,
+            InventoryLedger inventoryLedger,
+            MeterRegistry meterRegistry) {
         this.orderRepository = orderRepository;
         this.cartService = cartService;
         this.bookRepository = bookRepository;
         this.ownershipValidator = ownershipValidator;
+        this.bookDetailsCache = bookDetailsCache;
+        this.databasePlatform = databasePlatform;
+        this.stockShardService = stockShardService;
+        this.inventoryLedger = inventoryLedger;
+        this.checkoutsSucceeded = checkoutOutcome(meterRegistry, "success");
+        this.checkoutsWithEmptyCart = checkoutOutcome(meterRegistry, "empty_cart");
+        this.checkoutsOutOfStock = checkoutOutcome(meterRegistry, "out_of_stock");
+    }
+
+    private static Counter checkoutOutcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("bookstore.checkout.outcomes")
+                .description("Checkouts by outcome, synchronous and asynchronous alike")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 
+    @Timed("bookstore.checkout")
     @Transactional
     public Order checkout(User user, String shippingAddress) {
+        Order order = newOrder(user, shippingAddress, OrderStatus.CONFIRMED);
+        if (reserveStock(order.getOrderItems())) {
+            order.setStockNode(inventoryLedger.getNodeId());
+            order.setStockReservedAt(LocalDateTime.now());
+        }
+        Order savedOrder = orderRepository.save(order);
+
+        // Clear the cart
+        cartService.clearCart(user);
+
+        countSuccessAfterCommit();
+        return savedOrder;
+    }
+
+    /**
+     * First half of an asynchronous checkout: turns the cart into a {@code PENDING} order without touching stock.
+     * The cart is emptied now so it can be filled again while the order waits; cancelling the order restores it.
+     */
+    @Transactional
+    public Order placePendingOrder(User user, String shippingAddress) {
+        Order order = orderRepository.save(newOrder(user, shippingAddress, OrderStatus.PENDING));
+        cartService.clearCart(user);
+        return order;
+    }
+
+    /**
+     * Second half: reserves stock for a pending order and confirms it. An order another worker already settled is
+     * left alone and nothing is reserved for it.
+     *
+     * @return whether this call confirmed the order
+     * @throws BadRequestException when a book is short of stock; nothing is reserved then
+     */
+    @Transactional
+    public boolean confirmPendingOrder(Long orderId) {
+        Order order = orderRepository.findByIdWithOrderItemsAndBook(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        if (order.getStatus() != OrderStatus.PENDING) {
+            return false;
+        }
+        boolean fromLedger = reserveStock(order.getOrderItems());
+        LocalDateTime now = LocalDateTime.now();
+        if (orderRepository.confirm(orderId, fromLedger ? inventoryLedger.getNodeId() : null,
+                fromLedger ? now : null, now) == 0) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return false;
+        }
+        countSuccessAfterCommit();
+        return true;
+    }
+
+    /**
+     * Cancels a pending order and puts its lines back into the owner's cart.
+     */
+    @Transactional
+    public boolean cancelPendingOrder(Long orderId, String reason) {
+        if (orderRepository.transition(orderId, OrderStatus.PENDING, OrderStatus.CANCELLED, reason,
+                LocalDateTime.now()) == 0) {
+            return false;
+        }
+        orderRepository.findByIdWithOrderItemsAndBook(orderId)
+                .ifPresent(order -> cartService.restoreItems(order.getUser(), order.getOrderItems()));
+        return true;
+    }
+
+    /**
+     * A checkout only succeeded once its transaction commits; a failed commit must not count.
+     */
+    private void countSuccessAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    checkoutsSucceeded.increment();
+                }
+            });
+        } else {
+            checkoutsSucceeded.increment();
+        }
+    }
+
+    private Order newOrder(User user, String shippingAddress, OrderStatus status) {
         List<CartItem> cartItems = cartService.getCartItems(user);
 
         if (cartItems.isEmpty()) {
+            checkoutsWithEmptyCart.increment();
             throw new BadRequestException("Cart is empty");
         }
 
@@ -42,12 +176,12 @@ public class OrderService {
         Order order = Order.builder()
                 .user(user)
                 .shippingAddress(shippingAddress)
-                .status(OrderStatus.CONFIRMED)
+                .status(status)
                 .build();
 
         BigDecimal totalAmount = BigDecimal.ZERO;
 
-        // Create order items and update stock
+        // Create order items
         for (CartItem cartItem : cartItems) {
             Book book = cartItem.getBook();
 
@@ -60,24 +194,64 @@ public class OrderService {
             order.addOrderItem(orderItem);
 
             totalAmount = totalAmount.add(orderItem.getSubtotal());
-
-            decrementStock(book, cartItem.getQuantity());
         }
 
         order.setTotalAmount(totalAmount);
-        Order savedOrder = orderRepository.save(order);
+        return order;
+    }
 
-        // Clear the cart
-        cartService.clearCart(user);
+    /**
+     * Decrements stock for every line, locking books in id order so overlapping checkouts cannot deadlock.
+     * With the inventory ledger enabled lines are reserved from this node's leases instead, without a row lock.
+     * PostgreSQL does it in one statement; elsewhere each line is one conditional UPDATE.
+     * Sharded books are taken from their stock shards afterwards, also in id order.
+     *
+     * @return whether any line was reserved from the inventory ledger, which the order must then record
+     */
+    private boolean reserveStock(List<OrderItem> orderItems) {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        SortedMap<Long, Integer> shardedQuantities = new TreeMap<>();
+        Map<Long, Book> books = new HashMap<>();
+        for (OrderItem orderItem : orderItems) {
+            Book book = orderItem.getBook();
+            (book.isStockSharded() ? shardedQuantities : quantities)
+                    .merge(book.getId(), orderItem.getQuantity(), Integer::sum);
+            books.put(book.getId(), book);
+        }
 
-        return savedOrder;
-    }
+        SortedSet<Long> shortBookIds = new TreeSet<>();
+        if (inventoryLedger.isEnabled()) {
+            quantities.forEach((bookId, quantity) -> {
+                if (!inventoryLedger.reserve(bookId, quantity)) {
+                    shortBookIds.add(bookId);
+                }
+            });
+        } else if (!quantities.isEmpty() && databasePlatform.isPostgreSql()) {
+            shortBookIds.addAll(bookRepository.reserveStock(
+                    quantities.keySet().toArray(Long[]::new),
+                    quantities.values().toArray(Integer[]::new)));
+        } else {
+            quantities.forEach((bookId, quantity) -> {
+                if (bookRepository.decrementStockIfAvailable(bookId, quantity) == 0) {
+                    shortBookIds.add(bookId);
+                }
+            });
+        }
+        shardedQuantities.forEach((bookId, quantity) -> {
+            if (!stockShardService.take(books.get(bookId), quantity)) {
+                shortBookIds.add(bookId);
+            }
+        });
 
-    private void decrementStock(Book book, int quantity) {
-        int updatedRows = bookRepository.decrementStockIfAvailable(book.getId(), quantity);
-        if (updatedRows == 0) {
-            throw new BadRequestException("Not enough stock available for book: " + book.getTitle());
+        if (!shortBookIds.isEmpty()) {
+            checkoutsOutOfStock.increment();
+            List<String> shortTitles = shortBookIds.stream().map(bookId -> books.get(bookId).getTitle()).toList();
+            throw new BadRequestException(shortTitles.size() == 1
+                    ? "Not enough stock available for book: " + shortTitles.get(0)
+                    : "Not enough stock available for books: " + String.join(", ", shortTitles));
         }
+        books.keySet().forEach(bookDetailsCache::evict);
+        return inventoryLedger.isEnabled() && !quantities.isEmpty();
     }
 
     public List<Order> getUserOrders(User user) {
@@ -86,6 +260,31 @@ public class OrderService {
                 .toList();
     }
 
+    /**
+     * One page of the user's order history, newest first, keyset-paginated on {@code (createdAt, id)}.
+     */
+    public Window<OrderSummary> scrollUserOrders(User user, KeysetScrollPosition position, int size) {
+        List<OrderSummary> rows = position.isInitial()
+                ? orderRepository.findSummariesByUserId(user.getId(), Limit.of(size + 1))
+                : orderRepository.findSummariesByUserIdAfter(user.getId(),
+                        KeysetScroll.key(position, "createdAt", LocalDateTime.class),
+                        KeysetScroll.key(position, "id", Long.class),
+                        Limit.of(size + 1));
+        return KeysetScroll.window(rows, HISTORY_ORDER, size);
+    }
+
+    /**
+     * Same page as {@link #scrollUserOrders} with the orders' items, loaded for the whole page in one query.
+     */
+    public Window<Order> scrollUserOrdersWithItems(User user, KeysetScrollPosition position, int size) {
+        Window<OrderSummary> page = scrollUserOrders(user, position, size);
+        Map<Long, Order> orders = page.isEmpty() ? Map.of()
+                : orderRepository.findWithOrderItemsAndBookByIdIn(page.map(OrderSummary::getId).getContent())
+                        .stream()
+                        .collect(Collectors.toMap(Order::getId, Function.identity()));
+        return page.map(summary -> orders.get(summary.getId()));
+    }
+
     public Order getOrderById(User user, Long orderId) {
         Order order = orderRepository.findByIdWithOrderItemsAndBook(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
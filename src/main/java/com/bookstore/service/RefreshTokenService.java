@@ -39,6 +39,11 @@ public class RefreshTokenService {
         return refreshTokenRepository.save(refreshToken);
     }
 
+    @Transactional
+    public void deleteForUser(User user) {
+        refreshTokenRepository.deleteByUserId(user.getId());
+    }
+
     @Transactional
     public RefreshToken rotate(String rawToken) {
         RefreshToken existing = refreshTokenRepository.findByTokenAndRevokedFalse(rawToken)
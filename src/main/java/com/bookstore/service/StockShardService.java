@@ -0,0 +1,121 @@
+package com.bookstore.service;
+
+import com.bookstore.cache.BookDetailsCache;
+import com.bookstore.entity.Book;
+import com.bookstore.entity.BookStockShard;
+import com.bookstore.exception.ResourceNotFoundException;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookStockShardRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Optional sharded inventory for titles whose checkouts would otherwise all queue on one {@code books} row.
+ * A sharded book's stock is split over {@code stockShards} rows of {@code book_stock_shards}; checkout takes from
+ * a random slot no other transaction holds ({@code SKIP LOCKED}) that covers the whole quantity. Only when there is
+ * none, typically near sell-out, does it wait for every slot, locked in slot order; since a checkout holding a
+ * skipped-to slot needs no other, no two checkouts can wait on each other.
+ * H2 applies the row limit before skipping locked rows, so there a checkout may fall back to waiting sooner.
+ */
+@Service
+public class StockShardService {
+
+    private static final Limit ONE = Limit.of(1);
+
+    private final BookRepository bookRepository;
+    private final BookStockShardRepository shardRepository;
+    private final BookDetailsCache bookDetailsCache;
+
+    public StockShardService(BookRepository bookRepository,
+            BookStockShardRepository shardRepository,
+            BookDetailsCache bookDetailsCache) {
+        this.bookRepository = bookRepository;
+        this.shardRepository = shardRepository;
+        this.bookDetailsCache = bookDetailsCache;
+    }
+
+    /**
+     * Moves the book's stock into {@code shards} slots, or back into {@code stock_quantity} when {@code shards} is 0.
+     * The book row and its slots are locked, so no checkout can see the stock half moved.
+     */
+    @Transactional
+    public Book setShards(Long bookId, int shards) {
+        Book book = bookRepository.findByIdForUpdate(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book", "id", bookId));
+        List<BookStockShard> slots = shardRepository.lockAll(bookId);
+        // a sharded book's stock_quantity only holds ledger leases handed back since it was sharded
+        int stock = book.getStockQuantity() + slots.stream().mapToInt(BookStockShard::getQuantity).sum();
+
+        book.setStockShards(shards);
+        if (shards == 0) {
+            shardRepository.deleteAll(slots);
+            book.setStockQuantity(stock);
+            book.setShardedStock(0);
+        } else {
+            spread(bookId, slots, shards, stock);
+            book.setStockQuantity(0);
+            book.setShardedStock(stock);
+        }
+        bookDetailsCache.evict(bookId);
+        return book;
+    }
+
+    /**
+     * Replaces a sharded book's stock with {@code stock}, spread evenly over its slots.
+     */
+    @Transactional
+    public void setStock(Book book, int stock) {
+        spread(book.getId(), shardRepository.lockAll(book.getId()), book.getStockShards(), stock);
+        book.setShardedStock(stock);
+    }
+
+    /**
+     * Takes {@code quantity} of a sharded book's stock, from as many slots as it needs. Must run in the caller's
+     * transaction, which has to roll back when this returns {@code false}.
+     *
+     * @return whether the book had enough stock
+     */
+    @Transactional
+    public boolean take(Book book, int quantity) {
+        List<BookStockShard> covering = shardRepository.lockCoveringSkippingLocked(book.getId(), quantity,
+                ThreadLocalRandom.current().nextInt(book.getStockShards()), book.getStockShards(), ONE);
+        if (!covering.isEmpty()) {
+            BookStockShard slot = covering.get(0);
+            slot.setQuantity(slot.getQuantity() - quantity);
+            return true;
+        }
+
+        List<BookStockShard> slots = shardRepository.lockAll(book.getId());
+        if (slots.stream().mapToInt(BookStockShard::getQuantity).sum() < quantity) {
+            return false;
+        }
+        int remaining = quantity;
+        for (BookStockShard slot : slots) {
+            int taken = Math.min(remaining, slot.getQuantity());
+            slot.setQuantity(slot.getQuantity() - taken);
+            remaining -= taken;
+        }
+        return true;
+    }
+
+    private void spread(long bookId, List<BookStockShard> existing, int shards, int stock) {
+        Map<Integer, BookStockShard> bySlot = new HashMap<>();
+        existing.forEach(slot -> bySlot.put(slot.getSlot(), slot));
+        for (int slot = 0; slot < shards; slot++) {
+            int quantity = stock / shards + (slot < stock % shards ? 1 : 0);
+            BookStockShard current = bySlot.remove(slot);
+            if (current == null) {
+                shardRepository.save(new BookStockShard(bookId, slot, quantity));
+            } else {
+                current.setQuantity(quantity);
+            }
+        }
+        shardRepository.deleteAll(bySlot.values());
+    }
+}
@@ -8,15 +8,15 @@ import org.springframework.stereotype.Component;
 public class StockValidator {
 
     public void validateAvailableStock(Book book, int requestedQuantity) {
-        if (book.getStockQuantity() < requestedQuantity) {
-            throw new BadRequestException("Not enough stock available. Available: " + book.getStockQuantity());
+        if (book.getAvailableStock() < requestedQuantity) {
+            throw new BadRequestException("Not enough stock available. Available: " + book.getAvailableStock());
         }
     }
 
     public void validateTotalQuantity(Book book, int totalQuantity) {
-        if (totalQuantity > book.getStockQuantity()) {
+        if (totalQuantity > book.getAvailableStock()) {
             throw new BadRequestException(
-                    "Total quantity exceeds available stock. Available: " + book.getStockQuantity());
+                    "Total quantity exceeds available stock. Available: " + book.getAvailableStock());
         }
     }
 }
@@ -20,6 +20,15 @@ VALUES (4, 'Dune', 'Frank Herbert', '978-0441172719', 'Epic science fiction mast
 INSERT INTO books (id, title, author, isbn, description, price, stock_quantity, image_url, category_id, created_at, updated_at) 
 VALUES (5, 'Clean Code', 'Robert C. Martin', '978-0132350884', 'A handbook of agile software craftsmanship', 39.99, 20, 'https://example.com/cleancode.jpg', 4, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
 
+-- Books above have explicit ids; identity values for imported and created books start after them
+ALTER TABLE books ALTER COLUMN id RESTART WITH 100;
+
+-- Category book counts are maintained by the application; set them for the books above
+UPDATE categories SET book_count = (SELECT COUNT(*) FROM books b WHERE b.category_id = categories.id);
+
+-- Catalog revision behind listing ETags
+INSERT INTO catalog_revision (id, revision) VALUES (1, 0);
+
 -- Admin User (password: admin123)
 INSERT INTO users (id, email, password, first_name, last_name, role, created_at, updated_at)
 VALUES (1, 'admin@bookstore.com', '$2a$10$5hyXbq.nyvEg1C/aFm/6Ee5JW20MuMIggUh1LAVJtxYyQPB3LC9.y', 'Admin', 'User', 'ADMIN', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
@@ -27,3 +36,6 @@ VALUES (1, 'admin@bookstore.com', '$2a$10$5hyXbq.nyvEg1C/aFm/6Ee5JW20MuMIggUh1LA
 -- Test User (password: user123)
 INSERT INTO users (id, email, password, first_name, last_name, role, created_at, updated_at)
 VALUES (2, 'user@test.com', '$2a$10$08JpbQO4nrTcHkTC.QqNq.KLlLGgFFmvKYdKh2MaCmkEwkQ.G.PAe', 'Test', 'User', 'USER', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+
+-- Registered users get ids after the explicit ones above
+ALTER TABLE users ALTER COLUMN id RESTART WITH 100;
@@ -0,0 +1,4 @@
+-- Asynchronous checkout: orders wait as PENDING until a worker confirms or cancels them, with the reason kept
+ALTER TABLE orders ADD COLUMN status_reason VARCHAR(255);
+
+CREATE INDEX idx_orders_status ON orders (status);
@@ -0,0 +1,2 @@
+-- Order history loads the items of a page of orders with one order_id IN (...) query
+CREATE INDEX idx_order_items_order_id ON order_items (order_id);
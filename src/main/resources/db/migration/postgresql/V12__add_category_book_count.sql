@@ -0,0 +1,4 @@
+-- Materialized number of books per category, maintained with each book change so listings skip the COUNT subquery.
+ALTER TABLE categories ADD COLUMN book_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE categories c SET book_count = (SELECT COUNT(*) FROM books b WHERE b.category_id = c.id);
@@ -0,0 +1,7 @@
+-- Cluster-wide catalog revision behind the ETags of catalog listings; a single row bumped by nodes that changed it
+CREATE TABLE catalog_revision (
+    id INTEGER PRIMARY KEY,
+    revision BIGINT NOT NULL
+);
+
+INSERT INTO catalog_revision (id, revision) VALUES (1, 0);
@@ -0,0 +1,5 @@
+-- When a user last revoked their access tokens, so nodes reload only revocations whose tokens can still be unexpired.
+-- Existing revocations are dated now and so kept for one more token lifetime.
+ALTER TABLE users ADD COLUMN tokens_revoked_at TIMESTAMP(6);
+UPDATE users SET tokens_revoked_at = CURRENT_TIMESTAMP WHERE token_version > 0;
+CREATE INDEX idx_users_tokens_revoked_at ON users (tokens_revoked_at);
@@ -0,0 +1,5 @@
+-- Which inventory ledger node an order's stock was reserved from, and when, so a node restarting after a crash
+-- writes off only what it sold from its own leases since their last sync.
+ALTER TABLE orders ADD COLUMN stock_node VARCHAR(64);
+ALTER TABLE orders ADD COLUMN stock_reserved_at TIMESTAMP(6);
+CREATE INDEX idx_orders_stock_node ON orders (stock_node, stock_reserved_at);
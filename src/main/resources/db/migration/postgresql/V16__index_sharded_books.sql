@@ -0,0 +1,2 @@
+-- Lets the stockQuantity sort check whether any book is sharded with an index seek instead of a table scan.
+CREATE INDEX idx_books_stock_shards ON books (stock_shards);
@@ -0,0 +1,6 @@
+-- Composite (sort key, id) indexes so keyset pages over the sortable book fields are index range scans.
+CREATE INDEX idx_books_title_id ON books (title, id);
+CREATE INDEX idx_books_author_id ON books (author, id);
+CREATE INDEX idx_books_price_id ON books (price, id);
+CREATE INDEX idx_books_stock_quantity_id ON books (stock_quantity, id);
+CREATE INDEX idx_books_created_at_id ON books (created_at, id);
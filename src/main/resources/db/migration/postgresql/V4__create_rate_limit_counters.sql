@@ -0,0 +1,9 @@
+-- Cluster-wide rate limit budgets: requests leased to nodes per client and fixed window
+CREATE TABLE rate_limit_counters (
+    client_key BIGINT NOT NULL,
+    window_start BIGINT NOT NULL,
+    claimed INTEGER NOT NULL,
+    PRIMARY KEY (client_key, window_start)
+);
+
+CREATE INDEX idx_rate_limit_counters_window_start ON rate_limit_counters (window_start);
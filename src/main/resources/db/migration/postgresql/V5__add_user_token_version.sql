@@ -0,0 +1,2 @@
+-- Access-token revocation: tokens carry the version current at issue and are rejected once it is incremented.
+ALTER TABLE users ADD COLUMN token_version INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,11 @@
+-- One cart line per (user, book) so add-to-cart can upsert; merge any duplicates into the oldest line first.
+UPDATE cart_items
+SET quantity = (SELECT SUM(d.quantity) FROM cart_items d
+                WHERE d.user_id = cart_items.user_id AND d.book_id = cart_items.book_id)
+WHERE id IN (SELECT MIN(id) FROM cart_items GROUP BY user_id, book_id HAVING COUNT(*) > 1);
+
+DELETE FROM cart_items
+WHERE id NOT IN (SELECT MIN(id) FROM cart_items GROUP BY user_id, book_id);
+
+DROP INDEX idx_cart_items_user_book;
+ALTER TABLE cart_items ADD CONSTRAINT uk_cart_items_user_book UNIQUE (user_id, book_id);
@@ -0,0 +1,10 @@
+-- Optional per-book stock sharding: a sharded book's stock is the sum of its slots instead of books.stock_quantity,
+-- so concurrent checkouts of a popular title lock different rows.
+ALTER TABLE books ADD COLUMN stock_shards INTEGER NOT NULL DEFAULT 0;
+
+CREATE TABLE book_stock_shards (
+    book_id BIGINT NOT NULL REFERENCES books (id) ON DELETE CASCADE,
+    slot INTEGER NOT NULL,
+    quantity INTEGER NOT NULL CHECK (quantity >= 0),
+    PRIMARY KEY (book_id, slot)
+);
@@ -0,0 +1,9 @@
+-- Optional in-memory inventory ledger: stock each node has moved out of books.stock_quantity to sell from memory,
+-- written back on every sync so a crashed node's unsold stock can be returned on restart.
+CREATE TABLE inventory_leases (
+    book_id BIGINT NOT NULL REFERENCES books (id) ON DELETE CASCADE,
+    node_id VARCHAR(64) NOT NULL,
+    quantity INTEGER NOT NULL CHECK (quantity >= 0),
+    synced_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (book_id, node_id)
+);
@@ -0,0 +1,111 @@
+package com.bookstore.cache;
+
+import com.bookstore.dto.BookDTO;
+import com.bookstore.entity.Book;
+import com.bookstore.exception.ResourceNotFoundException;
+import com.bookstore.mapper.BookMapper;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookStockLevels;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookDetailsCacheTest {
+
+    private BookRepository bookRepository;
+    private BookDetailsCache bookDetailsCache;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = mock(BookRepository.class);
+        bookDetailsCache = new BookDetailsCache(
+                new ConcurrentMapCacheManager(BookDetailsCache.CACHE_NAME), bookRepository,
+                mock(BookStockLevels.class), new BookMapper(), mock(CatalogVersion.class));
+    }
+
+    @Test
+    void get_loadsOnceAndServesCopiesFromCache() {
+        when(bookRepository.findByIdWithCategory(1L)).thenReturn(Optional.of(book(1L, "Dune")));
+
+        BookDTO first = bookDetailsCache.get(1L);
+        first.setTitle("changed by caller");
+        BookDTO second = bookDetailsCache.get(1L);
+
+        assertThat(second.getTitle()).isEqualTo("Dune");
+        verify(bookRepository, times(1)).findByIdWithCategory(1L);
+    }
+
+    @Test
+    void evict_forcesReload() {
+        when(bookRepository.findByIdWithCategory(1L))
+                .thenReturn(Optional.of(book(1L, "Dune")))
+                .thenReturn(Optional.of(book(1L, "Dune Messiah")));
+
+        bookDetailsCache.get(1L);
+        bookDetailsCache.evict(1L);
+
+        assertThat(bookDetailsCache.get(1L).getTitle()).isEqualTo("Dune Messiah");
+        verify(bookRepository, times(2)).findByIdWithCategory(1L);
+    }
+
+    @Test
+    void get_doesNotKeepARowLoadedBeforeAConcurrentEviction() {
+        when(bookRepository.findByIdWithCategory(1L))
+                .thenAnswer(invocation -> {
+                    // a writer commits and evicts while this read still holds the old row
+                    bookDetailsCache.clear();
+                    return Optional.of(book(1L, "Dune"));
+                })
+                .thenReturn(Optional.of(book(1L, "Dune Messiah")));
+
+        assertThat(bookDetailsCache.get(1L).getTitle()).isEqualTo("Dune");
+
+        assertThat(bookDetailsCache.get(1L).getTitle()).isEqualTo("Dune Messiah");
+        verify(bookRepository, times(2)).findByIdWithCategory(1L);
+    }
+
+    @Test
+    void get_keepsARowLoadedWhileAnotherBookIsEvicted() {
+        when(bookRepository.findByIdWithCategory(1L))
+                .thenAnswer(invocation -> {
+                    bookDetailsCache.evict(2L);
+                    return Optional.of(book(1L, "Dune"));
+                });
+
+        bookDetailsCache.get(1L);
+        bookDetailsCache.evict(2L);
+        bookDetailsCache.get(1L);
+
+        verify(bookRepository, times(1)).findByIdWithCategory(1L);
+    }
+
+    @Test
+    void get_whenBookMissing_throwsNotFound() {
+        when(bookRepository.findByIdWithCategory(2L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> bookDetailsCache.get(2L))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private static Book book(Long id, String title) {
+        Book book = Book.builder()
+                .title(title)
+                .author("Frank Herbert")
+                .isbn("978-0441172719")
+                .price(BigDecimal.TEN)
+                .stockQuantity(5)
+                .build();
+        book.setId(id);
+        return book;
+    }
+}
@@ -0,0 +1,59 @@
+package com.bookstore.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConnectionPermitDataSourceTest {
+
+    @Mock
+    private DataSource pool;
+
+    @Test
+    void connectionsBeyondThePermitsWaitUntilOneIsClosed() throws SQLException {
+        Connection pooled = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(pooled);
+        ConnectionPermitDataSource dataSource = new ConnectionPermitDataSource(pool, 1, Duration.ofMillis(20));
+
+        Connection first = dataSource.getConnection();
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        first.close();
+        first.close();
+        Connection second = dataSource.getConnection();
+
+        // closing twice returned one permit, not two
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        verify(pooled, times(1)).close();
+        assertThat(DataSourceUtils.getTargetConnection(second)).isSameAs(pooled);
+        assertThat(second).isEqualTo(second).isNotEqualTo(first);
+    }
+
+    @Test
+    void permitIsReturnedWhenThePoolFails() throws SQLException {
+        when(pool.getConnection())
+                .thenThrow(new SQLTransientConnectionException("pool exhausted"))
+                .thenReturn(mock(Connection.class));
+        ConnectionPermitDataSource dataSource = new ConnectionPermitDataSource(pool, 1, Duration.ofMillis(20));
+
+        assertThatThrownBy(dataSource::getConnection).hasMessage("pool exhausted");
+
+        assertThat(dataSource.getConnection()).isNotNull();
+    }
+}
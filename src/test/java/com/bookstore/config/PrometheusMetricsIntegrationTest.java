@@ -0,0 +1,69 @@
+package com.bookstore.config;
+
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+class PrometheusMetricsIntegrationTest {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .addFilters(observationFilter())
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void scrapeHasRequestRepositoryAndServiceHistogramsAndOutcomeCounters() throws Exception {
+        mockMvc.perform(get("/api/books/search").param("keyword", "code"))
+                .andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .containsPattern("http_server_requests_seconds_bucket\\{[^}]*uri=\"/api/books/search\"")
+                .containsPattern("spring_data_repository_invocations_seconds_bucket\\{[^}]*repository=\"BookRepository\"")
+                .contains("bookstore_books_search_seconds_bucket{")
+                .contains("bookstore_checkout_outcomes_total{outcome=\"out_of_stock\"}")
+                .contains("bookstore_ratelimit_rejections_total")
+                .contains("bookstore_jwt_validation_failures_total{reason=\"revoked\"}");
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void scrapeIsAdminOnly() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isForbidden());
+    }
+
+    private Filter observationFilter() {
+        return webApplicationContext.getBeansOfType(FilterRegistrationBean.class).values().stream()
+                .map(FilterRegistrationBean::getFilter)
+                .filter(ServerHttpObservationFilter.class::isInstance)
+                .findFirst()
+                .orElseThrow();
+    }
+}
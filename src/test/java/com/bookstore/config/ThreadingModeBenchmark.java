@@ -0,0 +1,113 @@
+package com.bookstore.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Platform versus virtual request threads during a checkout burst. {@code checkouts} requests keep the connection
+ * pool saturated: each takes one of {@value #POOL_SIZE} connections through a {@link ConnectionPermitDataSource},
+ * holds it for a {@code queryMillis} round trip and is followed by the next checkout. Meanwhile a catalog read that
+ * needs no connection (a book detail cache hit) is timed. On Tomcat's {@value #TOMCAT_MAX_THREADS} platform threads
+ * the read queues behind checkouts blocked on the pool; with a virtual thread per request it runs straight away.
+ * Checkout throughput is bound by the pool in both modes. For an end-to-end comparison run the load test once more
+ * with {@code -Dload.args=--spring.threads.virtual.enabled=true} and the first result as {@code -Dload.baseline}.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ThreadingModeBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int POOL_SIZE = 10;
+
+    @Param({ "platform", "virtual" })
+    public String threads;
+
+    @Param({ "100", "1000" })
+    public int checkouts;
+
+    @Param({ "2" })
+    public int queryMillis;
+
+    private ExecutorService requests;
+    private ConnectionPermitDataSource dataSource;
+    private volatile boolean running;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        requests = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        dataSource = new ConnectionPermitDataSource(connectionPool(), POOL_SIZE, Duration.ofMinutes(1));
+        running = true;
+        for (int i = 0; i < checkouts; i++) {
+            requests.execute(this::checkout);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        running = false;
+        requests.shutdownNow();
+    }
+
+    @Benchmark
+    public boolean cachedReadDuringCheckouts() throws InterruptedException, ExecutionException {
+        return requests.submit(() -> Thread.currentThread().isVirtual()).get();
+    }
+
+    private void checkout() {
+        try (Connection connection = dataSource.getConnection()) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(queryMillis));
+        } catch (SQLException ex) {
+            if (running) {
+                throw new IllegalStateException(ex);
+            }
+            return; // interrupted by tearDown
+        }
+        if (running) {
+            try {
+                requests.execute(this::checkout);
+            } catch (RejectedExecutionException ex) {
+                // torn down meanwhile
+            }
+        }
+    }
+
+    /**
+     * Hands out the same inert connection; only the permits limit how many are held.
+     */
+    private static DataSource connectionPool() {
+        ClassLoader classLoader = ThreadingModeBenchmark.class.getClassLoader();
+        Connection connection = (Connection) Proxy.newProxyInstance(classLoader, new Class<?>[] { Connection.class },
+                (proxy, method, args) -> null);
+        return (DataSource) Proxy.newProxyInstance(classLoader, new Class<?>[] { DataSource.class },
+                (proxy, method, args) -> connection);
+    }
+}
@@ -0,0 +1,68 @@
+package com.bookstore.config;
+
+import com.bookstore.repository.BookRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:virtual-threads;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=4"
+})
+class VirtualThreadModeIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @Test
+    void asyncWorkRunsOnVirtualThreads() throws Exception {
+        assertThat(applicationTaskExecutor.submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS))
+                .isTrue();
+    }
+
+    @Test
+    void burstOfVirtualThreadsSharesThePoolInTurn() throws Exception {
+        assertThat(dataSource).isInstanceOf(ConnectionPermitDataSource.class);
+        assertThat(dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize()).isEqualTo(4);
+        long books = bookRepository.count();
+
+        List<Future<Long>> results;
+        try (ExecutorService burst = Executors.newVirtualThreadPerTaskExecutor()) {
+            results = IntStream.range(0, 500)
+                    .mapToObj(i -> burst.submit(() -> i % 2 == 0
+                            ? bookRepository.count()
+                            : jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books", Long.class)))
+                    .toList();
+        }
+
+        for (Future<Long> result : results) {
+            assertThat(result.get()).isEqualTo(books);
+        }
+        assertThat(((ConnectionPermitDataSource) dataSource).getQueueLength()).isZero();
+    }
+}
@@ -0,0 +1,178 @@
+package com.bookstore.controller;
+
+import com.bookstore.entity.Order;
+import com.bookstore.entity.User;
+import com.bookstore.repository.UserRepository;
+import com.bookstore.service.AuthService;
+import com.bookstore.service.CheckoutPipeline;
+import com.bookstore.service.OrderService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+class AsyncCheckoutIntegrationTest {
+
+    private static final long BOOK_ID = 4L;
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CheckoutPipeline checkoutPipeline;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String bearer;
+    private int originalStock;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(SecurityMockMvcConfigurers.springSecurity())
+                .build();
+        bearer = "Bearer " + authService.login("user@test.com", "user123").getAccessToken();
+        originalStock = stockQuantity();
+    }
+
+    @AfterEach
+    void restoreStock() {
+        jdbcTemplate.update("DELETE FROM cart_items WHERE user_id = (SELECT id FROM users WHERE email = ?)",
+                "user@test.com");
+        jdbcTemplate.update("UPDATE books SET stock_quantity = ? WHERE id = ?", originalStock, BOOK_ID);
+    }
+
+    @Test
+    void acceptedCheckoutIsConfirmedInTheBackground() throws Exception {
+        addToCart(2);
+
+        long orderId = checkoutAsync();
+
+        mockMvc.perform(asyncDispatch(awaitOrder(orderId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CONFIRMED"));
+        assertThat(stockQuantity()).isEqualTo(originalStock - 2);
+    }
+
+    @Test
+    void checkoutShortOfStockIsCancelledWithTheReason() throws Exception {
+        addToCart(2);
+        jdbcTemplate.update("UPDATE books SET stock_quantity = 1 WHERE id = ?", BOOK_ID);
+
+        long orderId = checkoutAsync();
+
+        mockMvc.perform(asyncDispatch(awaitOrder(orderId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELLED"))
+                .andExpect(jsonPath("$.statusReason").value("Not enough stock available for book: Dune"));
+        assertThat(stockQuantity()).isEqualTo(1);
+        assertThat(cartQuantity()).isEqualTo(2);
+    }
+
+    @Test
+    void waitOnAnOrderSettledByAnotherNodeEndsWhenItIsSettled() throws Exception {
+        addToCart(1);
+        // placed without queueing it here, as if another node had accepted the checkout
+        Order order = orderService.placePendingOrder(
+                userRepository.findByEmail("user@test.com").orElseThrow(), "1 Main St");
+
+        CompletableFuture<Void> settled = checkoutPipeline.awaitSettled(order.getId(), Duration.ofMinutes(1));
+        assertThat(orderService.confirmPendingOrder(order.getId())).isTrue();
+
+        settled.get(5, TimeUnit.SECONDS);
+        assertThat(stockQuantity()).isEqualTo(originalStock - 1);
+    }
+
+    @Test
+    void waitsOnSeveralOrdersSettledByAnotherNodeAllEnd() throws Exception {
+        User user = userRepository.findByEmail("user@test.com").orElseThrow();
+        addToCart(1);
+        Order first = orderService.placePendingOrder(user, "1 Main St");
+        addToCart(1);
+        Order second = orderService.placePendingOrder(user, "1 Main St");
+
+        CompletableFuture<Void> firstSettled = checkoutPipeline.awaitSettled(first.getId(), Duration.ofMinutes(1));
+        CompletableFuture<Void> firstAgain = checkoutPipeline.awaitSettled(first.getId(), Duration.ofMinutes(1));
+        CompletableFuture<Void> secondSettled = checkoutPipeline.awaitSettled(second.getId(), Duration.ofMinutes(1));
+        assertThat(orderService.confirmPendingOrder(first.getId())).isTrue();
+        assertThat(orderService.confirmPendingOrder(second.getId())).isTrue();
+
+        CompletableFuture.allOf(firstSettled, firstAgain, secondSettled).get(5, TimeUnit.SECONDS);
+        assertThat(stockQuantity()).isEqualTo(originalStock - 2);
+    }
+
+    private void addToCart(int quantity) throws Exception {
+        mockMvc.perform(post("/api/cart/add")
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":" + BOOK_ID + ",\"quantity\":" + quantity + "}"))
+                .andExpect(status().isCreated());
+    }
+
+    private long checkoutAsync() throws Exception {
+        MvcResult accepted = mockMvc.perform(post("/api/orders/checkout")
+                        .header("Authorization", bearer)
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"shippingAddress\":\"1 Main St\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Preference-Applied", "respond-async"))
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andReturn();
+        long orderId = ((Number) JsonPath.read(accepted.getResponse().getContentAsString(), "$.id")).longValue();
+        assertThat(accepted.getResponse().getHeader("Location")).isEqualTo("/api/orders/" + orderId);
+        return orderId;
+    }
+
+    private MvcResult awaitOrder(long orderId) throws Exception {
+        return mockMvc.perform(get("/api/orders/" + orderId)
+                        .header("Authorization", bearer)
+                        .header("Prefer", "wait=5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private int cartQuantity() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(quantity), 0) FROM cart_items WHERE book_id = ? "
+                + "AND user_id = (SELECT id FROM users WHERE email = ?)", Integer.class, BOOK_ID, "user@test.com");
+    }
+
+    private int stockQuantity() {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM books WHERE id = ?", Integer.class, BOOK_ID);
+    }
+}
@@ -1,19 +1,31 @@
 package com.bookstore.controller;
 
+import com.bookstore.cache.BookDetailsCache;
 import com.bookstore.exception.GlobalExceptionHandler;
 import com.bookstore.mapper.BookMapper;
 import com.bookstore.service.AuditLogger;
+import com.bookstore.service.BookImportService;
 import com.bookstore.service.BookService;
 import com.bookstore.service.CategoryService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.mock.env.MockEnvironment;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -31,7 +43,9 @@ class BookControllerPaginationTest {
                 bookService,
                 categoryService,
                 mock(BookMapper.class),
-                mock(AuditLogger.class));
+                mock(AuditLogger.class),
+                mock(BookDetailsCache.class),
+                mock(BookImportService.class));
         mockMvc = MockMvcBuilders.standaloneSetup(controller)
                 .setControllerAdvice(new GlobalExceptionHandler(new MockEnvironment()))
                 .build();
@@ -46,6 +60,18 @@ class BookControllerPaginationTest {
         verifyNoInteractions(bookService);
     }
 
+    @Test
+    void getAllBooks_rejectsStockSortWhileStockIsOutsideTheColumn() throws Exception {
+        when(bookService.isStockSortable()).thenReturn(false);
+
+        mockMvc.perform(get("/api/books").param("sortBy", "stockQuantity"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message")
+                        .value("Books cannot be sorted by stockQuantity while stock is sharded or leased"));
+
+        verify(bookService, never()).getAllBooks(any());
+    }
+
     @Test
     void getAllBooks_rejectsUnsupportedSortDirection() throws Exception {
         mockMvc.perform(get("/api/books").param("sortDir", "sideways"))
@@ -66,6 +92,51 @@ class BookControllerPaginationTest {
         verifyNoInteractions(bookService);
     }
 
+    @Test
+    void getAllBooks_withCountNone_returnsSliceWithoutCounting() throws Exception {
+        PageRequest pageable = PageRequest.of(1, 2, Sort.by("title").ascending());
+        when(bookService.sliceAllBooks(pageable)).thenReturn(new SliceImpl<>(List.of(), pageable, true));
+
+        mockMvc.perform(get("/api/books").param("page", "1").param("size", "2").param("count", "none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.hasPrevious").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.estimatedTotalElements").doesNotExist());
+
+        verify(bookService, never()).getAllBooks(any());
+        verify(bookService, never()).estimateBookCount();
+    }
+
+    @Test
+    void getAllBooks_withCountEstimated_addsPlannerEstimate() throws Exception {
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by("title").ascending());
+        when(bookService.sliceAllBooks(pageable)).thenReturn(new SliceImpl<>(List.of(), pageable, false));
+        when(bookService.estimateBookCount()).thenReturn(Optional.of(1200L));
+
+        mockMvc.perform(get("/api/books").param("count", "estimated"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estimatedTotalElements").value(1200));
+    }
+
+    @Test
+    void getAllBooks_rejectsUnknownCountMode() throws Exception {
+        mockMvc.perform(get("/api/books").param("count", "approximate"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Count must be 'exact', 'none' or 'estimated'"));
+
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    void getAllBooksByCursor_rejectsMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/books").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+
+        verifyNoInteractions(bookService);
+    }
+
     @Test
     void getBooksByCategory_rejectsNegativePageBeforeCategoryLookup() throws Exception {
         mockMvc.perform(get("/api/books/category/4").param("page", "-1"))
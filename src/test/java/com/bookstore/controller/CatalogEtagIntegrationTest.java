@@ -0,0 +1,121 @@
+package com.bookstore.controller;
+
+import com.bookstore.cache.BookDetailsCache;
+import com.bookstore.cache.CatalogVersion;
+import com.bookstore.repository.CatalogRevisions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+class CatalogEtagIntegrationTest {
+
+    private static final long BOOK_ID = 1L;
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private BookDetailsCache bookDetailsCache;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private CatalogRevisions catalogRevisions;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int originalStock;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        originalStock = jdbcTemplate.queryForObject(
+                "SELECT stock_quantity FROM books WHERE id = ?", Integer.class, BOOK_ID);
+        catalogVersion.sync();
+    }
+
+    @AfterEach
+    void restoreStock() {
+        jdbcTemplate.update("UPDATE books SET stock_quantity = ? WHERE id = ?", originalStock, BOOK_ID);
+        bookDetailsCache.evict(BOOK_ID);
+    }
+
+    @Test
+    void bookIsNotModifiedUntilItsStockChanges() throws Exception {
+        String etag = mockMvc.perform(get("/api/books/{id}", BOOK_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"" + BOOK_ID + "-");
+
+        mockMvc.perform(get("/api/books/{id}", BOOK_ID).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // what a checkout does: stock changes without updated_at, then the snapshot is evicted
+        jdbcTemplate.update("UPDATE books SET stock_quantity = stock_quantity - 1 WHERE id = ?", BOOK_ID);
+        bookDetailsCache.evict(BOOK_ID);
+
+        String changed = mockMvc.perform(get("/api/books/{id}", BOOK_ID).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(changed).isNotEqualTo(etag);
+    }
+
+    @Test
+    void listingsAreNotModifiedUntilTheCatalogChanges() throws Exception {
+        String etag = mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isEqualTo(catalogVersion.etag());
+
+        mockMvc.perform(get("/api/categories").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/books").param("size", "5").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        catalogVersion.changed();
+
+        mockMvc.perform(get("/api/books").param("size", "5").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, catalogVersion.etag()));
+        assertThat(catalogVersion.etag()).isNotEqualTo(etag);
+    }
+
+    @Test
+    void changesReachOtherNodesOnSync() {
+        CatalogVersion nodeA = new CatalogVersion(catalogRevisions);
+        CatalogVersion nodeB = new CatalogVersion(catalogRevisions);
+        nodeA.sync();
+        nodeB.sync();
+        String before = nodeA.etag();
+        assertThat(nodeB.etag()).isEqualTo(before);
+
+        nodeA.changed();
+        assertThat(nodeA.etag()).isNotEqualTo(before);
+        assertThat(nodeB.etag()).isEqualTo(before);
+
+        nodeA.sync();
+        nodeB.sync();
+        assertThat(nodeB.etag()).isEqualTo(nodeA.etag()).isNotEqualTo(before);
+    }
+}
@@ -0,0 +1,97 @@
+package com.bookstore.controller;
+
+import com.bookstore.service.AuthService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@Transactional
+class OrderExportIntegrationTest {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(SecurityMockMvcConfigurers.springSecurity())
+                .build();
+        // three orders with two, one and no lines
+        for (int i = 0; i < 3; i++) {
+            long orderId = 9201 + i;
+            jdbcTemplate.update("INSERT INTO orders (id, user_id, total_amount, status, status_reason, created_at, "
+                    + "updated_at) VALUES (?, 2, 10.00, 'CANCELLED', ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)",
+                    orderId, i == 0 ? "Not enough stock available for books: Dune, \"Emma\"" : null);
+            for (int line = 0; line < 2 - i; line++) {
+                jdbcTemplate.update("INSERT INTO order_items (id, order_id, book_id, quantity, price_at_purchase) "
+                        + "VALUES (?, ?, ?, 1, 5.00)", orderId * 10 + line, orderId, line + 1);
+            }
+        }
+    }
+
+    @Test
+    void exportsOneJsonLinePerOrder() throws Exception {
+        String body = mockMvc.perform(get("/api/orders/export").header("Authorization", bearer("admin@bookstore.com", "admin123")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().filter(line -> line.matches("\\{\"id\":92\\d\\d,.*")).toList();
+        assertThat(body).endsWith("\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines).extracting(line -> ((Number) JsonPath.read(line, "$.userId")).longValue()).containsOnly(2L);
+        assertThat(lines).extracting(line -> JsonPath.<List<Integer>>read(line, "$.items[*].bookId"))
+                .containsExactly(List.of(1, 2), List.of(1), List.of());
+    }
+
+    @Test
+    void exportsOneCsvRowPerItem() throws Exception {
+        String body = mockMvc.perform(get("/api/orders/export").param("format", "csv")
+                        .header("Authorization", bearer("admin@bookstore.com", "admin123")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> rows = Arrays.stream(body.split("\n")).filter(row -> row.startsWith("92")).toList();
+        assertThat(body).startsWith("order_id,user_id,status,status_reason,total_amount,");
+        assertThat(rows).hasSize(4);
+        assertThat(rows.get(0)).contains(",\"Not enough stock available for books: Dune, \"\"Emma\"\"\",10.00,")
+                .endsWith(",92010,1,1,5.00");
+        assertThat(rows.get(3)).startsWith("9203,2,CANCELLED,,10.00,").endsWith(",,,,");
+    }
+
+    @Test
+    void exportIsForAdminsOnly() throws Exception {
+        mockMvc.perform(get("/api/orders/export").header("Authorization", bearer("user@test.com", "user123")))
+                .andExpect(status().isForbidden());
+    }
+
+    private String bearer(String email, String password) {
+        return "Bearer " + authService.login(email, password).getAccessToken();
+    }
+}
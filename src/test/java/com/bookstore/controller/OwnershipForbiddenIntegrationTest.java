@@ -41,7 +41,7 @@ class OwnershipForbiddenIntegrationTest {
     @Test
     @WithUserDetails("user@test.com")
     void getOrderById_whenOrderBelongsToAnotherUser_returns403() throws Exception {
-        mockMvc.perform(get("/api/orders/1"))
+        mockMvc.perform(get("/api/orders/9001"))
                 .andExpect(status().isForbidden())
                 .andExpect(jsonPath("$.status").value(403))
                 .andExpect(jsonPath("$.message").value("Order does not belong to current user"));
@@ -50,7 +50,7 @@ class OwnershipForbiddenIntegrationTest {
     @Test
     @WithUserDetails("user@test.com")
     void updateCartItem_whenCartItemBelongsToAnotherUser_returns403() throws Exception {
-        mockMvc.perform(put("/api/cart/update/1")
+        mockMvc.perform(put("/api/cart/update/9001")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"quantity\": 2}"))
                 .andExpect(status().isForbidden())
@@ -61,7 +61,7 @@ class OwnershipForbiddenIntegrationTest {
     @Test
     @WithUserDetails("user@test.com")
     void removeFromCart_whenCartItemBelongsToAnotherUser_returns403() throws Exception {
-        mockMvc.perform(delete("/api/cart/remove/1"))
+        mockMvc.perform(delete("/api/cart/remove/9001"))
                 .andExpect(status().isForbidden())
                 .andExpect(jsonPath("$.status").value(403))
                 .andExpect(jsonPath("$.message").value("Cart item does not belong to current user"));
@@ -0,0 +1,149 @@
+package com.bookstore.controller;
+
+import com.bookstore.cache.BookDetailsCache;
+import com.bookstore.config.SqlMonitorProperties;
+import com.bookstore.monitoring.SqlStatementBudgetFilter;
+import com.bookstore.monitoring.SqlStatementCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement counts for the catalog and order history endpoints: each stays within its configured budget and no
+ * statement repeats, so a lazy association loaded per row fails here before it reaches production.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+class SqlStatementCountIntegrationTest {
+
+    private static final long FIRST_ORDER_ID = 9301;
+    private static final int ORDERS = 5;
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private SqlStatementBudgetFilter sqlStatementBudgetFilter;
+
+    @Autowired
+    private SqlMonitorProperties sqlMonitorProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BookDetailsCache bookDetailsCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .addFilters(sqlStatementBudgetFilter)
+                .apply(SecurityMockMvcConfigurers.springSecurity())
+                .build();
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = 'user@test.com'", Long.class);
+        // five orders of one to three lines, each line a different book
+        for (int i = 0; i < ORDERS; i++) {
+            long orderId = FIRST_ORDER_ID + i;
+            jdbcTemplate.update("INSERT INTO orders (id, user_id, total_amount, status, created_at, updated_at) "
+                            + "VALUES (?, ?, 10.00, 'CONFIRMED', ?, ?)",
+                    orderId, userId, Timestamp.valueOf(LocalDateTime.now().minusDays(i)),
+                    Timestamp.valueOf(LocalDateTime.now()));
+            for (int line = 0; line <= i % 3; line++) {
+                jdbcTemplate.update("INSERT INTO order_items (id, order_id, book_id, quantity, price_at_purchase) "
+                        + "VALUES (?, ?, ?, 1, 5.00)", orderId * 10 + line, orderId, line + 1);
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM order_items WHERE order_id BETWEEN ? AND ?",
+                FIRST_ORDER_ID, FIRST_ORDER_ID + ORDERS - 1);
+        jdbcTemplate.update("DELETE FROM orders WHERE id BETWEEN ? AND ?", FIRST_ORDER_ID, FIRST_ORDER_ID + ORDERS - 1);
+    }
+
+    @Test
+    void bookListingLoadsCategoriesWithThePage() throws Exception {
+        SqlStatementCounter.Scope scope = perform(get("/api/books").param("size", "20"));
+
+        assertThat(scope.repeats()).isEmpty();
+        assertThat(scope.count()).isLessThanOrEqualTo(sqlMonitorProperties.budgetFor("GET /api/books"));
+    }
+
+    @Test
+    void bookDetailsLoadTheBookOnceOnACacheMiss() throws Exception {
+        bookDetailsCache.evict(1L);
+
+        SqlStatementCounter.Scope miss = perform(get("/api/books/{id}", 1L));
+        SqlStatementCounter.Scope hit = perform(get("/api/books/{id}", 1L));
+
+        assertThat(miss.repeats()).isEmpty();
+        assertThat(miss.count()).isLessThanOrEqualTo(sqlMonitorProperties.budgetFor("GET /api/books/{id}"));
+        assertThat(hit.count()).isZero();
+    }
+
+    @Test
+    @WithUserDetails("user@test.com")
+    void orderHistoryLoadsItemsAndBooksWithTheOrders() throws Exception {
+        SqlStatementCounter.Scope scope = perform(get("/api/orders"));
+
+        assertThat(scope.repeats()).isEmpty();
+        assertThat(scope.count()).isLessThanOrEqualTo(sqlMonitorProperties.budgetFor("GET /api/orders"));
+    }
+
+    @Test
+    @WithUserDetails("user@test.com")
+    void orderHistoryPageLoadsItemsForThePageInOneQuery() throws Exception {
+        SqlStatementCounter.Scope scope = perform(get("/api/orders").param("cursor", "").param("size", "3"));
+
+        assertThat(scope.repeats()).isEmpty();
+        assertThat(scope.count()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void requestsOverBudgetAreCountedPerEndpoint() throws Exception {
+        sqlMonitorProperties.getBudgets().put("GET /api/categories", 0);
+        try {
+            perform(get("/api/categories"));
+        } finally {
+            sqlMonitorProperties.getBudgets().remove("GET /api/categories");
+        }
+
+        assertThat(meterRegistry.get("bookstore.sql.statements").tag("uri", "/api/categories").summary().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("bookstore.sql.budget.exceeded").tag("uri", "/api/categories").counter().count())
+                .isEqualTo(1);
+    }
+
+    private SqlStatementCounter.Scope perform(RequestBuilder request) throws Exception {
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+            mockMvc.perform(request).andExpect(status().isOk()).andExpect(jsonPath("$").exists());
+            return scope;
+        }
+    }
+}
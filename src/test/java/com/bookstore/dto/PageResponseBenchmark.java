@@ -0,0 +1,86 @@
+package com.bookstore.dto;
+
+import com.bookstore.entity.Book;
+import com.bookstore.entity.Category;
+import com.bookstore.mapper.BookMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A book listing response from loaded entities to JSON bytes: {@link BookMapper#toDTO} over the page,
+ * {@link PageResponse#from}, and serialization, separately and together.
+ * Run with {@code mvn -Pbenchmark test -Dbenchmark=PageResponse}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PageResponseBenchmark {
+
+    @Param({ "10", "100" })
+    public int pageSize;
+
+    private final BookMapper bookMapper = new BookMapper();
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private Page<Book> books;
+    private PageResponse<BookDTO> response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Category category = Category.builder().name("Science Fiction").description("Sci-fi and fantasy").build();
+        category.setId(3L);
+        List<Book> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Book book = Book.builder()
+                    .title("Benchmark Title " + i)
+                    .author("Author " + i)
+                    .isbn("978-0-00-" + String.format("%06d", i))
+                    .description("A description long enough to look like a real catalog blurb for book " + i + ".")
+                    .price(new BigDecimal("19.99").add(BigDecimal.valueOf(i, 2)))
+                    .stockQuantity(100 + i)
+                    .imageUrl("https://images.example.com/books/" + i + ".jpg")
+                    .category(category)
+                    .build();
+            book.setId((long) i + 1);
+            content.add(book);
+        }
+        books = new PageImpl<>(content, PageRequest.of(3, pageSize), 50_000);
+        response = PageResponse.from(books.map(bookMapper::toDTO));
+    }
+
+    @Benchmark
+    public PageResponse<BookDTO> map() {
+        return PageResponse.from(books.map(bookMapper::toDTO));
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return jsonMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() {
+        return jsonMapper.writeValueAsBytes(PageResponse.from(books.map(bookMapper::toDTO)));
+    }
+}
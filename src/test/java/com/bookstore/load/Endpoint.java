@@ -0,0 +1,21 @@
+package com.bookstore.load;
+
+/**
+ * Requests the load test replays, keyed as in {@code load-test-budgets.properties}.
+ */
+enum Endpoint {
+
+    BROWSE("browse", "GET /api/books"),
+    SEARCH("search", "GET /api/books/search"),
+    DETAILS("details", "GET /api/books/{id}"),
+    ADD_TO_CART("add-to-cart", "POST /api/cart/add"),
+    CHECKOUT("checkout", "POST /api/orders/checkout");
+
+    final String key;
+    final String route;
+
+    Endpoint(String key, String route) {
+        this.key = key;
+        this.route = route;
+    }
+}
@@ -0,0 +1,102 @@
+package com.bookstore.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency histograms (microseconds, 3 significant digits) and error counts, recorded only inside
+ * the measurement window so warmup requests do not skew the percentiles.
+ */
+final class LatencyRecorder {
+
+    private final Map<Endpoint, Histogram> histograms = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+    private volatile boolean measuring;
+    private long measuredNanos;
+
+    LatencyRecorder() {
+        for (Endpoint endpoint : Endpoint.values()) {
+            histograms.put(endpoint, new ConcurrentHistogram(3));
+            errors.put(endpoint, new LongAdder());
+        }
+    }
+
+    void start() {
+        measuring = true;
+    }
+
+    void stop(long measuredNanos) {
+        measuring = false;
+        this.measuredNanos = measuredNanos;
+    }
+
+    void record(Endpoint endpoint, long elapsedNanos, boolean ok) {
+        if (!measuring) {
+            return;
+        }
+        histograms.get(endpoint).recordValue(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        if (!ok) {
+            errors.get(endpoint).increment();
+        }
+    }
+
+    /**
+     * Requests per second over all endpoints.
+     */
+    double throughput() {
+        long total = histograms.values().stream().mapToLong(Histogram::getTotalCount).sum();
+        return total / (measuredNanos / 1e9);
+    }
+
+    /**
+     * The run's summary, as written to the result file and compared against budgets and baselines.
+     */
+    Map<String, Object> summary() {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = histograms.get(endpoint);
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("route", endpoint.route);
+            stats.put("count", histogram.getTotalCount());
+            stats.put("errors", errors.get(endpoint).sum());
+            stats.put("throughput", histogram.getTotalCount() / (measuredNanos / 1e9));
+            stats.put("p50Ms", millis(histogram.getValueAtPercentile(50)));
+            stats.put("p90Ms", millis(histogram.getValueAtPercentile(90)));
+            stats.put("p99Ms", millis(histogram.getValueAtPercentile(99)));
+            stats.put("p999Ms", millis(histogram.getValueAtPercentile(99.9)));
+            stats.put("maxMs", millis(histogram.getMaxValue()));
+            endpoints.put(endpoint.key, stats);
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("durationSeconds", measuredNanos / 1e9);
+        summary.put("throughput", throughput());
+        summary.put("endpoints", endpoints);
+        return summary;
+    }
+
+    /**
+     * Writes each endpoint's full percentile distribution in HdrHistogram's {@code .hgrm} format, in milliseconds.
+     */
+    void writeDistributions(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Endpoint endpoint : Endpoint.values()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(endpoint.key + ".hgrm")))) {
+                histograms.get(endpoint).outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static double millis(long micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+}
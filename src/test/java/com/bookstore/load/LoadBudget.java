@@ -0,0 +1,81 @@
+package com.bookstore.load;
+
+import tools.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Pass/fail limits for a load test run: a p99 budget per endpoint, a minimum overall throughput and a maximum
+ * error rate, plus, when a baseline result is given, the largest tolerated p99 growth and throughput drop.
+ */
+final class LoadBudget {
+
+    private final Properties budgets;
+
+    LoadBudget(Properties budgets) {
+        this.budgets = budgets;
+    }
+
+    /**
+     * @param baseline the summary of an earlier run on the same machine, or {@code null}
+     * @return the budgets the run exceeded; empty when it passed
+     */
+    @SuppressWarnings("unchecked")
+    List<String> violations(Map<String, Object> summary, JsonNode baseline) {
+        List<String> violations = new ArrayList<>();
+        double throughput = (double) summary.get("throughput");
+        double minThroughput = number("min-throughput");
+        if (throughput < minThroughput) {
+            violations.add(String.format("throughput %.1f req/s is below the budget of %.1f", throughput, minThroughput));
+        }
+
+        double maxRegression = number("max-regression");
+        if (baseline != null) {
+            double baselineThroughput = baseline.get("throughput").asDouble();
+            if (throughput < baselineThroughput * (1 - maxRegression)) {
+                violations.add(String.format("throughput %.1f req/s regressed from %.1f", throughput, baselineThroughput));
+            }
+        }
+
+        long requests = 0;
+        long errors = 0;
+        Map<String, Map<String, Object>> endpoints = (Map<String, Map<String, Object>>) summary.get("endpoints");
+        for (Map.Entry<String, Map<String, Object>> entry : endpoints.entrySet()) {
+            String key = entry.getKey();
+            Map<String, Object> stats = entry.getValue();
+            requests += (long) stats.get("count");
+            errors += (long) stats.get("errors");
+            double p99 = (double) stats.get("p99Ms");
+            double budget = number("p99-ms." + key);
+            if (p99 > budget) {
+                violations.add(String.format("%s p99 %.2f ms is over the budget of %.2f ms", key, p99, budget));
+            }
+            JsonNode baselineStats = baseline != null ? baseline.path("endpoints").path(key) : null;
+            if (baselineStats != null && baselineStats.has("p99Ms")) {
+                double baselineP99 = baselineStats.get("p99Ms").asDouble();
+                if (p99 > baselineP99 * (1 + maxRegression)) {
+                    violations.add(String.format("%s p99 %.2f ms regressed from %.2f ms", key, p99, baselineP99));
+                }
+            }
+        }
+
+        double errorRate = requests == 0 ? 1 : (double) errors / requests;
+        double maxErrorRate = number("max-error-rate");
+        if (errorRate > maxErrorRate) {
+            violations.add(String.format("error rate %.4f is over the budget of %.4f (%d of %d requests)",
+                    errorRate, maxErrorRate, errors, requests));
+        }
+        return violations;
+    }
+
+    private double number(String key) {
+        String value = budgets.getProperty(key);
+        if (value == null) {
+            throw new IllegalStateException("Missing load test budget: " + key);
+        }
+        return Double.parseDouble(value.trim());
+    }
+}
@@ -0,0 +1,193 @@
+package com.bookstore.load;
+
+import com.bookstore.BookstoreApplication;
+import com.bookstore.dto.BookImportReport;
+import com.bookstore.service.BookImportService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load test: starts the application in-process on a random port, imports a generated catalog, registers
+ * {@code load.users} shoppers and replays {@link VirtualUser} sessions over HTTP for {@code load.warmup} plus
+ * {@code load.duration}. Latencies are recorded per endpoint in HdrHistograms and checked against
+ * {@code load-test-budgets.properties} (or {@code load.budgets}); the process exits with 1 when a budget is missed.
+ * <p>
+ * Run with {@code mvn -Pload-test test} on H2, or against a local PostgreSQL with e.g. {@code -Dload.args=
+ * "--spring.profiles.active=docker --spring.datasource.url=jdbc:postgresql://localhost:5432/bookstore"}.
+ * The summary goes to {@code load.result}; pass an earlier one as {@code load.baseline} to also fail on regressions.
+ */
+public final class LoadTest {
+
+    private static final String[] CATEGORIES = { "Fiction", "Non-Fiction", "Science Fiction", "Technology" };
+    private static final int STOCK = 1_000_000;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("load.users", 8);
+        int books = Integer.getInteger("load.books", 5000);
+        Duration warmup = Duration.parse(System.getProperty("load.warmup", "PT10S"));
+        Duration duration = Duration.parse(System.getProperty("load.duration", "PT30S"));
+        Duration thinkTime = Duration.parse(System.getProperty("load.think-time", "PT0S"));
+        Path resultFile = Path.of(System.getProperty("load.result", "target/load-test/result.json"));
+        String baselineFile = System.getProperty("load.baseline", "");
+        LoadBudget budget = new LoadBudget(budgets(System.getProperty("load.budgets", "")));
+        JsonMapper jsonMapper = JsonMapper.builder().build();
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        List<String> appArgs = new ArrayList<>(List.of("--server.port=0", "--logging.level.root=WARN",
+                // every shopper comes from 127.0.0.1; keep the per-client limit out of the measurement
+                "--app.security.rate-limit.max-requests=1000000"));
+        appArgs.addAll(List.of(args));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BookstoreApplication.class)
+                .run(appArgs.toArray(String[]::new));
+        try {
+            List<Long> bookIds = seedCatalog(context, books);
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            List<String> tokens = registerShoppers(client, baseUrl, users, jsonMapper);
+            System.out.printf("Replaying %d shoppers over %d books for %s after a %s warmup%n",
+                    users, bookIds.size(), duration, warmup);
+            run(tokens, client, baseUrl, bookIds, recorder, thinkTime, warmup, duration);
+        } finally {
+            context.close();
+        }
+
+        Map<String, Object> summary = recorder.summary();
+        summary.put("users", users);
+        Files.createDirectories(resultFile.toAbsolutePath().getParent());
+        jsonMapper.writerWithDefaultPrettyPrinter().writeValue(resultFile.toFile(), summary);
+        recorder.writeDistributions(resultFile.toAbsolutePath().getParent());
+        print(summary);
+
+        JsonNode baseline = baselineFile.isBlank() ? null : jsonMapper.readTree(Path.of(baselineFile).toFile());
+        List<String> violations = budget.violations(summary, baseline);
+        if (violations.isEmpty()) {
+            System.out.println("Load test passed; summary written to " + resultFile);
+            System.exit(0);
+        }
+        violations.forEach(violation -> System.out.println("FAILED: " + violation));
+        System.exit(1);
+    }
+
+    private static void run(List<String> tokens, HttpClient client, String baseUrl, List<Long> bookIds,
+            LatencyRecorder recorder, Duration thinkTime, Duration warmup, Duration duration) throws Exception {
+        List<VirtualUser> shoppers = tokens.stream()
+                .map(token -> new VirtualUser(client, baseUrl, token, bookIds, recorder, thinkTime))
+                .toList();
+        ExecutorService executor = Executors.newFixedThreadPool(shoppers.size());
+        try {
+            List<Future<?>> running = shoppers.stream().<Future<?>>map(executor::submit).toList();
+            Thread.sleep(warmup);
+            recorder.start();
+            long measureStart = System.nanoTime();
+            Thread.sleep(duration);
+            recorder.stop(System.nanoTime() - measureStart);
+            shoppers.forEach(VirtualUser::stop);
+            for (Future<?> shopper : running) {
+                shopper.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Upserts {@code count} generated books through the bulk import, with titles drawn from the search keywords,
+     * and gives every unsharded book enough stock that no checkout runs short.
+     */
+    private static List<Long> seedCatalog(ConfigurableApplicationContext context, int count) {
+        StringBuilder csv = new StringBuilder("isbn,title,author,description,price,stockQuantity,category\n");
+        String[] keywords = VirtualUser.KEYWORDS;
+        for (int i = 0; i < count; i++) {
+            csv.append("LOAD-").append(i).append(',')
+                    .append("The ").append(keywords[i % keywords.length]).append(' ')
+                    .append(keywords[(i / keywords.length) % keywords.length]).append(' ').append(i).append(',')
+                    .append("Author ").append(i % 700).append(',')
+                    .append("Generated book ").append(i).append(" about the ")
+                    .append(keywords[(i * 7) % keywords.length]).append(',')
+                    .append(5 + i % 40).append(".99,")
+                    .append(STOCK).append(',')
+                    .append(CATEGORIES[i % CATEGORIES.length]).append('\n');
+        }
+        InputStream feed = new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8));
+        BookImportReport report = context.getBean(BookImportService.class)
+                .importBooks(feed, BookImportService.Format.CSV);
+        if (report.getFailed() > 0) {
+            throw new IllegalStateException("Catalog seed rejected rows: " + report.getErrors());
+        }
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("UPDATE books SET stock_quantity = ? WHERE stock_shards = 0", STOCK);
+        return jdbcTemplate.queryForList("SELECT id FROM books ORDER BY id", Long.class);
+    }
+
+    private static List<String> registerShoppers(HttpClient client, String baseUrl, int users, JsonMapper jsonMapper)
+            throws IOException, InterruptedException {
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        List<String> tokens = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            String body = "{\"email\":\"load-" + run + "-" + i + "@example.com\",\"password\":\"shopper123\","
+                    + "\"firstName\":\"Load\",\"lastName\":\"Shopper\"}";
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/register"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Registering a shopper failed: " + response.body());
+            }
+            tokens.add(jsonMapper.readTree(response.body()).get("accessToken").asString());
+        }
+        return tokens;
+    }
+
+    private static Properties budgets(String file) throws IOException {
+        Properties budgets = new Properties();
+        try (InputStream in = file.isBlank()
+                ? LoadTest.class.getResourceAsStream("/load-test-budgets.properties")
+                : Files.newInputStream(Path.of(file))) {
+            budgets.load(in);
+        }
+        return budgets;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> summary) {
+        System.out.printf("%n%-26s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        ((Map<String, Map<String, Object>>) summary.get("endpoints")).values().forEach(stats ->
+                System.out.printf("%-26s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                        stats.get("route"), stats.get("count"), stats.get("errors"), stats.get("throughput"),
+                        stats.get("p50Ms"), stats.get("p90Ms"), stats.get("p99Ms"), stats.get("p999Ms"),
+                        stats.get("maxMs")));
+        System.out.printf("%-26s %9s %7s %9.1f%n%n", "total", "", "", summary.get("throughput"));
+    }
+}
@@ -0,0 +1,119 @@
+package com.bookstore.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One shopper replaying sessions back to back until stopped: one to three listing pages, a search half of the
+ * time, one or two book details, and in three sessions out of ten one or two add-to-carts followed by a checkout
+ * half of the time. Abandoned carts are bought by a later session's checkout, as on the real site.
+ * <p>
+ * Each user waits for a response before sending the next request (a closed workload), so latencies are measured
+ * per request and throughput is what {@code users} concurrent shoppers achieve.
+ */
+final class VirtualUser implements Runnable {
+
+    static final String[] KEYWORDS = { "river", "shadow", "garden", "empire", "machine", "winter", "ocean", "crown" };
+    private static final String[] SORT_FIELDS = { "title", "price", "createdAt" };
+    private static final int PAGE_SIZE = 20;
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final String bearer;
+    private final List<Long> bookIds;
+    private final LatencyRecorder recorder;
+    private final Duration thinkTime;
+    private volatile boolean stopped;
+
+    VirtualUser(HttpClient client, String baseUrl, String accessToken, List<Long> bookIds,
+            LatencyRecorder recorder, Duration thinkTime) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.bearer = "Bearer " + accessToken;
+        this.bookIds = bookIds;
+        this.recorder = recorder;
+        this.thinkTime = thinkTime;
+    }
+
+    void stop() {
+        stopped = true;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!stopped) {
+                session(ThreadLocalRandom.current());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void session(ThreadLocalRandom random) throws InterruptedException {
+        int pages = Math.max(1, bookIds.size() / PAGE_SIZE);
+        for (int i = 1 + random.nextInt(3); i > 0; i--) {
+            String sortBy = SORT_FIELDS[random.nextInt(SORT_FIELDS.length)];
+            call(Endpoint.BROWSE, get("/api/books?size=" + PAGE_SIZE + "&page=" + random.nextInt(Math.min(pages, 50))
+                    + "&sortBy=" + sortBy), 200);
+        }
+        if (random.nextBoolean()) {
+            call(Endpoint.SEARCH, get("/api/books/search?size=" + PAGE_SIZE + "&keyword="
+                    + KEYWORDS[random.nextInt(KEYWORDS.length)]), 200);
+        }
+        for (int i = 1 + random.nextInt(2); i > 0; i--) {
+            call(Endpoint.DETAILS, get("/api/books/" + randomBook(random)), 200);
+        }
+        if (random.nextInt(10) < 3) {
+            for (int i = 1 + random.nextInt(2); i > 0; i--) {
+                call(Endpoint.ADD_TO_CART, post("/api/cart/add",
+                        "{\"bookId\":" + randomBook(random) + ",\"quantity\":1}"), 201);
+            }
+            if (random.nextBoolean()) {
+                call(Endpoint.CHECKOUT, post("/api/orders/checkout", "{\"shippingAddress\":\"1 Load Test Way\"}"), 201);
+            }
+        }
+    }
+
+    private long randomBook(ThreadLocalRandom random) {
+        return bookIds.get(random.nextInt(bookIds.size()));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", bearer)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", bearer)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private void call(Endpoint endpoint, HttpRequest request, int expectedStatus) throws InterruptedException {
+        if (stopped) {
+            return;
+        }
+        long start = System.nanoTime();
+        boolean ok;
+        try {
+            ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == expectedStatus;
+        } catch (IOException ex) {
+            ok = false;
+        }
+        recorder.record(endpoint, System.nanoTime() - start, ok);
+        if (!thinkTime.isZero()) {
+            Thread.sleep(thinkTime);
+        }
+    }
+}
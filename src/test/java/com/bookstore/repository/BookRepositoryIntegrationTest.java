@@ -5,6 +5,10 @@ import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -30,4 +34,33 @@ class BookRepositoryIntegrationTest {
         assertThat(bookRepository.findById(book.getId()).orElseThrow().getStockQuantity()).isEqualTo(18);
         assertThat(bookRepository.decrementStockIfAvailable(book.getId(), 19)).isZero();
     }
+
+    @Test
+    void searchByKeyword_ranksTitleMatchesBeforeAuthorAndDescriptionMatches() {
+        Book dune = bookRepository.findByIsbn("978-0441172719").orElseThrow();
+        dune.setAuthor("Gatsby Scholar");
+        Book cleanCode = bookRepository.findByIsbn("978-0132350884").orElseThrow();
+        cleanCode.setDescription("Not about Gatsby at all");
+        entityManager.flush();
+        entityManager.clear();
+
+        Page<Book> result = bookRepository.searchByKeyword("GATSBY", PageRequest.of(0, 10));
+
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        assertThat(result.getContent())
+                .extracting(Book::getTitle)
+                .containsExactly("The Great Gatsby", "Dune", "Clean Code");
+    }
+
+    @Test
+    void findSliceBy_reportsHasNextWithoutTotal() {
+        Slice<Book> first = bookRepository.findSliceBy(PageRequest.of(0, 3, Sort.by("title")));
+        Slice<Book> last = bookRepository.findSliceBy(PageRequest.of(1, 3, Sort.by("title")));
+
+        assertThat(first.getContent()).extracting(Book::getTitle)
+                .containsExactly("Clean Code", "Dune", "Sapiens: A Brief History of Humankind");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(last.getContent()).hasSize(2);
+        assertThat(last.hasNext()).isFalse();
+    }
 }
@@ -0,0 +1,91 @@
+package com.bookstore.security;
+
+import com.bookstore.repository.UserRepository;
+import com.bookstore.service.AuthService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+class BearerAuthenticationIntegrationTest {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private AuthService authService;
+
+    @MockitoSpyBean
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(SecurityMockMvcConfigurers.springSecurity())
+                .build();
+    }
+
+    @Test
+    void repeatedBearerTokenAuthenticatesWithoutUserLookup() throws Exception {
+        String token = jwtTokenProvider.generateToken("user@test.com");
+
+        mockMvc.perform(get("/api/cart").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        verify(userRepository).findByEmail("user@test.com");
+        clearInvocations(userRepository);
+
+        mockMvc.perform(get("/api/cart").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void tokenWithUserClaimsAuthenticatesWithoutAnyLookup() throws Exception {
+        String token = authService.login("user@test.com", "user123").getAccessToken();
+        clearInvocations(userRepository);
+
+        mockMvc.perform(get("/api/cart").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void logoutRevokesOutstandingAccessTokens() throws Exception {
+        String token = authService.login("admin@bookstore.com", "admin123").getAccessToken();
+        mockMvc.perform(get("/api/cart").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer " + token))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/cart").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+        String renewed = authService.login("admin@bookstore.com", "admin123").getAccessToken();
+        mockMvc.perform(get("/api/cart").header("Authorization", "Bearer " + renewed))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void invalidBearerTokenIsRejected() throws Exception {
+        mockMvc.perform(get("/api/cart").header("Authorization", "Bearer not-a-jwt"))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,180 @@
+package com.bookstore.security;
+
+import com.bookstore.repository.RateLimitCounters;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.bookstore.config.DatabasePlatform;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Two store instances sharing the H2 database stand in for two application nodes.
+ */
+@SpringBootTest
+class JdbcRateLimitStoreIntegrationTest {
+
+    private static final int CLIENTS = 1_000;
+    private static final long WINDOW = 60_000;
+    private static final long NOW = 10 * WINDOW + 1_000;
+    private static final long CLIENT = SlidingWindowRateLimiter.hash("203.0.113.9", 0, 11);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DatabasePlatform databasePlatform;
+
+    private RateLimitCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        counters = spy(new RateLimitCounters(jdbcTemplate, databasePlatform));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM rate_limit_counters");
+    }
+
+    @Test
+    void limitHoldsAcrossNodes() {
+        JdbcRateLimitStore nodeA = new JdbcRateLimitStore(counters, CLIENTS, 10, WINDOW, 3, 200);
+        JdbcRateLimitStore nodeB = new JdbcRateLimitStore(counters, CLIENTS, 10, WINDOW, 3, 200);
+
+        int admitted = 0;
+        for (int i = 0; i < 20; i++) {
+            JdbcRateLimitStore node = i % 2 == 0 ? nodeA : nodeB;
+            if (node.tryAcquire(CLIENT, NOW + i)) {
+                admitted++;
+            }
+        }
+
+        assertThat(admitted).isEqualTo(10);
+        assertThat(nodeA.tryAcquire(CLIENT, NOW + WINDOW)).isTrue();
+    }
+
+    @Test
+    void admitsFromLocalLeaseWithoutDatabaseRoundTrips() {
+        JdbcRateLimitStore node = new JdbcRateLimitStore(counters, CLIENTS, 100, WINDOW, 25, 200);
+
+        for (int i = 0; i < 25; i++) {
+            assertThat(node.tryAcquire(CLIENT, NOW)).isTrue();
+        }
+
+        verify(counters, times(1)).claim(anyLong(), anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void syncTopsUpActiveLeasesAheadOfDemand() {
+        JdbcRateLimitStore node = new JdbcRateLimitStore(counters, CLIENTS, 100, WINDOW, 4, 200);
+        for (int i = 0; i < 3; i++) {
+            node.tryAcquire(CLIENT, NOW);
+        }
+
+        node.sync(NOW + 100);
+        for (int i = 0; i < 5; i++) {
+            assertThat(node.tryAcquire(CLIENT, NOW + 150)).isTrue();
+        }
+
+        verify(counters, times(2)).claim(anyLong(), anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void idleNodeReturnsUnusedLeaseToOtherNodes() {
+        JdbcRateLimitStore nodeA = new JdbcRateLimitStore(counters, CLIENTS, 10, WINDOW, 10, 200);
+        JdbcRateLimitStore nodeB = new JdbcRateLimitStore(counters, CLIENTS, 10, WINDOW, 10, 200);
+        assertThat(nodeA.tryAcquire(CLIENT, NOW)).isTrue();
+        assertThat(nodeA.tryAcquire(CLIENT, NOW)).isTrue();
+        assertThat(nodeB.tryAcquire(CLIENT, NOW)).isTrue(); // allowance, charged to the budget by its claim
+        assertThat(nodeB.tryAcquire(CLIENT, NOW)).isFalse();
+
+        nodeA.sync(NOW + 5_000);
+        nodeB.sync(NOW + 5_000);
+
+        int admitted = 0;
+        for (int i = 0; i < 20; i++) {
+            if (nodeB.tryAcquire(CLIENT, NOW + 5_000)) {
+                admitted++;
+            }
+        }
+        assertThat(admitted).isEqualTo(7);
+    }
+
+    @Test
+    void firstRequestIsAdmittedLocallyAndClaimedBySync() {
+        JdbcRateLimitStore node = new JdbcRateLimitStore(counters, CLIENTS, 10, WINDOW, 5, 200);
+
+        assertThat(node.tryAcquire(CLIENT, NOW)).isTrue();
+        verify(counters, never()).claim(anyLong(), anyLong(), anyInt(), anyInt());
+
+        node.sync(NOW + 100);
+
+        verify(counters).claimAll(NOW - NOW % WINDOW, Map.of(CLIENT, 6), 10);
+        for (int i = 0; i < 5; i++) {
+            assertThat(node.tryAcquire(CLIENT, NOW + 150)).isTrue();
+        }
+        verify(counters, never()).claim(anyLong(), anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void syncClaimsTopUpsOfAllClientsInOneBatch() {
+        JdbcRateLimitStore nodeA = new JdbcRateLimitStore(counters, CLIENTS, 10, WINDOW, 3, 200);
+        JdbcRateLimitStore nodeB = new JdbcRateLimitStore(counters, CLIENTS, 10, WINDOW, 3, 200);
+        long[] clients = new long[5];
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = SlidingWindowRateLimiter.hash("192.0.2." + i, 0, 9);
+            nodeA.tryAcquire(clients[i], NOW);
+        }
+        nodeB.tryAcquire(clients[0], NOW);
+        nodeB.tryAcquire(clients[0], NOW); // claims 4 of the budget on its own
+
+        nodeA.sync(NOW + 100);
+
+        verify(counters, times(1)).claimAll(anyLong(), anyMap(), anyInt());
+        verify(counters, times(1)).claim(anyLong(), anyLong(), anyInt(), anyInt());
+        assertThat(jdbcTemplate.queryForList("SELECT claimed FROM rate_limit_counters ORDER BY claimed", Integer.class))
+                .containsExactly(4, 4, 4, 4, 8);
+        for (int i = 0; i < 3; i++) {
+            assertThat(nodeA.tryAcquire(clients[1], NOW + 150)).isTrue();
+        }
+    }
+
+    @Test
+    void clientsBeyondCapacityClaimEachRequest() {
+        JdbcRateLimitStore node = new JdbcRateLimitStore(counters, 1, 2, WINDOW, 5, 200);
+        long otherClient = SlidingWindowRateLimiter.hash("198.51.100.7", 0, 12);
+        node.tryAcquire(CLIENT, NOW);
+
+        assertThat(node.tryAcquire(otherClient, NOW)).isTrue();
+        assertThat(node.tryAcquire(otherClient, NOW)).isTrue();
+        assertThat(node.tryAcquire(otherClient, NOW)).isFalse();
+
+        verify(counters, times(3)).claim(eq(otherClient), anyLong(), eq(1), eq(2));
+    }
+
+    @Test
+    void syncDeletesPastWindows() {
+        JdbcRateLimitStore node = new JdbcRateLimitStore(counters, CLIENTS, 10, WINDOW, 5, 200);
+        node.tryAcquire(CLIENT, NOW);
+        node.sync(NOW + 100);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rate_limit_counters", Long.class)).isOne();
+
+        node.sync(NOW + WINDOW);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rate_limit_counters", Long.class)).isZero();
+    }
+}
@@ -0,0 +1,158 @@
+package com.bookstore.security;
+
+import com.bookstore.domain.projection.UserTokenVersion;
+import com.bookstore.entity.Role;
+import com.bookstore.entity.User;
+import com.bookstore.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JwtPrincipalCacheTest {
+
+    private static final String SECRET = "testJwtSecretWithAtLeastThirtyTwoBytesForHs256";
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private JwtTokenProvider jwtTokenProvider;
+    private TokenVersions tokenVersions;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtPrincipalCache cache;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = spy(new JwtTokenProvider(SECRET, 3_600_000L));
+        tokenVersions = new TokenVersions(userRepository, 3_600_000L);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new JwtPrincipalCache(jwtTokenProvider, userDetailsService, tokenVersions, meterRegistry, 100);
+    }
+
+    @Test
+    void buildsPrincipalFromClaimsWithoutLookup() {
+        User user = user(7L, "reader@example.com", Role.ADMIN);
+        user.setTokenVersion(2);
+        String token = jwtTokenProvider.generateToken(user);
+
+        UserPrincipal principal = (UserPrincipal) cache.resolve(token).orElseThrow();
+
+        assertThat(principal.getUser().getId()).isEqualTo(7L);
+        assertThat(principal.getUsername()).isEqualTo("reader@example.com");
+        assertThat(principal.getUser().getTokenVersion()).isEqualTo(2);
+        assertThat(principal.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_ADMIN");
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void rejectsCachedTokenOnceItsVersionIsRevoked() {
+        String token = jwtTokenProvider.generateToken(user(7L, "reader@example.com", Role.USER));
+        assertThat(cache.resolve(token)).isPresent();
+
+        tokenVersions.record(7L, 1);
+
+        assertThat(cache.resolve(token)).isEmpty();
+        User reissued = user(7L, "reader@example.com", Role.USER);
+        reissued.setTokenVersion(1);
+        assertThat(cache.resolve(jwtTokenProvider.generateToken(reissued))).isPresent();
+        assertThat(validationFailures("revoked")).isEqualTo(1);
+        assertThat(validationFailures("invalid")).isZero();
+    }
+
+    @Test
+    void refreshLoadsRecentRevocationsAndForgetsExpiredOnes() {
+        LocalDateTime now = LocalDateTime.now();
+        tokenVersions.record(7L, 1);
+        when(userRepository.findTokenVersionsRevokedSince(eq(now.plusHours(1)))).thenReturn(List.of());
+        when(userRepository.findTokenVersionsRevokedSince(eq(now.minusHours(1))))
+                .thenReturn(List.of(revocation(8L, 3, now.minusMinutes(5))));
+
+        tokenVersions.refresh(now);
+        assertThat(tokenVersions.isCurrent(7L, 0)).isFalse();
+        assertThat(tokenVersions.isCurrent(8L, 2)).isFalse();
+        assertThat(tokenVersions.isCurrent(8L, 3)).isTrue();
+
+        // an hour on, every token issued before either revocation has expired
+        tokenVersions.refresh(now.plusHours(2));
+        assertThat(tokenVersions.isCurrent(7L, 0)).isTrue();
+        assertThat(tokenVersions.isCurrent(8L, 2)).isTrue();
+    }
+
+    @Test
+    void repeatedTokenIsParsedAndLoadedOnce() {
+        UserPrincipal reader = principal("reader@example.com");
+        when(userDetailsService.loadUserByUsername("reader@example.com")).thenReturn(reader);
+        String token = jwtTokenProvider.generateToken("reader@example.com");
+
+        assertThat(cache.resolve(token)).contains(reader);
+        assertThat(cache.resolve(token)).contains(reader);
+
+        verify(jwtTokenProvider, times(1)).parseClaims(token);
+        verify(userDetailsService, times(1)).loadUserByUsername("reader@example.com");
+    }
+
+    @Test
+    void rejectsTamperedAndExpiredTokensWithoutLookup() {
+        String token = jwtTokenProvider.generateToken("reader@example.com");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        String expired = new JwtTokenProvider(SECRET, -1_000L).generateToken("reader@example.com");
+
+        assertThat(cache.resolve(tampered)).isEmpty();
+        assertThat(cache.resolve(expired)).isEmpty();
+        assertThat(cache.resolve("not-a-jwt")).isEmpty();
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        assertThat(validationFailures("invalid")).isEqualTo(3);
+    }
+
+    private double validationFailures(String reason) {
+        return meterRegistry.get("bookstore.jwt.validation.failures").tag("reason", reason).counter().count();
+    }
+
+    private static UserTokenVersion revocation(long userId, int tokenVersion, LocalDateTime revokedAt) {
+        return new UserTokenVersion() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public int getTokenVersion() {
+                return tokenVersion;
+            }
+
+            @Override
+            public LocalDateTime getTokensRevokedAt() {
+                return revokedAt;
+            }
+        };
+    }
+
+    private static UserPrincipal principal(String email) {
+        return new UserPrincipal(user(1L, email, Role.USER));
+    }
+
+    private static User user(Long id, String email, Role role) {
+        User user = User.builder().email(email).password("hash").role(role).build();
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,69 @@
+package com.bookstore.security;
+
+import com.bookstore.entity.Role;
+import com.bookstore.entity.User;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of issuing an access token and of authenticating one the way {@code JwtAuthenticationFilter} does on a
+ * principal cache miss: verify, parse and rebuild the principal. {@code parseTampered} covers the rejection path.
+ * Run with {@code mvn -Pbenchmark test -Dbenchmark=JwtTokenProvider}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKeyForJWTTokenGenerationThatIsLongEnoughForHS256";
+
+    private JwtTokenProvider tokenProvider;
+    private User user;
+    private String token;
+    private String tamperedToken;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider(SECRET, TimeUnit.HOURS.toMillis(1));
+        user = User.builder()
+                .email("reader@example.com")
+                .role(Role.USER)
+                .tokenVersion(3)
+                .build();
+        user.setId(42L);
+        token = tokenProvider.generateToken(user);
+        char last = token.charAt(token.length() - 1);
+        tamperedToken = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+    }
+
+    @Benchmark
+    public String generate() {
+        return tokenProvider.generateToken(user);
+    }
+
+    @Benchmark
+    public Optional<UserPrincipal> parseAndBuildPrincipal() {
+        return tokenProvider.parseClaims(token).flatMap(tokenProvider::toPrincipal);
+    }
+
+    @Benchmark
+    public Optional<Claims> parseTampered() {
+        return tokenProvider.parseClaims(tamperedToken);
+    }
+}
@@ -0,0 +1,90 @@
+package com.bookstore.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-filter cost of a rate-limit decision: path checks, client key hashing (from {@code X-Forwarded-For} when
+ * {@code forwarded}) and the limiter. {@code admitted} uses a 1 ms window so clients never reach the limit;
+ * {@code rejected} uses a limit of 0 and includes writing the 429 body.
+ * Run with {@code mvn -Pbenchmark test -Dbenchmark=RateLimitFilter}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RateLimitFilterBenchmark {
+
+    private static final int DISTINCT_CLIENTS = 10_000;
+    private static final FilterChain PASS = (request, response) -> { };
+
+    @Param({ "false", "true" })
+    public boolean forwarded;
+
+    private MockHttpServletRequest[] requests;
+    private RateLimitFilter admittingFilter;
+    private RateLimitFilter rejectingFilter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        requests = new MockHttpServletRequest[DISTINCT_CLIENTS];
+        for (int i = 0; i < DISTINCT_CLIENTS; i++) {
+            String client = "10." + (i >>> 16 & 0xff) + "." + (i >>> 8 & 0xff) + "." + (i & 0xff);
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/cart/add");
+            if (forwarded) {
+                request.addHeader("X-Forwarded-For", " " + client + ", 172.16.0.1");
+                request.setRemoteAddr("172.16.0.2");
+            } else {
+                request.setRemoteAddr(client);
+            }
+            requests[i] = request;
+        }
+        admittingFilter = new RateLimitFilter(new SlidingWindowRateLimiter(1 << 16, 120, 1), new SimpleMeterRegistry());
+        rejectingFilter = new RateLimitFilter(new SlidingWindowRateLimiter(1 << 16, 0, 60_000),
+                new SimpleMeterRegistry());
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next = ThreadLocalRandom.current().nextInt();
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        MockHttpServletRequest request(MockHttpServletRequest[] requests) {
+            return requests[(next++ & Integer.MAX_VALUE) % requests.length];
+        }
+    }
+
+    @Benchmark
+    public int admitted(Cursor cursor) throws Exception {
+        admittingFilter.doFilter(cursor.request(requests), cursor.response, PASS);
+        return cursor.response.getStatus();
+    }
+
+    @Benchmark
+    public int rejected(Cursor cursor) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        rejectingFilter.doFilter(cursor.request(requests), response, PASS);
+        return response.getStatus();
+    }
+}
@@ -1,6 +1,8 @@
 package com.bookstore.security;
 
+import com.bookstore.config.RateLimitConfig;
 import com.bookstore.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.Test;
 import org.springframework.mock.web.MockHttpServletRequest;
@@ -17,7 +19,9 @@ class RateLimitFilterTest {
         RateLimitProperties properties = new RateLimitProperties();
         properties.setMaxRequests(1);
         properties.setWindowSeconds(60);
-        RateLimitFilter filter = new RateLimitFilter(properties);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RateLimitFilter filter = new RateLimitFilter(new RateLimitConfig().inMemoryRateLimitStore(properties),
+                meterRegistry);
 
         MockHttpServletRequest first = new MockHttpServletRequest("POST", "/api/auth/login");
         first.setRemoteAddr("10.0.0.1");
@@ -36,13 +40,15 @@ class RateLimitFilterTest {
 
         assertThat(secondResponse.getStatus()).isEqualTo(429);
         assertThat(secondResponse.getContentAsString()).contains("Rate limit exceeded");
+        assertThat(meterRegistry.get("bookstore.ratelimit.rejections").counter().count()).isEqualTo(1);
     }
 
     @Test
     void skipsPublicCatalogReadsAndPreflightRequests() throws ServletException, IOException {
         RateLimitProperties properties = new RateLimitProperties();
         properties.setMaxRequests(0);
-        RateLimitFilter filter = new RateLimitFilter(properties);
+        RateLimitFilter filter = new RateLimitFilter(new RateLimitConfig().inMemoryRateLimitStore(properties),
+                new SimpleMeterRegistry());
 
         MockHttpServletRequest catalogRequest = new MockHttpServletRequest("GET", "/api/books/5");
         MockHttpServletResponse catalogResponse = new MockHttpServletResponse();
@@ -0,0 +1,92 @@
+package com.bookstore.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request-path throughput of {@link SlidingWindowRateLimiter} against the previous per-client
+ * {@code ConcurrentHashMap} approach, with clients drawn from a pool of {@code distinctKeys}.
+ * Run with {@code mvn -Pbenchmark test -Dbenchmark=SlidingWindowRateLimiter}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class SlidingWindowRateLimiterBenchmark {
+
+    private static final int MAX_REQUESTS = 100;
+    private static final long WINDOW_MILLIS = 60_000;
+
+    @Param({ "1000", "1000000" })
+    public int distinctKeys;
+
+    private String[] clients;
+    private long[] hashes;
+    private SlidingWindowRateLimiter limiter;
+    private ConcurrentHashMap<String, long[]> legacyWindows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        clients = new String[distinctKeys];
+        hashes = new long[distinctKeys];
+        for (int i = 0; i < distinctKeys; i++) {
+            clients[i] = "10." + (i >>> 16 & 0xff) + "." + (i >>> 8 & 0xff) + "." + (i & 0xff);
+            hashes[i] = SlidingWindowRateLimiter.hash(clients[i], 0, clients[i].length());
+        }
+        limiter = new SlidingWindowRateLimiter(1 << 20, MAX_REQUESTS, WINDOW_MILLIS);
+        legacyWindows = new ConcurrentHashMap<>();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next = ThreadLocalRandom.current().nextInt();
+    }
+
+    @Benchmark
+    public boolean slidingWindow(Cursor cursor) {
+        int index = (cursor.next++ & Integer.MAX_VALUE) % distinctKeys;
+        return limiter.tryAcquire(hashes[index], System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public boolean hashAndAcquire(Cursor cursor) {
+        String client = clients[(cursor.next++ & Integer.MAX_VALUE) % distinctKeys];
+        return limiter.tryAcquire(SlidingWindowRateLimiter.hash(client, 0, client.length()),
+                System.currentTimeMillis());
+    }
+
+    /**
+     * The fixed-window map the filter used before: one entry per client, never evicted.
+     */
+    @Benchmark
+    public boolean concurrentHashMapBaseline(Cursor cursor) {
+        String client = clients[(cursor.next++ & Integer.MAX_VALUE) % distinctKeys];
+        long now = System.currentTimeMillis();
+        long[] window = legacyWindows.compute(client, (key, existing) -> {
+            if (existing == null || now - existing[0] > WINDOW_MILLIS) {
+                return new long[] { now, 1 };
+            }
+            existing[1]++;
+            return existing;
+        });
+        return window[1] <= MAX_REQUESTS;
+    }
+}
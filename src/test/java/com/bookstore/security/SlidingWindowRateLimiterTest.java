@@ -0,0 +1,69 @@
+package com.bookstore.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowRateLimiterTest {
+
+    private static final long WINDOW = 60_000;
+
+    @Test
+    void limitsEachClientIndependentlyWithinWindow() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1024, 3, WINDOW);
+        long alice = key("10.0.0.1");
+        long bob = key("10.0.0.2");
+
+        assertThat(limiter.tryAcquire(alice, 1_000)).isTrue();
+        assertThat(limiter.tryAcquire(alice, 2_000)).isTrue();
+        assertThat(limiter.tryAcquire(alice, 3_000)).isTrue();
+        assertThat(limiter.tryAcquire(alice, 4_000)).isFalse();
+        assertThat(limiter.tryAcquire(bob, 4_000)).isTrue();
+    }
+
+    @Test
+    void weighsPreviousWindowByRemainingOverlap() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1024, 4, WINDOW);
+        long client = key("10.0.0.1");
+        for (int i = 0; i < 4; i++) {
+            assertThat(limiter.tryAcquire(client, WINDOW - 10)).isTrue();
+        }
+
+        // just after the boundary the previous 4 requests still count almost fully
+        assertThat(limiter.tryAcquire(client, WINDOW + 10)).isFalse();
+        // half-way through, they count as 2
+        assertThat(limiter.tryAcquire(client, WINDOW + WINDOW / 2)).isTrue();
+        assertThat(limiter.tryAcquire(client, WINDOW + WINDOW / 2)).isTrue();
+        assertThat(limiter.tryAcquire(client, WINDOW + WINDOW / 2)).isFalse();
+        // two windows later the client starts fresh
+        assertThat(limiter.tryAcquire(client, 3 * WINDOW)).isTrue();
+    }
+
+    @Test
+    void keepsMemoryFixedAndEvictsLeastActiveClientsUnderKeyScan() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(64, 5, WINDOW);
+        int capacity = limiter.capacity();
+        long heavy = key("203.0.113.7");
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(heavy, 1_000);
+        }
+
+        for (int i = 0; i < 100_000; i++) {
+            assertThat(limiter.tryAcquire(key("198.51." + i), 1_000)).isTrue();
+        }
+
+        assertThat(limiter.capacity()).isEqualTo(capacity);
+        assertThat(limiter.tryAcquire(heavy, 1_000)).isFalse();
+    }
+
+    @Test
+    void rejectsEverythingWhenLimitIsZero() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(16, 0, WINDOW);
+
+        assertThat(limiter.tryAcquire(key("10.0.0.1"), 1_000)).isFalse();
+    }
+
+    private static long key(String client) {
+        return SlidingWindowRateLimiter.hash(client, 0, client.length());
+    }
+}
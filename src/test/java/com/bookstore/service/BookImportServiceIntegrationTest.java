@@ -0,0 +1,111 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.BookImportReport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BookImportServiceIntegrationTest {
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO books (title, author, isbn, price, stock_quantity, stock_shards, category_id) "
+                + "VALUES ('Old Title', 'Old Author', 'IMPORT-1', 9.99, 7, 0, 1)");
+    }
+
+    @AfterEach
+    void removeImportedBooks() {
+        jdbcTemplate.update("DELETE FROM books WHERE isbn LIKE 'IMPORT-%'");
+    }
+
+    @Test
+    void importsCsvRowsAndReportsRejectedOnes() {
+        String feed = """
+                isbn,title,author,description,price,stockQuantity,category,ignored
+                IMPORT-1,New Title,New Author,,12.50,99,technology,x
+                IMPORT-2,Second,Someone,"Quoted, with a comma
+                and a line break",5.00,3,Science Fiction,x
+
+                IMPORT-3,,Nobody,,5.00,1,,x
+                IMPORT-4,Fourth,Someone,,free,1,,x
+                IMPORT-5,Fifth,Someone,,5.00,1,Poetry,x
+                """;
+
+        BookImportReport report = bookImportService.importBooks(stream(feed), BookImportService.Format.CSV);
+
+        assertThat(report.getRows()).isEqualTo(5);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(3);
+        assertThat(report.getErrors()).extracting(BookImportReport.RowError::getRow).containsExactly(3L, 4L, 5L);
+        assertThat(report.getErrors().get(0).getMessage()).isEqualTo("Title is required");
+        assertThat(report.getErrors().get(2).getMessage()).isEqualTo("Unknown category: Poetry");
+
+        Map<String, Object> updated = book("IMPORT-1");
+        assertThat(updated).containsEntry("TITLE", "New Title").containsEntry("CATEGORY_ID", 4L);
+        assertThat(updated.get("STOCK_QUANTITY")).isEqualTo(7); // stock of existing books is not imported
+        Map<String, Object> inserted = book("IMPORT-2");
+        assertThat(inserted).containsEntry("DESCRIPTION", "Quoted, with a comma\nand a line break")
+                .containsEntry("STOCK_QUANTITY", 3).containsEntry("CATEGORY_ID", 3L);
+    }
+
+    @Test
+    void importsJsonLinesAndIsolatesRowsTheDatabaseRejects() {
+        String feed = """
+                {"isbn":"IMPORT-2","title":"Second","author":"Someone","price":5.00,"stockQuantity":2}
+                {"isbn":"IMPORT-3","title":"%s","author":"Someone","price":5.00}
+                not json
+                {"isbn":"IMPORT-4","title":"Fourth","author":"Someone","price":6.00,"category":"Fiction"}
+                """.formatted("x".repeat(300));
+
+        BookImportReport report = bookImportService.importBooks(stream(feed), BookImportService.Format.JSON_LINES);
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting(BookImportReport.RowError::getRow).containsExactly(2L, 3L);
+        assertThat(report.getErrors().get(0).getIsbn()).isEqualTo("IMPORT-3");
+        assertThat(report.getErrors().get(0).getMessage()).startsWith("Could not be saved");
+        assertThat(report.getErrors().get(1).getMessage()).startsWith("Unreadable row");
+        assertThat(book("IMPORT-4")).containsEntry("CATEGORY_ID", 1L).containsEntry("STOCK_QUANTITY", 0);
+    }
+
+    @Test
+    void writesTheLastRowOfARepeatedIsbnAndReportsTheOthers() {
+        String feed = """
+                {"isbn":"IMPORT-2","title":"First","author":"Someone","price":5.00}
+                {"isbn":"IMPORT-3","title":"Third","author":"Someone","price":5.00}
+                {"isbn":"IMPORT-2","title":"Second","author":"Someone","price":5.00}
+                {"isbn":"IMPORT-2","title":"Last","author":"Someone","price":5.00}
+                """;
+
+        BookImportReport report = bookImportService.importBooks(stream(feed), BookImportService.Format.JSON_LINES);
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting(BookImportReport.RowError::getMessage).containsExactly(
+                "Superseded by row 3 with the same ISBN", "Superseded by row 4 with the same ISBN");
+        assertThat(book("IMPORT-2")).containsEntry("TITLE", "Last");
+    }
+
+    private Map<String, Object> book(String isbn) {
+        return jdbcTemplate.queryForMap("SELECT * FROM books WHERE isbn = ?", isbn);
+    }
+
+    private static ByteArrayInputStream stream(String feed) {
+        return new ByteArrayInputStream(feed.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,148 @@
+package com.bookstore.service;
+
+import com.bookstore.config.CatalogSearchProperties;
+import com.bookstore.entity.Book;
+import com.bookstore.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookSearchIndexTest {
+
+    private BookRepository bookRepository;
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = mock(BookRepository.class);
+        when(bookRepository.findAll()).thenReturn(List.of(
+                book(1L, "The Great Gatsby", "F. Scott Fitzgerald", "978-0743273565", "A classic novel of the Jazz Age"),
+                book(4L, "Dune", "Frank Herbert", "978-0441172719", "Epic science fiction masterpiece"),
+                book(5L, "Clean Code", "Robert C. Martin", "978-0132350884", "A handbook of agile software craftsmanship")));
+        CatalogSearchProperties properties = new CatalogSearchProperties();
+        properties.setInMemoryIndex(true);
+        index = new BookSearchIndex(bookRepository, properties);
+        index.rebuild();
+    }
+
+    @Test
+    void search_matchesPrefixesTyposAndIsbns() {
+        assertThat(ids("gats")).containsExactly(1L);
+        assertThat(ids("herbret")).containsExactly(4L);
+        assertThat(ids("9780132350884")).containsExactly(5L);
+        assertThat(ids("978-0441172719")).containsExactly(4L);
+    }
+
+    @Test
+    void search_matchesTyposInTitlesAndAuthorsOnly() {
+        assertThat(ids("fitzgerlad")).containsExactly(1L);
+        assertThat(ids("fitzgrld")).containsExactly(1L);
+        assertThat(ids("masterpeice")).isEmpty();
+        assertThat(ids("masterpiece")).containsExactly(4L);
+    }
+
+    @Test
+    void index_forgetsTyposOfRemovedTerms() {
+        index.index(book(4L, "Dune Messiah", "Anonymous", null, null));
+
+        assertThat(ids("herbret")).isEmpty();
+        assertThat(ids("mesiah")).containsExactly(4L);
+    }
+
+    @Test
+    void deletionNeighbourhoods_overlapForTermsWithinEditDistance() {
+        List<String[]> pairs = List.of(
+                new String[] { "herbert", "herbret" },
+                new String[] { "fitzgerald", "fitzgrald" },
+                new String[] { "fitzgerald", "fiztgerlad" },
+                new String[] { "gatsby", "gatbsy" },
+                new String[] { "clean", "claen" });
+        for (String[] pair : pairs) {
+            int distance = pair[0].length() >= 8 || pair[1].length() >= 8 ? 2 : 1;
+            assertThat(BookSearchIndex.withinEditDistance(pair[0], pair[1], distance)).isTrue();
+            assertThat(BookSearchIndex.deletionNeighbourhood(pair[0], distance))
+                    .containsAnyElementsOf(BookSearchIndex.deletionNeighbourhood(pair[1], distance));
+        }
+    }
+
+    @Test
+    void search_requiresEveryTermAndRanksTitleAboveDescription() {
+        index.index(book(6L, "Jazz Standards", "Anonymous", null, null));
+
+        assertThat(ids("jazz")).containsExactly(6L, 1L);
+        assertThat(ids("jazz classic")).containsExactly(1L);
+    }
+
+    @Test
+    void index_replacesAndRemovesDocumentsIncrementally() {
+        index.index(book(4L, "Children of Dune", "Frank Herbert", null, null));
+        assertThat(ids("children")).containsExactly(4L);
+        assertThat(ids("epic")).isEmpty();
+
+        index.remove(4L);
+        assertThat(ids("dune")).isEmpty();
+    }
+
+    @Test
+    void index_appliesTransactionalChangesOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.index(book(6L, "Jazz Standards", "Anonymous", null, null));
+            index.remove(4L);
+            assertThat(ids("standards")).isEmpty();
+            assertThat(ids("dune")).containsExactly(4L);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(ids("standards")).isEmpty();
+        assertThat(ids("dune")).containsExactly(4L);
+    }
+
+    @Test
+    void rebuild_replaysChangesCommittedWhileLoading() {
+        when(bookRepository.findAll()).thenAnswer(invocation -> {
+            index.index(book(6L, "Jazz Standards", "Anonymous", null, null));
+            index.remove(5L);
+            return List.of(
+                    book(4L, "Dune", "Frank Herbert", null, null),
+                    book(5L, "Clean Code", "Robert C. Martin", null, null));
+        });
+
+        index.rebuild();
+
+        assertThat(ids("standards")).containsExactly(6L);
+        assertThat(ids("clean")).isEmpty();
+        assertThat(ids("dune")).containsExactly(4L);
+    }
+
+    @Test
+    void search_pagesOverRankedIds() {
+        Page<Long> page = index.search("978", PageRequest.of(1, 1));
+
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent()).hasSize(1);
+    }
+
+    private List<Long> ids(String keyword) {
+        return index.search(keyword, PageRequest.of(0, 10)).getContent();
+    }
+
+    private static Book book(Long id, String title, String author, String isbn, String description) {
+        Book book = Book.builder().title(title).author(author).isbn(isbn).description(description).build();
+        book.setId(id);
+        return book;
+    }
+}
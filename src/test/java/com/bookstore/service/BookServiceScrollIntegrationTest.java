@@ -0,0 +1,89 @@
+package com.bookstore.service;
+
+import com.bookstore.entity.Book;
+import com.bookstore.exception.BadRequestException;
+import com.bookstore.pagination.CursorCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class BookServiceScrollIntegrationTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @ParameterizedTest
+    @CsvSource({
+            "title, ASC", "title, DESC",
+            "author, ASC", "author, DESC",
+            "price, ASC", "price, DESC",
+            "stockQuantity, ASC", "stockQuantity, DESC",
+            "createdAt, ASC", "createdAt, DESC"
+    })
+    void scrollBooks_walksEverySortableFieldInOffsetOrder(String field, Sort.Direction direction) {
+        Sort sort = Sort.by(direction, field);
+        List<Long> offsetOrder = bookService.getAllBooks(PageRequest.of(0, 100, sort.and(Sort.by(direction, "id"))))
+                .map(Book::getId)
+                .getContent();
+
+        List<Long> cursorOrder = walk(position -> bookService.scrollBooks(sort, position, 2));
+
+        assertThat(offsetOrder).hasSize(5);
+        assertThat(cursorOrder).isEqualTo(offsetOrder);
+    }
+
+    @Test
+    void scrollSearch_walksMatchesInRelevanceOrder() {
+        List<Long> offsetOrder = bookService.searchBooks("an", PageRequest.of(0, 100))
+                .map(Book::getId)
+                .getContent();
+
+        List<Long> cursorOrder = walk(position -> bookService.scrollSearch("an", position, 1));
+
+        assertThat(offsetOrder).hasSizeGreaterThan(1);
+        assertThat(cursorOrder).isEqualTo(offsetOrder);
+    }
+
+    @Test
+    void scrollBooks_rejectsCursorIssuedForAnotherSort() {
+        Window<Book> firstPage = bookService.scrollBooks(Sort.by("title"), ScrollPosition.keyset(), 2);
+        KeysetScrollPosition titleCursor = CursorCodec.decode(CursorCodec.encode(firstPage.positionAt(1)));
+
+        assertThatThrownBy(() -> bookService.scrollBooks(Sort.by("price"), titleCursor, 2))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Cursor does not match the requested sort");
+    }
+
+    /**
+     * Follows cursors through their opaque token form until the last page.
+     */
+    private static List<Long> walk(Function<KeysetScrollPosition, Window<Book>> pageLoader) {
+        List<Long> ids = new ArrayList<>();
+        KeysetScrollPosition position = ScrollPosition.keyset();
+        while (true) {
+            Window<Book> page = pageLoader.apply(position);
+            page.forEach(book -> ids.add(book.getId()));
+            if (!page.hasNext()) {
+                return ids;
+            }
+            position = CursorCodec.decode(CursorCodec.encode(page.positionAt(page.size() - 1)));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.bookstore.service;
+
+import com.bookstore.domain.CartSummary;
+import com.bookstore.dto.CartResponse;
+import com.bookstore.entity.Book;
+import com.bookstore.entity.CartItem;
+import com.bookstore.entity.User;
+import com.bookstore.mapper.CartMapper;
+import com.bookstore.repository.CartItemRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CartService#getCart} totals in {@code BigDecimal} for a cart of {@code lines} items, and the
+ * {@link CartResponse} built from them as {@code GET /api/cart} does. The repository hands back preloaded items,
+ * so no database time is included. Run with {@code mvn -Pbenchmark test -Dbenchmark=CartService}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CartServiceBenchmark {
+
+    @Param({ "1", "10", "50" })
+    public int lines;
+
+    private final CartMapper cartMapper = new CartMapper();
+    private CartService cartService;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        user = User.builder().email("reader@example.com").build();
+        user.setId(42L);
+        List<CartItem> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            Book book = Book.builder()
+                    .title("Benchmark Title " + i)
+                    .author("Author " + i)
+                    .price(new BigDecimal("12.49").add(BigDecimal.valueOf(i * 7L, 2)))
+                    .stockQuantity(100)
+                    .build();
+            book.setId((long) i + 1);
+            items.add(CartItem.builder().id((long) i + 1).user(user).book(book).quantity(1 + i % 3).build());
+        }
+        List<CartItem> cart = List.copyOf(items);
+        CartItemRepository cartItems = (CartItemRepository) Proxy.newProxyInstance(
+                CartItemRepository.class.getClassLoader(), new Class<?>[] { CartItemRepository.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findByUserId")) {
+                        return cart;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        cartService = new CartService(cartItems, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public CartSummary totals() {
+        return cartService.getCart(user);
+    }
+
+    @Benchmark
+    public CartResponse response() {
+        CartSummary summary = cartService.getCart(user);
+        return CartResponse.builder()
+                .items(summary.getItems().stream().map(cartMapper::toDTO).toList())
+                .totalItems(summary.getTotalItems())
+                .totalAmount(summary.getTotalAmount())
+                .build();
+    }
+}
@@ -1,8 +1,12 @@
 package com.bookstore.service;
 
+import com.bookstore.config.DatabasePlatform;
+import com.bookstore.domain.projection.CartLine;
 import com.bookstore.entity.CartItem;
 import com.bookstore.entity.Book;
 import com.bookstore.entity.User;
+import com.bookstore.exception.BadRequestException;
+import com.bookstore.repository.BookStockLevels;
 import com.bookstore.repository.CartItemRepository;
 import com.bookstore.validation.OwnershipValidator;
 import com.bookstore.validation.StockValidator;
@@ -17,6 +21,7 @@ import java.math.BigDecimal;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,12 +33,18 @@ class CartServiceTest {
     @Mock
     private BookService bookService;
 
+    @Mock
+    private BookStockLevels bookStockLevels;
+
     @Mock
     private StockValidator stockValidator;
 
     @Mock
     private OwnershipValidator ownershipValidator;
 
+    @Mock
+    private DatabasePlatform databasePlatform;
+
     @InjectMocks
     private CartService cartService;
 
@@ -60,6 +71,47 @@ class CartServiceTest {
         assertThat(result).isNotNull();
     }
 
+    @Test
+    void addToCart_onPostgreSqlUpsertsLineInOneStatement() {
+        User user = User.builder().build();
+        user.setId(1L);
+        CartLine line = mock(CartLine.class);
+        when(line.getId()).thenReturn(5L);
+        when(line.getQuantity()).thenReturn(5);
+        when(line.getBookId()).thenReturn(10L);
+        when(line.getTitle()).thenReturn("Refactoring");
+        when(line.getPrice()).thenReturn(BigDecimal.valueOf(20));
+        when(databasePlatform.isPostgreSql()).thenReturn(true);
+        when(cartItemRepository.upsertLine(1L, 10L, 3)).thenReturn(Optional.of(line));
+
+        CartItem result = cartService.addToCart(user, 10L, 3);
+
+        assertThat(result.getId()).isEqualTo(5L);
+        assertThat(result.getQuantity()).isEqualTo(5);
+        assertThat(result.getBook().getId()).isEqualTo(10L);
+        assertThat(result.getBook().getPrice()).isEqualByComparingTo("20");
+        verifyNoInteractions(bookService, stockValidator);
+        verify(cartItemRepository, never()).save(any());
+    }
+
+    @Test
+    void addToCart_onPostgreSqlExplainsRejectedUpsert() {
+        User user = User.builder().build();
+        user.setId(1L);
+        Book book = Book.builder().price(BigDecimal.valueOf(20)).stockQuantity(4).build();
+        book.setId(10L);
+        CartItem existing = CartItem.builder().user(user).book(book).quantity(2).build();
+        when(databasePlatform.isPostgreSql()).thenReturn(true);
+        when(cartItemRepository.upsertLine(1L, 10L, 3)).thenReturn(Optional.empty());
+        when(bookService.getBookEntity(10L)).thenReturn(book);
+        when(cartItemRepository.findByUserIdAndBookId(1L, 10L)).thenReturn(Optional.of(existing));
+        BadRequestException exceeded = new BadRequestException("Total quantity exceeds available stock. Available: 4");
+        doThrow(exceeded).when(stockValidator).validateTotalQuantity(book, 5);
+
+        assertThatThrownBy(() -> cartService.addToCart(user, 10L, 3)).isSameAs(exceeded);
+        verify(stockValidator).validateAvailableStock(book, 3);
+    }
+
     @Test
     void updateCartItem_validatesOwnershipAndStock() {
         User user = User.builder().build();
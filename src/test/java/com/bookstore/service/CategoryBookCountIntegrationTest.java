@@ -0,0 +1,74 @@
+package com.bookstore.service;
+
+import com.bookstore.entity.Book;
+import com.bookstore.repository.CategoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class CategoryBookCountIntegrationTest {
+
+    private static final long SCIENCE_FICTION = 3L;
+    private static final long TECHNOLOGY = 4L;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void bookCountFollowsBookChanges() {
+        long technology = bookCount(TECHNOLOGY);
+        long scienceFiction = bookCount(SCIENCE_FICTION);
+
+        Book book = bookService.createBook(Book.builder()
+                .title("Refactoring")
+                .author("Martin Fowler")
+                .isbn("COUNT-1")
+                .price(BigDecimal.valueOf(45))
+                .stockQuantity(1)
+                .category(categoryRepository.getReferenceById(TECHNOLOGY))
+                .build());
+        assertThat(bookCount(TECHNOLOGY)).isEqualTo(technology + 1);
+
+        Book moved = bookService.getBookById(book.getId());
+        moved.setCategory(categoryRepository.getReferenceById(SCIENCE_FICTION));
+        bookService.updateBook(moved);
+        assertThat(bookCount(TECHNOLOGY)).isEqualTo(technology);
+        assertThat(bookCount(SCIENCE_FICTION)).isEqualTo(scienceFiction + 1);
+
+        bookService.deleteBook(book.getId());
+        assertThat(bookCount(SCIENCE_FICTION)).isEqualTo(scienceFiction);
+    }
+
+    @Test
+    void reconciliationCorrectsDrift() {
+        long technology = bookCount(TECHNOLOGY);
+        jdbcTemplate.update("UPDATE categories SET book_count = 99 WHERE id = ?", TECHNOLOGY);
+
+        categoryService.reconcileBookCounts();
+
+        assertThat(bookCount(TECHNOLOGY)).isEqualTo(technology)
+                .isEqualTo(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books WHERE category_id = ?", Long.class,
+                        TECHNOLOGY));
+    }
+
+    private long bookCount(long categoryId) {
+        return categoryService.getCategoryWithBookCountById(categoryId).getBookCount();
+    }
+}
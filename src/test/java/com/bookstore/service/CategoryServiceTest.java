@@ -1,5 +1,7 @@
 package com.bookstore.service;
 
+import com.bookstore.cache.BookDetailsCache;
+import com.bookstore.cache.CatalogVersion;
 import com.bookstore.entity.Category;
 import com.bookstore.exception.BadRequestException;
 import com.bookstore.repository.BookRepository;
@@ -26,6 +28,12 @@ class CategoryServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private BookDetailsCache bookDetailsCache;
+
+    @Mock
+    private CatalogVersion catalogVersion;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -0,0 +1,96 @@
+package com.bookstore.service;
+
+import com.bookstore.BookstoreApplication;
+import com.bookstore.entity.Book;
+import com.bookstore.entity.Order;
+import com.bookstore.entity.OrderItem;
+import com.bookstore.entity.OrderStatus;
+import com.bookstore.entity.User;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of inserting a checked-out order with {@code lines} items, with JDBC batching off ({@code jdbcBatchSize=1})
+ * and at the configured batch size. Each invocation flushes the inserts and rolls them back.
+ * Runs on the H2 seed data by default; point it at PostgreSQL to include real round trips, e.g.
+ * {@code mvn -Pbenchmark test -Dbenchmark="CheckoutInsert -jvmArgsAppend -Dspring.profiles.active=docker"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CheckoutInsertBenchmark {
+
+    private static final long[] SEEDED_BOOK_IDS = { 1, 2, 3, 4, 5 };
+
+    @Param({ "1", "10", "100" })
+    public int lines;
+
+    @Param({ "1", "50" })
+    public int jdbcBatchSize;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactions;
+    private EntityManager entityManager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BookstoreApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize,
+                        "logging.level.root=WARN")
+                .run();
+        transactions = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        entityManager = context.getBean(EntityManager.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long insertOrder() {
+        return transactions.execute(status -> {
+            Order order = Order.builder()
+                    .user(entityManager.getReference(User.class, 1L))
+                    .status(OrderStatus.PENDING)
+                    .shippingAddress("1 Benchmark Way")
+                    .totalAmount(BigDecimal.valueOf(lines))
+                    .build();
+            for (int i = 0; i < lines; i++) {
+                order.addOrderItem(OrderItem.builder()
+                        .book(entityManager.getReference(Book.class, SEEDED_BOOK_IDS[i % SEEDED_BOOK_IDS.length]))
+                        .quantity(1)
+                        .priceAtPurchase(BigDecimal.ONE)
+                        .build());
+            }
+            entityManager.persist(order);
+            entityManager.flush();
+            status.setRollbackOnly();
+            return order.getId();
+        });
+    }
+}
@@ -0,0 +1,186 @@
+package com.bookstore.service;
+
+import com.bookstore.cache.BookDetailsCache;
+import com.bookstore.config.InventoryLedgerProperties;
+import com.bookstore.repository.InventoryLeases;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ledger instances sharing the H2 database stand in for application nodes.
+ */
+@SpringBootTest
+class InventoryLedgerIntegrationTest {
+
+    private static final long BOOK_ID = 3L;
+    private static final long IDLE = 10_000;
+
+    @Autowired
+    private InventoryLeases inventoryLeases;
+
+    @Autowired
+    private BookDetailsCache bookDetailsCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private int originalStock;
+
+    @BeforeEach
+    void setUp() {
+        originalStock = stockQuantity();
+        jdbcTemplate.update("UPDATE books SET stock_quantity = 7 WHERE id = ?", BOOK_ID);
+    }
+
+    @AfterEach
+    void restoreStock() {
+        jdbcTemplate.update("DELETE FROM order_items WHERE order_id >= 900000");
+        jdbcTemplate.update("DELETE FROM orders WHERE id >= 900000");
+        jdbcTemplate.update("DELETE FROM inventory_leases");
+        jdbcTemplate.update("UPDATE books SET stock_quantity = ? WHERE id = ?", originalStock, BOOK_ID);
+    }
+
+    @Test
+    void stockIsNeverReservedTwiceAcrossNodes() {
+        InventoryLedger nodeA = ledger("node-a");
+        InventoryLedger nodeB = ledger("node-b");
+
+        int reserved = 0;
+        for (int i = 0; i < 20; i++) {
+            if ((i % 2 == 0 ? nodeA : nodeB).reserve(BOOK_ID, 1)) {
+                reserved++;
+            }
+        }
+
+        assertThat(reserved).isEqualTo(7);
+        assertThat(stockQuantity()).isZero();
+    }
+
+    @Test
+    void rolledBackReservationsReturnToTheLeaseAndIdleLeasesToTheBook() {
+        InventoryLedger node = ledger("node-a");
+        TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+
+        transactions.executeWithoutResult(status -> {
+            assertThat(node.reserve(BOOK_ID, 2)).isTrue();
+            status.setRollbackOnly();
+        });
+        // the claim ran in the rolled-back transaction
+        assertThat(stockQuantity()).isEqualTo(7);
+        assertThat(node.reserve(BOOK_ID, 1)).isTrue();
+        node.sync(System.currentTimeMillis());
+
+        assertThat(stockQuantity()).isEqualTo(4);
+        assertThat(leasedQuantity("node-a")).isEqualTo(2);
+
+        node.sync(System.currentTimeMillis() + IDLE);
+
+        assertThat(stockQuantity()).isEqualTo(6);
+        assertThat(leasedQuantity("node-a")).isZero();
+    }
+
+    @Test
+    void leasesHandedBackWhenIdleAreForgotten() {
+        InventoryLedger node = ledger("node-a");
+        assertThat(node.reserve(BOOK_ID, 1)).isTrue();
+        long now = System.currentTimeMillis();
+        node.sync(now + IDLE);
+        assertThat(stockQuantity()).isEqualTo(6);
+
+        // a forgotten lease is neither topped up nor written again
+        node.sync(now);
+
+        assertThat(stockQuantity()).isEqualTo(6);
+        assertThat(leasedQuantity("node-a")).isZero();
+        assertThat(node.reserve(BOOK_ID, 2)).isTrue();
+        assertThat(stockQuantity()).isEqualTo(3);
+    }
+
+    @Test
+    void syncTopsUpActiveLeasesSoCheckoutsNeedNotClaim() {
+        InventoryLedger node = ledger("node-a");
+        assertThat(node.reserve(BOOK_ID, 2)).isTrue();
+        assertThat(stockQuantity()).isEqualTo(4);
+
+        node.sync(System.currentTimeMillis());
+        assertThat(stockQuantity()).isEqualTo(1);
+
+        TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+        transactions.executeWithoutResult(status -> assertThat(node.reserve(BOOK_ID, 4)).isTrue());
+        assertThat(stockQuantity()).isEqualTo(1);
+    }
+
+    @Test
+    void restartedNodeReturnsWhatItLeftLeased() {
+        InventoryLedger crashed = ledger("node-a");
+        assertThat(crashed.reserve(BOOK_ID, 1)).isTrue();
+        crashed.sync(System.currentTimeMillis());
+
+        ledger("node-a").onApplicationReady();
+
+        assertThat(stockQuantity()).isEqualTo(6);
+        assertThat(leasedQuantity("node-a")).isZero();
+    }
+
+    @Test
+    void restartedNodeWritesOffOnlyWhatItsOwnOrdersTookSinceItsLastSync() {
+        InventoryLedger crashed = ledger("node-a");
+        assertThat(crashed.reserve(BOOK_ID, 1)).isTrue();
+        crashed.sync(System.currentTimeMillis());
+        LocalDateTime afterSync = LocalDateTime.now().plusSeconds(1);
+        order(900001, "node-a", afterSync, 1);
+        order(900002, "node-b", afterSync, 2);
+        order(900003, null, null, 2); // still pending
+        order(900004, "node-a", afterSync.minusHours(1), 2); // already in the synced lease
+
+        ledger("node-a").onApplicationReady();
+
+        assertThat(stockQuantity()).isEqualTo(5);
+        assertThat(leasedQuantity("node-a")).isZero();
+    }
+
+    private void order(long id, String stockNode, LocalDateTime reservedAt, int quantity) {
+        jdbcTemplate.update("""
+                INSERT INTO orders (id, user_id, total_amount, status, stock_node, stock_reserved_at, created_at)
+                VALUES (?, (SELECT MIN(id) FROM users), 10, ?, ?, ?, CURRENT_TIMESTAMP)
+                """, id, stockNode != null ? "CONFIRMED" : "PENDING", stockNode,
+                reservedAt != null ? Timestamp.valueOf(reservedAt) : null);
+        jdbcTemplate.update("""
+                INSERT INTO order_items (id, order_id, book_id, quantity, price_at_purchase) VALUES (?, ?, ?, ?, 5)
+                """, id, id, BOOK_ID, quantity);
+    }
+
+    private InventoryLedger ledger(String nodeId) {
+        InventoryLedgerProperties properties = new InventoryLedgerProperties();
+        properties.setEnabled(true);
+        properties.setNodeId(nodeId);
+        properties.setLeaseSize(3);
+        properties.setSyncInterval(Duration.ofMillis(IDLE / 5));
+        return new InventoryLedger(inventoryLeases, bookDetailsCache, properties);
+    }
+
+    private int stockQuantity() {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM books WHERE id = ?", Integer.class, BOOK_ID);
+    }
+
+    private int leasedQuantity(String nodeId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(quantity), 0) FROM inventory_leases WHERE book_id = ? AND node_id = ?",
+                Integer.class, BOOK_ID, nodeId);
+    }
+}
@@ -0,0 +1,98 @@
+package com.bookstore.service;
+
+import com.bookstore.domain.projection.OrderSummary;
+import com.bookstore.entity.Order;
+import com.bookstore.entity.OrderItem;
+import com.bookstore.entity.User;
+import com.bookstore.pagination.CursorCodec;
+import com.bookstore.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class OrderHistoryIntegrationTest {
+
+    private static final LocalDateTime PLACED_AT = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.findByEmail("user@test.com").orElseThrow();
+        // five orders, three of them placed at the same instant, with one or two lines each
+        for (int i = 0; i < 5; i++) {
+            long orderId = 9101 + i;
+            jdbcTemplate.update("INSERT INTO orders (id, user_id, total_amount, status, created_at, updated_at) "
+                            + "VALUES (?, ?, 10.00, 'CONFIRMED', ?, ?)",
+                    orderId, user.getId(), Timestamp.valueOf(PLACED_AT.plusMinutes(Math.min(i, 2))),
+                    Timestamp.valueOf(PLACED_AT));
+            for (int line = 0; line <= i % 2; line++) {
+                jdbcTemplate.update("INSERT INTO order_items (id, order_id, book_id, quantity, price_at_purchase) "
+                        + "VALUES (?, ?, ?, 1, 5.00)", orderId * 10 + line, orderId, line + 1);
+            }
+        }
+    }
+
+    @Test
+    void scrollUserOrders_walksHistoryNewestFirst() {
+        List<Long> expected = jdbcTemplate.queryForList(
+                "SELECT id FROM orders WHERE user_id = ? ORDER BY created_at DESC, id DESC", Long.class, user.getId());
+
+        List<Long> walked = new ArrayList<>();
+        KeysetScrollPosition position = ScrollPosition.keyset();
+        while (true) {
+            Window<OrderSummary> page = orderService.scrollUserOrders(user, position, 2);
+            page.forEach(summary -> walked.add(summary.getId()));
+            if (!page.hasNext()) {
+                break;
+            }
+            position = CursorCodec.decode(CursorCodec.encode(page.positionAt(page.size() - 1)));
+        }
+
+        assertThat(expected).contains(9101L, 9102L, 9103L, 9104L, 9105L);
+        assertThat(walked).isEqualTo(expected);
+    }
+
+    @Test
+    void scrollUserOrdersWithItems_loadsItemsOfThePage() {
+        List<Long> expected = jdbcTemplate.queryForList(
+                "SELECT id FROM orders WHERE user_id = ? ORDER BY created_at DESC, id DESC", Long.class, user.getId());
+        int firstOwnOrder = expected.indexOf(9105L);
+        KeysetScrollPosition position = firstOwnOrder == 0 ? ScrollPosition.keyset()
+                : (KeysetScrollPosition) orderService.scrollUserOrders(user, ScrollPosition.keyset(), firstOwnOrder)
+                        .positionAt(firstOwnOrder - 1);
+
+        Window<Order> page = orderService.scrollUserOrdersWithItems(user, position, 3);
+        Window<OrderSummary> summaries = orderService.scrollUserOrders(user, position, 3);
+
+        assertThat(page.getContent()).extracting(Order::getId).containsExactly(9105L, 9104L, 9103L);
+        assertThat(page.getContent()).extracting(order -> order.getOrderItems().size()).containsExactly(1, 2, 1);
+        assertThat(page.getContent().get(1).getOrderItems()).extracting(OrderItem::getBook).doesNotContainNull();
+        assertThat(summaries.getContent()).extracting(OrderSummary::getItemCount).containsExactly(1L, 2L, 1L);
+        assertThat(page.positionAt(2)).isEqualTo(summaries.positionAt(2));
+    }
+}
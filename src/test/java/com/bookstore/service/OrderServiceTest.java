@@ -1,5 +1,7 @@
 package com.bookstore.service;
 
+import com.bookstore.cache.BookDetailsCache;
+import com.bookstore.config.DatabasePlatform;
 import com.bookstore.entity.Book;
 import com.bookstore.entity.CartItem;
 import com.bookstore.entity.Order;
@@ -9,12 +11,17 @@ import com.bookstore.exception.BadRequestException;
 import com.bookstore.repository.BookRepository;
 import com.bookstore.repository.OrderRepository;
 import com.bookstore.validation.OwnershipValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -39,6 +46,21 @@ class OrderServiceTest {
     @Mock
     private OwnershipValidator ownershipValidator;
 
+    @Mock
+    private BookDetailsCache bookDetailsCache;
+
+    @Mock
+    private DatabasePlatform databasePlatform;
+
+    @Mock
+    private StockShardService stockShardService;
+
+    @Mock
+    private InventoryLedger inventoryLedger;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private OrderService orderService;
 
@@ -70,7 +92,47 @@ class OrderServiceTest {
 
         verify(cartService).clearCart(user);
         verify(bookRepository).decrementStockIfAvailable(10L, 2);
+        verify(bookDetailsCache).evict(10L);
         assertThat(result).isNotNull();
+        assertThat(checkoutOutcomes("success")).isEqualTo(1);
+    }
+
+    @Test
+    void checkout_isCountedAsSuccessOnlyOnceCommitted() {
+        User user = User.builder().build();
+        user.setId(1L);
+        Book book = Book.builder().price(BigDecimal.valueOf(25)).stockQuantity(10).build();
+        book.setId(10L);
+        CartItem item = CartItem.builder().user(user).book(book).quantity(1).build();
+        when(cartService.getCartItems(user)).thenReturn(List.of(item));
+        when(bookRepository.decrementStockIfAvailable(10L, 1)).thenReturn(1);
+        when(orderRepository.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            orderService.checkout(user, "123 Main St");
+            assertThat(checkoutOutcomes("success")).isZero();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(checkoutOutcomes("success")).isEqualTo(1);
+    }
+
+    @Test
+    void checkout_withEmptyCart_isRejectedAndCounted() {
+        User user = User.builder().build();
+        user.setId(1L);
+        when(cartService.getCartItems(user)).thenReturn(List.of());
+
+        assertThatThrownBy(() -> orderService.checkout(user, "123 Main St"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Cart is empty");
+
+        verify(orderRepository, never()).save(any(Order.class));
+        assertThat(checkoutOutcomes("empty_cart")).isEqualTo(1);
+        assertThat(checkoutOutcomes("success")).isZero();
     }
 
     @Test
@@ -90,5 +152,114 @@ class OrderServiceTest {
 
         verify(orderRepository, never()).save(any(Order.class));
         verify(cartService, never()).clearCart(user);
+        assertThat(checkoutOutcomes("out_of_stock")).isEqualTo(1);
+    }
+
+    @Test
+    void checkout_decrementsStockInBookIdOrder() {
+        User user = User.builder().build();
+        user.setId(1L);
+        CartItem later = CartItem.builder().user(user).book(book(30L, "Refactoring")).quantity(1).build();
+        CartItem earlier = CartItem.builder().user(user).book(book(10L, "Clean Code")).quantity(2).build();
+
+        when(cartService.getCartItems(user)).thenReturn(List.of(later, earlier));
+        when(bookRepository.decrementStockIfAvailable(anyLong(), anyInt())).thenReturn(1);
+        when(orderRepository.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        orderService.checkout(user, "123 Main St");
+
+        InOrder inOrder = inOrder(bookRepository);
+        inOrder.verify(bookRepository).decrementStockIfAvailable(10L, 2);
+        inOrder.verify(bookRepository).decrementStockIfAvailable(30L, 1);
+    }
+
+    @Test
+    void checkout_onPostgreSqlReservesAllLinesInOneStatement() {
+        User user = User.builder().build();
+        user.setId(1L);
+        CartItem later = CartItem.builder().user(user).book(book(30L, "Refactoring")).quantity(1).build();
+        CartItem earlier = CartItem.builder().user(user).book(book(10L, "Clean Code")).quantity(2).build();
+
+        when(databasePlatform.isPostgreSql()).thenReturn(true);
+        when(cartService.getCartItems(user)).thenReturn(List.of(later, earlier));
+        when(bookRepository.reserveStock(new Long[] { 10L, 30L }, new Integer[] { 2, 1 })).thenReturn(List.of());
+        when(orderRepository.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        Order result = orderService.checkout(user, "123 Main St");
+
+        assertThat(result.getTotalAmount()).isEqualByComparingTo("75");
+        verify(bookRepository, never()).decrementStockIfAvailable(anyLong(), anyInt());
+        verify(bookDetailsCache).evict(10L);
+        verify(bookDetailsCache).evict(30L);
+    }
+
+    @Test
+    void checkout_onPostgreSqlReportsEveryBookShortOfStock() {
+        User user = User.builder().build();
+        user.setId(1L);
+        CartItem first = CartItem.builder().user(user).book(book(10L, "Clean Code")).quantity(2).build();
+        CartItem second = CartItem.builder().user(user).book(book(30L, "Refactoring")).quantity(1).build();
+
+        when(databasePlatform.isPostgreSql()).thenReturn(true);
+        when(cartService.getCartItems(user)).thenReturn(List.of(first, second));
+        when(bookRepository.reserveStock(any(), any())).thenReturn(List.of(10L, 30L));
+
+        assertThatThrownBy(() -> orderService.checkout(user, "123 Main St"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Not enough stock available for books: Clean Code, Refactoring");
+
+        verify(orderRepository, never()).save(any(Order.class));
+        verifyNoInteractions(bookDetailsCache);
+    }
+
+    @Test
+    void checkout_takesShardedBooksFromTheirShards() {
+        User user = User.builder().build();
+        user.setId(1L);
+        Book sharded = book(30L, "Refactoring");
+        sharded.setStockShards(8);
+        CartItem shardedLine = CartItem.builder().user(user).book(sharded).quantity(3).build();
+        CartItem plainLine = CartItem.builder().user(user).book(book(10L, "Clean Code")).quantity(1).build();
+
+        when(cartService.getCartItems(user)).thenReturn(List.of(shardedLine, plainLine));
+        when(bookRepository.decrementStockIfAvailable(10L, 1)).thenReturn(1);
+        when(stockShardService.take(sharded, 3)).thenReturn(false);
+
+        assertThatThrownBy(() -> orderService.checkout(user, "123 Main St"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Not enough stock available for book: Refactoring");
+
+        verify(bookRepository, never()).decrementStockIfAvailable(30L, 3);
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void checkout_withInventoryLedgerReservesFromLeasesWithoutBookUpdates() {
+        User user = User.builder().build();
+        user.setId(1L);
+        CartItem first = CartItem.builder().user(user).book(book(20L, "Refactoring")).quantity(2).build();
+        CartItem second = CartItem.builder().user(user).book(book(10L, "Clean Code")).quantity(1).build();
+
+        when(cartService.getCartItems(user)).thenReturn(List.of(first, second));
+        when(inventoryLedger.isEnabled()).thenReturn(true);
+        when(inventoryLedger.reserve(10L, 1)).thenReturn(true);
+        when(inventoryLedger.reserve(20L, 2)).thenReturn(false);
+
+        assertThatThrownBy(() -> orderService.checkout(user, "123 Main St"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Not enough stock available for book: Refactoring");
+
+        verifyNoInteractions(bookRepository);
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    private double checkoutOutcomes(String outcome) {
+        return meterRegistry.get("bookstore.checkout.outcomes").tag("outcome", outcome).counter().count();
+    }
+
+    private static Book book(Long id, String title) {
+        Book book = Book.builder().title(title).price(BigDecimal.valueOf(25)).stockQuantity(10).build();
+        book.setId(id);
+        return book;
     }
 }
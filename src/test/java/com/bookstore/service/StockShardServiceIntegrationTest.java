@@ -0,0 +1,134 @@
+package com.bookstore.service;
+
+import com.bookstore.entity.Book;
+import com.bookstore.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class StockShardServiceIntegrationTest {
+
+    private static final long BOOK_ID = 2L;
+
+    @Autowired
+    private StockShardService stockShardService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactions;
+    private int originalStock;
+
+    @BeforeEach
+    void setUp() {
+        transactions = new TransactionTemplate(transactionManager);
+        originalStock = bookRepository.findById(BOOK_ID).orElseThrow().getStockQuantity();
+    }
+
+    @AfterEach
+    void restoreStock() {
+        stockShardService.setShards(BOOK_ID, 0);
+        jdbcTemplate.update("UPDATE books SET stock_quantity = ? WHERE id = ?", originalStock, BOOK_ID);
+    }
+
+    @Test
+    void shardingMovesStockIntoSlotsAndBack() {
+        stockShardService.setShards(BOOK_ID, 4);
+
+        Book sharded = bookService.getBookById(BOOK_ID);
+        assertThat(sharded.getStockQuantity()).isZero();
+        assertThat(sharded.getAvailableStock()).isEqualTo(originalStock);
+        assertThat(slotQuantities()).hasSize(4)
+                .allSatisfy(quantity -> assertThat(quantity).isBetween(originalStock / 4, originalStock / 4 + 1));
+
+        Book unsharded = stockShardService.setShards(BOOK_ID, 0);
+        assertThat(unsharded.getStockQuantity()).isEqualTo(originalStock);
+        assertThat(slotQuantities()).isEmpty();
+    }
+
+    @Test
+    void takeSpansSlotsAndFailsWhenShort() {
+        stockShardService.setShards(BOOK_ID, 4);
+        Book book = bookRepository.findById(BOOK_ID).orElseThrow();
+
+        Boolean half = transactions.execute(status -> stockShardService.take(book, originalStock / 2));
+        Boolean all = transactions.execute(status -> {
+            boolean taken = stockShardService.take(book, originalStock);
+            status.setRollbackOnly();
+            return taken;
+        });
+
+        assertThat(half).isTrue();
+        assertThat(all).isFalse();
+
+        assertThat(bookService.getBookById(BOOK_ID).getAvailableStock())
+                .isEqualTo(originalStock - originalStock / 2);
+    }
+
+    @Test
+    void concurrentCheckoutsNearSellOutSpanSlotsWithoutDeadlock() throws Exception {
+        stockShardService.setShards(BOOK_ID, 2);
+        Book book = bookRepository.findById(BOOK_ID).orElseThrow();
+
+        for (int round = 0; round < 5; round++) {
+            transactions.executeWithoutResult(status -> stockShardService.setStock(book, 4));
+
+            // each needs more than either slot holds, and only one of them can have it
+            CyclicBarrier bothInTransaction = new CyclicBarrier(2);
+            List<Future<Boolean>> takes;
+            try (ExecutorService checkouts = Executors.newFixedThreadPool(2)) {
+                takes = List.of(1, 2).stream()
+                        .map(i -> checkouts.submit(() -> transactions.execute(status -> {
+                            await(bothInTransaction);
+                            boolean taken = stockShardService.take(book, 3);
+                            if (!taken) {
+                                status.setRollbackOnly();
+                            }
+                            return taken;
+                        })))
+                        .toList();
+            }
+
+            assertThat(List.of(takes.get(0).get(10, TimeUnit.SECONDS), takes.get(1).get(10, TimeUnit.SECONDS)))
+                    .containsExactlyInAnyOrder(true, false);
+            assertThat(slotQuantities().stream().mapToInt(Integer::intValue).sum()).isEqualTo(1);
+        }
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(10, TimeUnit.SECONDS);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private List<Integer> slotQuantities() {
+        return jdbcTemplate.queryForList(
+                "SELECT quantity FROM book_stock_shards WHERE book_id = ? ORDER BY slot", Integer.class, BOOK_ID);
+    }
+}